@@ -14,6 +14,11 @@ import java.util.List;
  */
 public class FileUtils extends org.apache.commons.io.FileUtils {
 
+    /**
+     * 流写入文件时的缓冲区大小
+     */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     /**
      * 创建文件
      */
@@ -141,13 +146,13 @@ public class FileUtils extends org.apache.commons.io.FileUtils {
     }
 
     /**
-     * 将流写入指定路径
+     * 将流写入指定路径，边读边写，不会把整个流读入内存
      * @param file 目标文件
      * @param inputStream 流
      */
     public static void writeInputStreamToFile(File file, InputStream inputStream) {
-        try {
-            writeByteArrayToFile(file, IOUtils.toByteArray(inputStream));
+        try (OutputStream outputStream = openOutputStream(file)) {
+            IOUtils.copyLarge(inputStream, outputStream, new byte[COPY_BUFFER_SIZE]);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -174,4 +174,49 @@ public class StringUtils extends org.apache.commons.lang3.StringUtils {
         return param.substring(0, 1).toLowerCase() + param.substring(1);
     }
 
+    /**
+     * 计算字符串按 UTF-8 编码后的字节数，不生成字节数组
+     */
+    public static int utf8Length(CharSequence s) {
+        int total = 0;
+        for (int i = 0; i < s.length(); ) {
+            int n = utf8Length(s, i);
+            total += n;
+            i += n == 4 ? 2 : 1;
+        }
+        return total;
+    }
+
+    /**
+     * 计算字符串按 UTF-8 编码后不超过 maxBytes 个字节的最长前缀的字符数，不会拆分代理对
+     */
+    public static int utf8PrefixLength(CharSequence s, int maxBytes) {
+        int total = 0;
+        int i = 0;
+        while (i < s.length()) {
+            int n = utf8Length(s, i);
+            if (total + n > maxBytes) {
+                break;
+            }
+            total += n;
+            i += n == 4 ? 2 : 1;
+        }
+        return i;
+    }
+
+    /**
+     * 第 i 个字符按 UTF-8 编码后的字节数，代理对返回4，未配对的代理字符按替换字符计为3
+     */
+    private static int utf8Length(CharSequence s, int i) {
+        char c = s.charAt(i);
+        if (c < 0x80) {
+            return 1;
+        } else if (c < 0x800) {
+            return 2;
+        } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+            return 4;
+        }
+        return 3;
+    }
+
 }
@@ -0,0 +1,93 @@
+package com.dxy.library.network.http.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.dxy.library.network.http.Http;
+import com.dxy.library.network.http.callback.RequestCallback;
+import com.dxy.library.network.http.constant.Method;
+import com.dxy.library.network.http.executor.Executor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 异步请求吞吐量的性能测试，每次调用并发发出一批请求并等待全部完成
+ * @author duanxinyuan
+ * 2026/10/18 10:21
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnqueueBenchmark {
+
+    private static final int BATCH = 64;
+
+    private MockServer server;
+
+    private Executor executor;
+
+    private String url;
+
+    private String jsonUrl;
+
+    @Setup
+    public void setup() throws IOException {
+        server = new MockServer(1);
+        server.start();
+        executor = Http.disableRequestLog();
+        url = server.url(MockServer.PATH_STRING);
+        jsonUrl = server.url(MockServer.PATH_JSON);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void enqueue() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(BATCH);
+        RequestCallback callback = new RequestCallback() {
+            @Override
+            public void success(String s) {
+                latch.countDown();
+            }
+
+            @Override
+            public void failure(String s) {
+                latch.countDown();
+            }
+        };
+        for (int i = 0; i < BATCH; i++) {
+            executor.enqueue(Method.GET, url, null, null, null, null, callback);
+        }
+        latch.await();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void executeFuture() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            futures[i] = executor.getFuture(jsonUrl, Item.class);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+}
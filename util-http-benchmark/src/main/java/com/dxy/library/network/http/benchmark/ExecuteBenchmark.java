@@ -0,0 +1,77 @@
+package com.dxy.library.network.http.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.dxy.library.network.http.Http;
+import com.dxy.library.network.http.executor.Executor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 同步请求的性能测试，SampleTime 模式输出延迟分位数
+ * @author duanxinyuan
+ * 2026/10/18 10:21
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ExecuteBenchmark {
+
+    private MockServer server;
+
+    private Executor executor;
+
+    private String stringUrl;
+
+    private String jsonUrl;
+
+    @Setup
+    public void setup() throws IOException {
+        server = new MockServer(1);
+        server.start();
+        executor = Http.disableRequestLog();
+        stringUrl = server.url(MockServer.PATH_STRING);
+        jsonUrl = server.url(MockServer.PATH_JSON);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public String executeString() {
+        return executor.get(stringUrl);
+    }
+
+    @Benchmark
+    public byte[] executeBytes() {
+        return executor.get(stringUrl, byte[].class);
+    }
+
+    @Benchmark
+    public Item executeTyped() {
+        return executor.get(jsonUrl, Item.class);
+    }
+
+    @Benchmark
+    public Item executeTypedWithLog() {
+        return Http.enableRequestLog().get(jsonUrl, Item.class);
+    }
+
+}
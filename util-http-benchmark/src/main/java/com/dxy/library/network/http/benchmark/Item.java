@@ -0,0 +1,23 @@
+package com.dxy.library.network.http.benchmark;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * 性能测试使用的响应数据
+ * @author duanxinyuan
+ * 2026/10/18 10:21
+ */
+@Data
+public class Item {
+
+    private long id;
+
+    private String name;
+
+    private double price;
+
+    private List<String> tags;
+
+}
@@ -0,0 +1,141 @@
+package com.dxy.library.network.http.benchmark;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+
+import javax.net.ServerSocketFactory;
+
+import com.dxy.library.network.http.serializer.DefaultSerializer;
+import com.google.common.collect.Lists;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+/**
+ * 进程内的Http服务，性能测试不依赖外部网络
+ * @author duanxinyuan
+ * 2026/10/18 10:21
+ */
+public class MockServer {
+
+    public static final String PATH_STRING = "/string";
+
+    public static final String PATH_JSON = "/json";
+
+    public static final String PATH_LARGE_JSON = "/large";
+
+    private final MockWebServer server = new MockWebServer();
+
+    private final byte[] json;
+
+    private final byte[] largeJson;
+
+    /**
+     * @param largeItems 大JSON响应包含的数据条数
+     */
+    public MockServer(int largeItems) {
+        //关闭 Nagle 算法，避免延迟确认带来的 40ms 等待掩盖请求本身的开销
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        DefaultSerializer serializer = new DefaultSerializer();
+        this.json = serializer.to(items(1).get(0)).getBytes();
+        this.largeJson = serializer.to(items(largeItems)).getBytes();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getRequestUrl() == null ? "" : request.getRequestUrl().encodedPath();
+                switch (path) {
+                    case PATH_JSON:
+                        return jsonResponse(json);
+                    case PATH_LARGE_JSON:
+                        return jsonResponse(largeJson);
+                    default:
+                        return new MockResponse().setBody("hello, benchmark");
+                }
+            }
+        });
+    }
+
+    public void start() throws IOException {
+        server.start();
+    }
+
+    public void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    public String url(String path) {
+        return server.url(path).toString();
+    }
+
+    public byte[] getLargeJson() {
+        return largeJson;
+    }
+
+    private static MockResponse jsonResponse(byte[] bytes) {
+        return new MockResponse().setHeader("Content-Type", "application/json; charset=utf-8")
+            .setBody(new Buffer().write(bytes));
+    }
+
+    /**
+     * 生成测试数据
+     */
+    public static List<Item> items(int count) {
+        List<Item> items = Lists.newArrayListWithCapacity(count);
+        for (int i = 0; i < count; i++) {
+            Item item = new Item();
+            item.setId(i);
+            item.setName("item-" + i);
+            item.setPrice(i * 1.5);
+            item.setTags(Lists.newArrayList("tag-a", "tag-b", "tag-" + i));
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * 接受的连接开启 TCP_NODELAY
+     */
+    private static class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    return socket;
+                }
+            };
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            ServerSocket serverSocket = createServerSocket();
+            serverSocket.bind(new InetSocketAddress(port));
+            return serverSocket;
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            ServerSocket serverSocket = createServerSocket();
+            serverSocket.bind(new InetSocketAddress(port), backlog);
+            return serverSocket;
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress ifAddress) throws IOException {
+            ServerSocket serverSocket = createServerSocket();
+            serverSocket.bind(new InetSocketAddress(ifAddress, port), backlog);
+            return serverSocket;
+        }
+
+    }
+
+}
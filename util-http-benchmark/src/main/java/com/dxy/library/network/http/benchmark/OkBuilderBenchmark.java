@@ -0,0 +1,70 @@
+package com.dxy.library.network.http.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.dxy.library.network.http.builder.OkBuilder;
+import com.dxy.library.network.http.constant.Method;
+import com.dxy.library.network.http.header.Headers;
+import com.dxy.library.network.http.param.Params;
+import com.dxy.library.network.http.serializer.DefaultSerializer;
+import com.dxy.library.network.http.serializer.HttpSerializer;
+import okhttp3.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 请求构建的性能测试
+ * @author duanxinyuan
+ * 2026/10/18 10:21
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OkBuilderBenchmark {
+
+    private static final String URL = "http://localhost:8080/api/items";
+
+    private HttpSerializer serializer;
+
+    private Headers headers;
+
+    private Params params;
+
+    private List<Item> body;
+
+    @Setup
+    public void setup() {
+        serializer = new DefaultSerializer();
+        headers = new Headers("token", "benchmark-token").add("k1", "v1", "k2", "v2", "中文", "值");
+        params = new Params("name", "benchmark").add("page", 1).add("size", 20);
+        body = MockServer.items(20);
+    }
+
+    @Benchmark
+    public Request buildGet() {
+        return OkBuilder.builder(serializer, Method.GET, URL, headers, params, null, null).build();
+    }
+
+    @Benchmark
+    public Request buildPostForm() {
+        return OkBuilder.builder(serializer, Method.POST, URL, headers, params, null, null).build();
+    }
+
+    @Benchmark
+    public Request buildPostJson() {
+        return OkBuilder.builder(serializer, Method.POST, URL, headers, null, body, null).build();
+    }
+
+}
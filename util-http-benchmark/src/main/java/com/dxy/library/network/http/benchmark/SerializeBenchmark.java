@@ -0,0 +1,78 @@
+package com.dxy.library.network.http.benchmark;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.dxy.library.network.http.requester.OkHttpRequester;
+import com.dxy.library.network.http.serializer.DefaultSerializer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 大JSON响应反序列化的性能测试，不经过网络，配合 -prof gc 观察内存分配
+ * @author duanxinyuan
+ * 2026/10/18 10:21
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializeBenchmark {
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private static final Type ITEMS_TYPE = new TypeReference<List<Item>>() {}.getType();
+
+    /**
+     * 响应包含的数据条数
+     */
+    @Param({"1000", "100000"})
+    private int items;
+
+    private OkHttpRequester requester;
+
+    private Request request;
+
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        requester = new OkHttpRequester(new DefaultSerializer(), false, 60000, 0, 0, false);
+        request = new Request.Builder().url("http://localhost/large").build();
+        body = new DefaultSerializer().to(MockServer.items(items)).getBytes();
+    }
+
+    @Benchmark
+    public List<Item> serializeTyped() {
+        return requester.serialize(response(), ITEMS_TYPE);
+    }
+
+    @Benchmark
+    public String serializeString() {
+        return requester.serialize(response(), String.class);
+    }
+
+    private Response response() {
+        return new Response.Builder().request(request).protocol(Protocol.HTTP_1_1).code(200).message("OK")
+            .body(ResponseBody.create(body, JSON)).build();
+    }
+
+}
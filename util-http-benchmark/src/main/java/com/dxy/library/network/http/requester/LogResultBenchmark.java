@@ -0,0 +1,60 @@
+package com.dxy.library.network.http.requester;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.dxy.library.network.http.benchmark.Item;
+import com.dxy.library.network.http.benchmark.MockServer;
+import com.dxy.library.network.http.constant.Method;
+import com.dxy.library.network.http.header.Headers;
+import com.dxy.library.network.http.param.Params;
+import com.dxy.library.network.http.serializer.DefaultSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 请求日志的性能测试，logResult 为包级访问，所以放在 requester 包下
+ * @author duanxinyuan
+ * 2026/10/18 10:21
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogResultBenchmark {
+
+    private OkHttpRequester requester;
+
+    private Headers headers;
+
+    private Params params;
+
+    private List<Item> body;
+
+    private List<Item> response;
+
+    @Setup
+    public void setup() {
+        requester = new OkHttpRequester(new DefaultSerializer(), true, 60000, 0, 0, false);
+        headers = new Headers("token", "benchmark-token").add("k1", "v1");
+        params = new Params("name", "benchmark").add("page", 1);
+        body = MockServer.items(10);
+        response = MockServer.items(100);
+    }
+
+    @Benchmark
+    public void logResult() {
+        requester.logResult("http://localhost/api", Method.POST, headers, params, body, response, 200, null, 10);
+    }
+
+}
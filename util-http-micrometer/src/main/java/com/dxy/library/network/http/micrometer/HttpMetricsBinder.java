@@ -0,0 +1,154 @@
+package com.dxy.library.network.http.micrometer;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.dxy.library.network.http.Http;
+import com.dxy.library.network.http.metrics.CallMetrics;
+import com.dxy.library.network.http.metrics.HttpMetrics;
+import com.dxy.library.network.http.metrics.MetricKey;
+import com.dxy.library.network.http.metrics.MetricPhase;
+import com.dxy.library.network.http.metrics.PoolMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.HdrHistogram.Histogram;
+
+/**
+ * 将请求耗时统计注册到 Micrometer
+ * 每个统计维度和阶段注册 http.client.phase.count 计数和 http.client.phase.duration 分位数（单位为秒），
+ * 标签为 host、method、status、phase、quantile，需要开启 http.metrics.enable；
+ * 分位数为两次采集之间的区间统计，每次采集每个阶段只获取一次区间统计，同一次采集的各分位数共用；
+ * 同时注册共享连接池和异步调度器的统计：http.client.pool.connections、http.client.pool.acquired、
+ * http.client.pool.connected、http.client.pool.closed、http.client.pool.reuse.ratio、http.client.dispatcher.calls
+ * @author duanxinyuan
+ * 2026/10/18 20:00
+ */
+public class HttpMetricsBinder implements MeterBinder {
+
+    /**
+     * 默认导出的分位数
+     */
+    private static final double[] QUANTILES_DEFAULT = {0.5, 0.9, 0.99, 0.999};
+
+    /**
+     * 区间统计的最小刷新间隔，间隔内读取的分位数视为同一次采集，默认为1秒
+     */
+    private static final long REFRESH_INTERVAL_MILLIS_DEFAULT = 1000;
+
+    private final double[] quantiles;
+
+    private final long refreshIntervalMillis;
+
+    public HttpMetricsBinder() {
+        this(QUANTILES_DEFAULT);
+    }
+
+    public HttpMetricsBinder(double... quantiles) {
+        this(REFRESH_INTERVAL_MILLIS_DEFAULT, quantiles);
+    }
+
+    /**
+     * @param refreshIntervalMillis 区间统计的最小刷新间隔毫秒数，需要小于采集间隔
+     */
+    public HttpMetricsBinder(long refreshIntervalMillis, double... quantiles) {
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.quantiles = quantiles;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindPool(registry, Http.getPoolMetrics());
+        HttpMetrics.addListener((key, callMetrics) -> bind(registry, key, callMetrics));
+    }
+
+    private void bindPool(MeterRegistry registry, PoolMetrics poolMetrics) {
+        Gauge.builder("http.client.pool.connections", poolMetrics, PoolMetrics::getIdleConnections)
+            .tag("state", "idle")
+            .description("http client idle connections")
+            .register(registry);
+        Gauge.builder("http.client.pool.connections", poolMetrics, PoolMetrics::getActiveConnections)
+            .tag("state", "active")
+            .description("http client active connections")
+            .register(registry);
+        FunctionCounter.builder("http.client.pool.acquired", poolMetrics, PoolMetrics::getAcquiredCount)
+            .description("http client connection acquisitions, including reused connections")
+            .register(registry);
+        FunctionCounter.builder("http.client.pool.connected", poolMetrics, PoolMetrics::getConnectedCount)
+            .description("http client new connections")
+            .register(registry);
+        FunctionCounter.builder("http.client.pool.closed", poolMetrics, PoolMetrics::getClosedCount)
+            .description("http client evicted or closed connections")
+            .register(registry);
+        Gauge.builder("http.client.pool.reuse.ratio", poolMetrics, PoolMetrics::getReuseRatio)
+            .description("http client connection reuse ratio")
+            .register(registry);
+        Gauge.builder("http.client.dispatcher.calls", poolMetrics, PoolMetrics::getQueuedCalls)
+            .tag("state", "queued")
+            .description("http client dispatcher calls")
+            .register(registry);
+        Gauge.builder("http.client.dispatcher.calls", poolMetrics, PoolMetrics::getRunningCalls)
+            .tag("state", "running")
+            .description("http client dispatcher calls")
+            .register(registry);
+    }
+
+    private void bind(MeterRegistry registry, MetricKey key, CallMetrics callMetrics) {
+        Tags tags = Tags.of("host", key.getHost(), "method", String.valueOf(key.getMethod()), "status", key.getStatusClass());
+        IntervalHistograms intervalHistograms = new IntervalHistograms(callMetrics, refreshIntervalMillis);
+        for (MetricPhase phase : MetricPhase.values()) {
+            Tags phaseTags = tags.and("phase", phase.name().toLowerCase());
+            FunctionCounter.builder("http.client.phase.count", callMetrics, m -> m.getCount(phase))
+                .tags(phaseTags)
+                .description("http client call count by phase")
+                .register(registry);
+            for (double quantile : quantiles) {
+                Gauge.builder("http.client.phase.duration", intervalHistograms,
+                    h -> h.valueAtQuantile(phase, quantile) / (double) TimeUnit.SECONDS.toMicros(1))
+                    .tags(phaseTags.and("quantile", String.valueOf(quantile)))
+                    .description("http client call duration by phase")
+                    .baseUnit("seconds")
+                    .register(registry);
+            }
+        }
+    }
+
+    /**
+     * 单个统计维度各阶段的区间统计，超过刷新间隔后读取时获取新的区间统计，复用上次的 Histogram
+     */
+    private static class IntervalHistograms {
+
+        private final CallMetrics callMetrics;
+
+        private final long refreshIntervalNanos;
+
+        private final Map<MetricPhase, Histogram> histograms = new EnumMap<>(MetricPhase.class);
+
+        private final Map<MetricPhase, Long> refreshTimes = new EnumMap<>(MetricPhase.class);
+
+        IntervalHistograms(CallMetrics callMetrics, long refreshIntervalMillis) {
+            this.callMetrics = callMetrics;
+            this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refreshIntervalMillis);
+        }
+
+        /**
+         * 区间统计的分位数，单位为微秒，在锁内读取，避免读取时区间统计被复用
+         */
+        synchronized long valueAtQuantile(MetricPhase phase, double quantile) {
+            long now = System.nanoTime();
+            Histogram histogram = histograms.get(phase);
+            Long refreshTime = refreshTimes.get(phase);
+            if (histogram == null || now - refreshTime >= refreshIntervalNanos) {
+                histogram = callMetrics.intervalSnapshot(phase, histogram);
+                histograms.put(phase, histogram);
+                refreshTimes.put(phase, now);
+            }
+            return histogram.getValueAtPercentile(quantile * 100);
+        }
+
+    }
+
+}
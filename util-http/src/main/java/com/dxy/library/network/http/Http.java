@@ -2,20 +2,32 @@ package com.dxy.library.network.http;
 
 import java.io.OutputStream;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
+import com.dxy.library.network.http.batch.BatchCall;
+import com.dxy.library.network.http.batch.BatchMode;
+import com.dxy.library.network.http.batch.BatchResult;
+import com.dxy.library.network.http.batch.RequestSpec;
 import com.dxy.library.network.http.callback.RequestCallback;
+import com.dxy.library.network.http.codec.HttpCodec;
+import com.dxy.library.network.http.compress.ContentEncoding;
 import com.dxy.library.network.http.constant.Method;
 import com.dxy.library.network.http.executor.Executor;
 import com.dxy.library.network.http.header.Headers;
 import com.dxy.library.network.http.interceptor.RetryInterceptor;
+import com.dxy.library.network.http.metrics.PoolMetrics;
 import com.dxy.library.network.http.param.FileParam;
 import com.dxy.library.network.http.param.Params;
+import com.dxy.library.network.http.requester.OkHttpRequester;
+import com.dxy.library.network.http.retry.RetryPolicy;
 import com.dxy.library.network.http.serializer.DefaultSerializer;
 import com.dxy.library.network.http.serializer.HttpSerializer;
 import com.dxy.library.util.config.ConfigUtils;
 import com.fasterxml.jackson.core.type.TypeReference;
+import org.reactivestreams.Publisher;
 
 /**
  * Http执行类，默认开启日志，不想开启日志可以调用log方法设置log，或者屏蔽log
@@ -105,6 +117,132 @@ public final class Http {
         return Executor.getExecutor(defaultHttpSerializer, DEFAULT_LOG_ENABLE, DEFAULT_TIMEOUT_MILLIS, retries, retryIntervalMillis, ENABLE_H2C_DEFAULT);
     }
 
+    /**
+     * 设置重试策略，如指数退避、重试的状态码和异常类型
+     */
+    public static Executor retryPolicy(RetryPolicy retryPolicy) {
+        return DEFAULT_EXECUTOR.retryPolicy(retryPolicy);
+    }
+
+    /**
+     * 开启对冲请求，请求在延迟时间内没有响应时发起相同的请求，只对 GET、HEAD 请求生效
+     */
+    public static Executor hedge(long delayMillis, int maxAttempts) {
+        return DEFAULT_EXECUTOR.hedge(delayMillis, maxAttempts);
+    }
+
+    /**
+     * 开启对冲请求，按域名最近请求耗时的分位数计算对冲延迟，只对 GET、HEAD 请求生效
+     */
+    public static Executor hedgeAtPercentile(double percentile, int maxAttempts) {
+        return DEFAULT_EXECUTOR.hedgeAtPercentile(percentile, maxAttempts);
+    }
+
+    /**
+     * 设置是否开启按域名的自适应并发限制，每次请求（包括重试和对冲请求）各自获取并发名额
+     */
+    public static Executor limitEnable(boolean limitEnable) {
+        return DEFAULT_EXECUTOR.limitEnable(limitEnable);
+    }
+
+    /**
+     * 设置是否开启按域名的熔断，熔断器打开时请求快速失败
+     */
+    public static Executor circuitBreakerEnable(boolean circuitBreakerEnable) {
+        return DEFAULT_EXECUTOR.circuitBreakerEnable(circuitBreakerEnable);
+    }
+
+    /**
+     * 设置是否开启响应缓存，只缓存 GET 请求
+     */
+    public static Executor cacheEnable(boolean cacheEnable) {
+        return DEFAULT_EXECUTOR.cacheEnable(cacheEnable);
+    }
+
+    /**
+     * 允许使用过期不超过指定时间的缓存响应
+     */
+    public static Executor maxStale(long maxStale, TimeUnit timeUnit) {
+        return DEFAULT_EXECUTOR.maxStale(maxStale, timeUnit);
+    }
+
+    /**
+     * 缓存反序列化后的结果，只缓存没有请求体的 GET 同步请求
+     */
+    public static Executor resultCache(long ttl, TimeUnit timeUnit) {
+        return DEFAULT_EXECUTOR.resultCache(ttl, timeUnit);
+    }
+
+    /**
+     * 设置是否合并相同的并发请求，只合并没有请求体的 GET、HEAD、OPTIONS 同步请求
+     */
+    public static Executor singleFlightEnable(boolean singleFlightEnable) {
+        return DEFAULT_EXECUTOR.singleFlightEnable(singleFlightEnable);
+    }
+
+    /**
+     * 使用指定的编解码器编码请求体，如 Smile、CBOR、Protobuf
+     */
+    public static Executor codec(HttpCodec httpCodec) {
+        return DEFAULT_EXECUTOR.codec(httpCodec);
+    }
+
+    /**
+     * 设置请求日志采样率，取值0到1，失败的请求和慢请求不参与采样
+     */
+    public static Executor logSampleRate(double logSampleRate) {
+        return DEFAULT_EXECUTOR.logSampleRate(logSampleRate);
+    }
+
+    /**
+     * 设置请求日志中请求体和响应体按 UTF-8 编码的最大字节数，超出部分截断
+     */
+    public static Executor logMaxBodyLength(int logMaxBodyLength) {
+        return DEFAULT_EXECUTOR.logMaxBodyLength(logMaxBodyLength);
+    }
+
+    /**
+     * 设置慢请求阈值，单位为毫秒，超过阈值的请求始终记录日志
+     */
+    public static Executor slowRequestMillis(long slowRequestMillis) {
+        return DEFAULT_EXECUTOR.slowRequestMillis(slowRequestMillis);
+    }
+
+    /**
+     * 开启流式响应，以 InputStream、Reader 接收响应时直接返回基于连接的流，使用完毕后必须关闭
+     */
+    public static Executor streaming() {
+        return DEFAULT_EXECUTOR.streaming();
+    }
+
+    /**
+     * 设置 CompletableFuture 异步请求完成时反序列化和回调所在的线程池
+     */
+    public static Executor completeOn(java.util.concurrent.Executor completionExecutor) {
+        return DEFAULT_EXECUTOR.completeOn(completionExecutor);
+    }
+
+    /**
+     * 使用虚拟线程执行 CompletableFuture 异步请求，只在 JDK 21+ 生效
+     */
+    public static Executor virtual() {
+        return DEFAULT_EXECUTOR.virtual();
+    }
+
+    /**
+     * 压缩文本类型的请求体并设置 Content-Encoding，长度小于 http.compress.minSize 的请求体不压缩
+     */
+    public static Executor compress(ContentEncoding encoding) {
+        return DEFAULT_EXECUTOR.compress(encoding);
+    }
+
+    /**
+     * 压缩文本类型的请求体并设置 Content-Encoding，长度小于 minSize 的请求体不压缩
+     */
+    public static Executor compress(ContentEncoding encoding, long minSize) {
+        return DEFAULT_EXECUTOR.compress(encoding, minSize);
+    }
+
     /**
      * 替换序列化实现
      */
@@ -156,6 +294,13 @@ public final class Http {
         DEFAULT_EXECUTOR.getRequester().setEnableH2c(enable);
     }
 
+    /**
+     * 获取共享的连接池和异步调度器的统计
+     */
+    public static PoolMetrics getPoolMetrics() {
+        return OkHttpRequester.getPoolMetrics();
+    }
+
     /******** get *********/
 
     public static String get(String url) {
@@ -937,6 +1082,138 @@ public final class Http {
         DEFAULT_EXECUTOR.deleteAsync(url, headers, params, callback);
     }
 
+    /******** CompletableFuture *********/
+
+    public static <V> CompletableFuture<V> getFuture(String url, Class<V> type) {
+        return DEFAULT_EXECUTOR.getFuture(url, type);
+    }
+
+    public static <V> CompletableFuture<V> getFuture(String url, TypeReference<V> typeReference) {
+        return DEFAULT_EXECUTOR.getFuture(url, typeReference);
+    }
+
+    public static <V> CompletableFuture<V> getFuture(String url, Headers headers, Class<V> type) {
+        return DEFAULT_EXECUTOR.getFuture(url, headers, type);
+    }
+
+    public static <V> CompletableFuture<V> getFuture(String url, Params params, Class<V> type) {
+        return DEFAULT_EXECUTOR.getFuture(url, params, type);
+    }
+
+    public static <V> CompletableFuture<V> getFuture(String url, Params params, TypeReference<V> typeReference) {
+        return DEFAULT_EXECUTOR.getFuture(url, params, typeReference);
+    }
+
+    public static <V> CompletableFuture<V> getFuture(String url, Headers headers, Params params, Class<V> type) {
+        return DEFAULT_EXECUTOR.getFuture(url, headers, params, type);
+    }
+
+    public static <V> CompletableFuture<V> getFuture(String url, Headers headers, Params params, TypeReference<V> typeReference) {
+        return DEFAULT_EXECUTOR.getFuture(url, headers, params, typeReference);
+    }
+
+    public static <V> CompletableFuture<V> getFuture(String url, Headers headers, Params params, Type type) {
+        return DEFAULT_EXECUTOR.getFuture(url, headers, params, type);
+    }
+
+    public static <V> CompletableFuture<V> postFuture(String url, Params params, Class<V> type) {
+        return DEFAULT_EXECUTOR.postFuture(url, params, type);
+    }
+
+    public static <V> CompletableFuture<V> postFuture(String url, Headers headers, Params params, Class<V> type) {
+        return DEFAULT_EXECUTOR.postFuture(url, headers, params, type);
+    }
+
+    public static <V> CompletableFuture<V> postFuture(String url, Headers headers, Params params, TypeReference<V> typeReference) {
+        return DEFAULT_EXECUTOR.postFuture(url, headers, params, typeReference);
+    }
+
+    public static <V, T> CompletableFuture<V> postJsonFuture(String url, T body, Class<V> type) {
+        return DEFAULT_EXECUTOR.postJsonFuture(url, body, type);
+    }
+
+    public static <V, T> CompletableFuture<V> postJsonFuture(String url, T body, TypeReference<V> typeReference) {
+        return DEFAULT_EXECUTOR.postJsonFuture(url, body, typeReference);
+    }
+
+    public static <V, T> CompletableFuture<V> postJsonFuture(String url, Headers headers, T body, Class<V> type) {
+        return DEFAULT_EXECUTOR.postJsonFuture(url, headers, body, type);
+    }
+
+    public static <V, T> CompletableFuture<V> postJsonFuture(String url, Headers headers, Params params, T body, Class<V> type) {
+        return DEFAULT_EXECUTOR.postJsonFuture(url, headers, params, body, type);
+    }
+
+    public static <V, T> CompletableFuture<V> postJsonFuture(String url, Headers headers, Params params, T body, TypeReference<V> typeReference) {
+        return DEFAULT_EXECUTOR.postJsonFuture(url, headers, params, body, typeReference);
+    }
+
+    public static <V, T> CompletableFuture<V> postJsonFuture(String url, Headers headers, Params params, T body, Type type) {
+        return DEFAULT_EXECUTOR.postJsonFuture(url, headers, params, body, type);
+    }
+
+    public static <V, T> CompletableFuture<V> putJsonFuture(String url, T body, Class<V> type) {
+        return DEFAULT_EXECUTOR.putJsonFuture(url, body, type);
+    }
+
+    public static <V, T> CompletableFuture<V> putJsonFuture(String url, Headers headers, Params params, T body, Class<V> type) {
+        return DEFAULT_EXECUTOR.putJsonFuture(url, headers, params, body, type);
+    }
+
+    public static <V, T> CompletableFuture<V> putJsonFuture(String url, Headers headers, Params params, T body, TypeReference<V> typeReference) {
+        return DEFAULT_EXECUTOR.putJsonFuture(url, headers, params, body, typeReference);
+    }
+
+    public static <V> CompletableFuture<V> deleteFuture(String url, Class<V> type) {
+        return DEFAULT_EXECUTOR.deleteFuture(url, type);
+    }
+
+    public static <V> CompletableFuture<V> deleteFuture(String url, Headers headers, Params params, Class<V> type) {
+        return DEFAULT_EXECUTOR.deleteFuture(url, headers, params, type);
+    }
+
+    public static <V> CompletableFuture<V> deleteFuture(String url, Headers headers, Params params, TypeReference<V> typeReference) {
+        return DEFAULT_EXECUTOR.deleteFuture(url, headers, params, typeReference);
+    }
+
+    /******** Reactive Streams *********/
+
+    public static <V> Publisher<V> getPublisher(String url, Class<V> type) {
+        return DEFAULT_EXECUTOR.getPublisher(url, type);
+    }
+
+    public static <V> Publisher<V> getPublisher(String url, TypeReference<V> typeReference) {
+        return DEFAULT_EXECUTOR.getPublisher(url, typeReference);
+    }
+
+    public static <V> Publisher<V> getPublisher(String url, Headers headers, Params params, Class<V> type) {
+        return DEFAULT_EXECUTOR.getPublisher(url, headers, params, type);
+    }
+
+    public static <V> Publisher<V> getPublisher(String url, Headers headers, Params params, TypeReference<V> typeReference) {
+        return DEFAULT_EXECUTOR.getPublisher(url, headers, params, typeReference);
+    }
+
+    public static <V, T> Publisher<V> postJsonPublisher(String url, T body, Class<V> type) {
+        return DEFAULT_EXECUTOR.postJsonPublisher(url, body, type);
+    }
+
+    public static <V, T> Publisher<V> postJsonPublisher(String url, Headers headers, Params params, T body, Class<V> type) {
+        return DEFAULT_EXECUTOR.postJsonPublisher(url, headers, params, body, type);
+    }
+
+    public static <V, T> Publisher<V> postJsonPublisher(String url, Headers headers, Params params, T body, TypeReference<V> typeReference) {
+        return DEFAULT_EXECUTOR.postJsonPublisher(url, headers, params, body, typeReference);
+    }
+
+    public static Publisher<ByteBuffer> getBodyPublisher(String url) {
+        return DEFAULT_EXECUTOR.getBodyPublisher(url);
+    }
+
+    public static Publisher<ByteBuffer> getBodyPublisher(String url, Headers headers, Params params) {
+        return DEFAULT_EXECUTOR.getBodyPublisher(url, headers, params);
+    }
+
     /******** download *********/
 
     public static void download(String url, String targetPath) {
@@ -1004,6 +1281,33 @@ public final class Http {
         DEFAULT_EXECUTOR.downloadAsync(url, headers, params, outputStream);
     }
 
+    public static void downloadRanged(String url, String targetPath) {
+        DEFAULT_EXECUTOR.downloadRanged(url, targetPath);
+    }
+
+    public static void downloadRanged(String url, String targetPath, int segments) {
+        DEFAULT_EXECUTOR.downloadRanged(url, targetPath, segments);
+    }
+
+    public static void downloadRanged(String url, Headers headers, Params params, String targetPath, int segments) {
+        DEFAULT_EXECUTOR.downloadRanged(url, headers, params, targetPath, segments);
+    }
+
+    /******** 断点续传上传 *********/
+
+    public static String uploadResumable(String url, FileParam fileParam) {
+        return DEFAULT_EXECUTOR.uploadResumable(url, fileParam);
+    }
+
+    public static String uploadResumable(String url, FileParam fileParam, long chunkSize, int parallelism) {
+        return DEFAULT_EXECUTOR.uploadResumable(url, fileParam, chunkSize, parallelism);
+    }
+
+    public static String uploadResumable(String url, Headers headers, Params params, FileParam fileParam,
+        long chunkSize, int parallelism) {
+        return DEFAULT_EXECUTOR.uploadResumable(url, headers, params, fileParam, chunkSize, parallelism);
+    }
+
     /******** 同步请求总方法 *********/
 
     public static <V, T> V execute(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams, Class<V> type) {
@@ -1024,4 +1328,50 @@ public final class Http {
         DEFAULT_EXECUTOR.enqueue(method, url, headers, params, body, fileParams, callback);
     }
 
+    /******** CompletableFuture 异步请求总方法 *********/
+
+    public static <V, T> CompletableFuture<V> executeFuture(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams, Class<V> type) {
+        return DEFAULT_EXECUTOR.executeFuture(method, url, headers, params, body, fileParams, type);
+    }
+
+    public static <V, T> CompletableFuture<V> executeFuture(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams, TypeReference<V> typeReference) {
+        return DEFAULT_EXECUTOR.executeFuture(method, url, headers, params, body, fileParams, typeReference);
+    }
+
+    public static <V, T> CompletableFuture<V> executeFuture(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams, Type type) {
+        return DEFAULT_EXECUTOR.executeFuture(method, url, headers, params, body, fileParams, type);
+    }
+
+    /******** Reactive Streams 总方法 *********/
+
+    public static <V, T> Publisher<V> executePublisher(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams, Class<V> type) {
+        return DEFAULT_EXECUTOR.executePublisher(method, url, headers, params, body, fileParams, type);
+    }
+
+    public static <V, T> Publisher<V> executePublisher(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams, TypeReference<V> typeReference) {
+        return DEFAULT_EXECUTOR.executePublisher(method, url, headers, params, body, fileParams, typeReference);
+    }
+
+    public static <V, T> Publisher<V> executePublisher(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams, Type type) {
+        return DEFAULT_EXECUTOR.executePublisher(method, url, headers, params, body, fileParams, type);
+    }
+
+    public static <T> Publisher<ByteBuffer> executeBodyPublisher(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams) {
+        return DEFAULT_EXECUTOR.executeBodyPublisher(method, url, headers, params, body, fileParams);
+    }
+
+    /******** 批量请求总方法 *********/
+
+    public static <V> List<BatchResult<V>> executeAll(List<RequestSpec> requestSpecs, int parallelism) {
+        return DEFAULT_EXECUTOR.executeAll(requestSpecs, parallelism);
+    }
+
+    public static <V> List<BatchResult<V>> executeAll(List<RequestSpec> requestSpecs, int parallelism, BatchMode batchMode) {
+        return DEFAULT_EXECUTOR.executeAll(requestSpecs, parallelism, batchMode);
+    }
+
+    public static <V> BatchCall<V> iterateAll(List<RequestSpec> requestSpecs, int parallelism, BatchMode batchMode) {
+        return DEFAULT_EXECUTOR.iterateAll(requestSpecs, parallelism, batchMode);
+    }
+
 }
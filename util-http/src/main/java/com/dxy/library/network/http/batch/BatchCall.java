@@ -0,0 +1,295 @@
+package com.dxy.library.network.http.batch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import com.dxy.library.network.http.exception.HttpException;
+import com.dxy.library.network.http.requester.AbstractRequester;
+import com.dxy.library.util.config.ConfigUtils;
+
+/**
+ * 批量请求，以异步请求并发执行，不额外占用线程
+ * 同时进行的请求数不超过并发数，单个域名同时进行的请求数不超过 http.batch.maxRequestsPerHost，
+ * 按请求顺序迭代结果，迭代时已完成但未被读取的结果数不超过缓冲数，避免调用方读取较慢时结果无限堆积
+ * @author duanxinyuan
+ * 2026/10/18 23:00
+ */
+public class BatchCall<V> implements Iterator<BatchResult<V>> {
+
+    /**
+     * 批量请求中单个域名的最大并发请求数，默认为5
+     */
+    public static final int MAX_REQUESTS_PER_HOST_DEFAULT = ConfigUtils.getAsInt("http.batch.maxRequestsPerHost", 5);
+
+    private final AbstractRequester requester;
+
+    private final List<RequestSpec> requestSpecs;
+
+    private final int parallelism;
+
+    private final int maxRequestsPerHost;
+
+    private final BatchMode batchMode;
+
+    /**
+     * 最多提前执行的请求数，即从当前迭代位置开始，下标小于 cursor + bufferSize 的请求才会发起
+     */
+    private final int bufferSize;
+
+    private final List<CompletableFuture<V>> results;
+
+    /**
+     * Map<域名, 等待发起的请求下标>
+     */
+    private final Map<String, Deque<Integer>> hostQueues = new LinkedHashMap<>();
+
+    /**
+     * Map<域名, 正在进行的请求数>
+     */
+    private final Map<String, Integer> hostInflight = new HashMap<>();
+
+    /**
+     * Map<请求下标, 正在进行的请求>，用于失败或取消时取消请求
+     */
+    private final Map<Integer, CompletableFuture<V>> calls = new HashMap<>();
+
+    private int inflight;
+
+    private int cursor;
+
+    /**
+     * 中止批量请求的原因，FAIL_FAST 模式下为第一个失败的异常
+     */
+    private Throwable failure;
+
+    /**
+     * 是否有线程正在发起请求，已完成的请求在 whenComplete 中同步回调，发起请求时不递归调用，由正在发起的线程继续循环
+     */
+    private boolean launching;
+
+    /**
+     * @param requester 请求实例
+     * @param requestSpecs 请求列表
+     * @param parallelism 并发数
+     * @param batchMode 失败处理方式
+     * @param bufferSize 最多提前执行的请求数
+     */
+    public BatchCall(AbstractRequester requester, List<RequestSpec> requestSpecs, int parallelism, BatchMode batchMode,
+        int bufferSize) {
+        this.requester = requester;
+        this.requestSpecs = requestSpecs;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxRequestsPerHost = MAX_REQUESTS_PER_HOST_DEFAULT;
+        this.batchMode = batchMode;
+        this.bufferSize = Math.max(this.parallelism, bufferSize);
+        this.results = new ArrayList<>(requestSpecs.size());
+        for (int i = 0; i < requestSpecs.size(); i++) {
+            results.add(new CompletableFuture<>());
+            hostQueues.computeIfAbsent(requestSpecs.get(i).host(), h -> new ArrayDeque<>()).add(i);
+        }
+    }
+
+    /**
+     * 开始执行
+     */
+    public BatchCall<V> start() {
+        launch();
+        return this;
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        return cursor < requestSpecs.size();
+    }
+
+    /**
+     * 按请求顺序等待并返回下一个结果
+     * @throws HttpException FAIL_FAST 模式下有请求失败时抛出该请求的异常
+     */
+    @Override
+    public BatchResult<V> next() {
+        int index;
+        synchronized (this) {
+            if (cursor >= requestSpecs.size()) {
+                throw new NoSuchElementException();
+            }
+            index = cursor;
+        }
+        V value = null;
+        Throwable exception = null;
+        try {
+            value = results.get(index).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw new HttpException("http batch interrupted", e);
+        } catch (ExecutionException e) {
+            exception = e.getCause();
+        } catch (CancellationException e) {
+            exception = e;
+        }
+        synchronized (this) {
+            cursor++;
+        }
+        if (exception != null && batchMode == BatchMode.FAIL_FAST) {
+            throw exception instanceof RuntimeException ? (RuntimeException) exception : new HttpException(exception);
+        }
+        //迭代位置前移后可以发起后续的请求
+        launch();
+        return new BatchResult<>(index, requestSpecs.get(index), value, exception);
+    }
+
+    /**
+     * 取消所有正在进行和尚未发起的请求
+     */
+    public void cancel() {
+        abort(new CancellationException("http batch canceled"));
+    }
+
+    /**
+     * 在并发数、单个域名并发数和缓冲数的限制内发起请求
+     */
+    private void launch() {
+        synchronized (this) {
+            if (launching) {
+                return;
+            }
+            launching = true;
+        }
+        boolean finished = false;
+        try {
+            List<Integer> started = new ArrayList<>();
+            do {
+                started.clear();
+                synchronized (this) {
+                    while (failure == null && inflight < parallelism) {
+                        Integer next = pollNext();
+                        if (next == null) {
+                            break;
+                        }
+                        inflight++;
+                        hostInflight.merge(requestSpecs.get(next).host(), 1, Integer::sum);
+                        started.add(next);
+                    }
+                    if (started.isEmpty()) {
+                        //没有可以发起的请求时在同一个同步块中结束，其他线程此后释放的名额由其自行发起
+                        launching = false;
+                        finished = true;
+                    }
+                }
+                started.forEach(this::execute);
+            } while (!finished);
+        } finally {
+            if (!finished) {
+                synchronized (this) {
+                    launching = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * 在域名并发数未满的请求中选择下标最小的请求
+     */
+    private Integer pollNext() {
+        Deque<Integer> selected = null;
+        for (Map.Entry<String, Deque<Integer>> entry : hostQueues.entrySet()) {
+            Integer head = entry.getValue().peek();
+            if (hostInflight.getOrDefault(entry.getKey(), 0) < maxRequestsPerHost && head - cursor < bufferSize
+                && (selected == null || head < selected.peek())) {
+                selected = entry.getValue();
+            }
+        }
+        if (selected == null) {
+            return null;
+        }
+        Integer next = selected.poll();
+        if (selected.isEmpty()) {
+            hostQueues.values().remove(selected);
+        }
+        return next;
+    }
+
+    private void execute(int index) {
+        RequestSpec requestSpec = requestSpecs.get(index);
+        CompletableFuture<V> call;
+        try {
+            call = requester.executeFuture(requestSpec.getMethod(), requestSpec.getUrl(), requestSpec.getHeaders(),
+                requestSpec.getParams(), requestSpec.getBody(), null, requestSpec.getType());
+        } catch (RuntimeException e) {
+            call = new CompletableFuture<>();
+            call.completeExceptionally(e);
+        }
+        boolean aborted;
+        synchronized (this) {
+            aborted = failure != null;
+            if (!aborted && !call.isDone()) {
+                calls.put(index, call);
+            }
+        }
+        if (aborted) {
+            call.cancel(true);
+        }
+        call.whenComplete((value, e) -> onComplete(index, value, e));
+    }
+
+    private void onComplete(int index, V value, Throwable e) {
+        synchronized (this) {
+            calls.remove(index);
+            inflight--;
+            hostInflight.merge(requestSpecs.get(index).host(), -1, Integer::sum);
+        }
+        if (e == null) {
+            results.get(index).complete(value);
+        } else {
+            results.get(index).completeExceptionally(e);
+            if (batchMode == BatchMode.FAIL_FAST) {
+                abort(e);
+            }
+        }
+        launch();
+    }
+
+    /**
+     * 中止批量请求，取消正在进行的请求，尚未完成的结果以中止原因结束
+     */
+    private void abort(Throwable cause) {
+        List<CompletableFuture<V>> canceled;
+        synchronized (this) {
+            if (failure != null) {
+                return;
+            }
+            failure = cause;
+            canceled = new ArrayList<>(calls.values());
+            calls.clear();
+            hostQueues.clear();
+        }
+        //先以中止原因结束尚未完成的结果，取消请求时同步回调的 CancellationException 不会覆盖真实的失败原因
+        results.forEach(result -> result.completeExceptionally(cause));
+        canceled.forEach(call -> call.cancel(true));
+    }
+
+    /**
+     * 收集所有结果
+     */
+    public List<BatchResult<V>> toList() {
+        if (requestSpecs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<BatchResult<V>> list = new ArrayList<>(requestSpecs.size());
+        forEachRemaining(list::add);
+        return list;
+    }
+
+}
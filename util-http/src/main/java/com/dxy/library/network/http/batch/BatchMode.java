@@ -0,0 +1,20 @@
+package com.dxy.library.network.http.batch;
+
+/**
+ * 批量请求的失败处理方式
+ * @author duanxinyuan
+ * 2026/10/18 23:00
+ */
+public enum BatchMode {
+
+    /**
+     * 任一请求失败时取消其他请求，并抛出该请求的异常
+     */
+    FAIL_FAST,
+
+    /**
+     * 执行所有请求，失败的请求在结果中记录异常
+     */
+    COLLECT_ERRORS
+
+}
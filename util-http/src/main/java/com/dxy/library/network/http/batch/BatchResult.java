@@ -0,0 +1,38 @@
+package com.dxy.library.network.http.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 批量请求中单个请求的结果
+ * @author duanxinyuan
+ * 2026/10/18 23:00
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BatchResult<V> {
+
+    /**
+     * 请求在批量请求中的下标
+     */
+    private final int index;
+
+    private final RequestSpec requestSpec;
+
+    /**
+     * 反序列化后的响应，请求失败时为null
+     */
+    private final V value;
+
+    /**
+     * 请求失败的异常，请求成功时为null
+     */
+    private final Throwable exception;
+
+    public boolean isSuccess() {
+        return exception == null;
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.dxy.library.network.http.batch;
+
+import java.lang.reflect.Type;
+
+import com.dxy.library.network.http.constant.Method;
+import com.dxy.library.network.http.header.Headers;
+import com.dxy.library.network.http.param.Params;
+import com.fasterxml.jackson.core.type.TypeReference;
+import lombok.Getter;
+import lombok.ToString;
+import okhttp3.HttpUrl;
+
+/**
+ * 批量请求中的单个请求
+ * @author duanxinyuan
+ * 2026/10/18 23:00
+ */
+@Getter
+@ToString
+public class RequestSpec {
+
+    private final Method method;
+
+    private final String url;
+
+    private Headers headers;
+
+    private Params params;
+
+    private Object body;
+
+    /**
+     * 响应反序列化的类型，默认为String
+     */
+    private Type type = String.class;
+
+    public RequestSpec(Method method, String url) {
+        this.method = method;
+        this.url = url;
+    }
+
+    public static RequestSpec get(String url) {
+        return new RequestSpec(Method.GET, url);
+    }
+
+    public static RequestSpec get(String url, Params params) {
+        return new RequestSpec(Method.GET, url).params(params);
+    }
+
+    public static RequestSpec post(String url, Object body) {
+        return new RequestSpec(Method.POST, url).body(body);
+    }
+
+    public RequestSpec headers(Headers headers) {
+        this.headers = headers;
+        return this;
+    }
+
+    public RequestSpec params(Params params) {
+        this.params = params;
+        return this;
+    }
+
+    public RequestSpec body(Object body) {
+        this.body = body;
+        return this;
+    }
+
+    public RequestSpec type(Type type) {
+        this.type = type;
+        return this;
+    }
+
+    public RequestSpec type(TypeReference<?> typeReference) {
+        this.type = typeReference.getType();
+        return this;
+    }
+
+    /**
+     * 请求的域名，用于限制单个域名的并发数
+     */
+    public String host() {
+        HttpUrl httpUrl = HttpUrl.parse(url);
+        return httpUrl == null ? url : httpUrl.host();
+    }
+
+}
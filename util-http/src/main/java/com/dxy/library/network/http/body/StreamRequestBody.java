@@ -0,0 +1,257 @@
+package com.dxy.library.network.http.body;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.dxy.library.util.config.ConfigUtils;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
+import okhttp3.internal.Util;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * 以 InputStream 为数据源的流式请求体，边读边发送，不会把整个流读入内存
+ * 长度未知时使用 Transfer-Encoding: chunked 发送；默认只能发送一次，不参与重试
+ * 开启重放时，发送过的数据先保存在内存中，超过内存阈值的部分写入临时文件，重试时先重放已保存的数据，再继续读取流
+ * 请求结束后由请求执行器调用 {@link #close()} 删除临时文件，不关闭调用方的 InputStream
+ * @author duanxinyuan
+ * 2026/10/19 16:00
+ */
+@SuppressWarnings("NullableProblems")
+public class StreamRequestBody extends RequestBody implements Closeable {
+
+    /**
+     * 流式请求体是否默认可重放，默认为false，即只发送一次，不重试
+     */
+    public static final boolean REPLAYABLE_DEFAULT = ConfigUtils.getAsBoolean("http.stream.replayable", false);
+
+    /**
+     * 可重放时保存在内存中的最大字节数，超出部分写入临时文件，默认为1048576（1M）
+     */
+    private static final long MEMORY_THRESHOLD = ConfigUtils.getAsLong("http.stream.memoryThreshold", 1024L * 1024);
+
+    /**
+     * 可重放时临时文件的目录，默认为系统临时目录
+     */
+    private static final String SPILL_DIR = ConfigUtils.getAsString("http.stream.spillDir",
+        System.getProperty("java.io.tmpdir"));
+
+    /**
+     * 每次从流读取的最大字节数
+     */
+    private static final long READ_SIZE = 64 * 1024;
+
+    private final InputStream inputStream;
+
+    private final MediaType mediaType;
+
+    private final long contentLength;
+
+    private final boolean replayable;
+
+    /**
+     * 同一个请求体同时只写入一个连接
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Source source;
+
+    /**
+     * 流是否已经读取完
+     */
+    private boolean exhausted;
+
+    /**
+     * 不可重放时是否已经发送过
+     */
+    private boolean written;
+
+    /**
+     * 已经从流读取的数据中保存在内存的部分
+     */
+    private final Buffer memory = new Buffer();
+
+    /**
+     * 已经从流读取的数据中超出内存阈值的部分
+     */
+    private File spillFile;
+
+    private BufferedSink spillSink;
+
+    private boolean closed;
+
+    /**
+     * @param inputStream 数据源，不会被关闭
+     * @param mediaType 请求体类型
+     * @param contentLength 请求体长度，小于0时表示未知，使用 chunked 编码发送
+     * @param replayable 是否可重放，可重放时请求失败后可以重试
+     */
+    public StreamRequestBody(InputStream inputStream, MediaType mediaType, long contentLength, boolean replayable) {
+        this.inputStream = inputStream;
+        this.mediaType = mediaType;
+        this.contentLength = contentLength < 0 ? -1 : contentLength;
+        this.replayable = replayable;
+    }
+
+    public StreamRequestBody(InputStream inputStream, MediaType mediaType, long contentLength) {
+        this(inputStream, mediaType, contentLength, REPLAYABLE_DEFAULT);
+    }
+
+    @Override
+    public MediaType contentType() {
+        return mediaType;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    /**
+     * 不可重放的请求体不会被 OkHttp 和重试拦截器重新发送
+     */
+    @Override
+    public boolean isOneShot() {
+        return !replayable;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IOException("stream request body is closed");
+            }
+            if (!replayable) {
+                if (written) {
+                    throw new IOException("stream request body can't be written more than once");
+                }
+                written = true;
+                sink.writeAll(source());
+                return;
+            }
+            replay(sink);
+            Buffer chunk = new Buffer();
+            while (!exhausted) {
+                long read = source().read(chunk, READ_SIZE);
+                if (read == -1) {
+                    exhausted = true;
+                    break;
+                }
+                //先保存再发送，发送失败后重试时可以重放
+                save(chunk, read);
+                sink.write(chunk, read);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 删除临时文件，释放内存中保存的数据
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            memory.clear();
+            if (spillSink != null) {
+                Util.closeQuietly(spillSink);
+            }
+            if (spillFile != null) {
+                try {
+                    Files.deleteIfExists(spillFile.toPath());
+                } catch (IOException ignored) {
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Source source() {
+        if (source == null) {
+            //不关闭调用方的 InputStream
+            source = Okio.source(inputStream);
+        }
+        return source;
+    }
+
+    /**
+     * 重新发送已经从流读取的数据
+     */
+    private void replay(BufferedSink sink) throws IOException {
+        if (memory.size() > 0) {
+            memory.copyTo(sink.getBuffer(), 0, memory.size());
+            sink.emitCompleteSegments();
+        }
+        if (spillSink != null) {
+            spillSink.flush();
+            try (Source spillSource = Okio.source(spillFile)) {
+                sink.writeAll(spillSource);
+            }
+        }
+    }
+
+    private void save(Buffer chunk, long byteCount) throws IOException {
+        if (spillSink == null && memory.size() + byteCount <= MEMORY_THRESHOLD) {
+            chunk.copyTo(memory, 0, byteCount);
+            return;
+        }
+        if (spillSink == null) {
+            File dir = new File(SPILL_DIR);
+            if (!dir.exists() && !dir.mkdirs() && !dir.exists()) {
+                throw new IOException("create spill directory failed: " + dir);
+            }
+            spillFile = File.createTempFile("http-body-", ".spill", dir);
+            spillFile.deleteOnExit();
+            spillSink = Okio.buffer(Okio.sink(spillFile));
+        }
+        chunk.copyTo(spillSink.getBuffer(), 0, byteCount);
+        spillSink.emitCompleteSegments();
+    }
+
+    /**
+     * 请求体是否只能发送一次，包括包含不可重放文件流的 multipart 请求体
+     */
+    public static boolean isOneShot(RequestBody body) {
+        if (body == null) {
+            return false;
+        }
+        if (body instanceof MultipartBody) {
+            for (MultipartBody.Part part : ((MultipartBody) body).parts()) {
+                if (part.body().isOneShot()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return body.isOneShot();
+    }
+
+    /**
+     * 请求结束后释放请求体中的流式请求体
+     */
+    public static void release(RequestBody body) {
+        if (body instanceof StreamRequestBody) {
+            ((StreamRequestBody) body).close();
+        } else if (body instanceof MultipartBody) {
+            for (MultipartBody.Part part : ((MultipartBody) body).parts()) {
+                release(part.body());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,307 @@
+package com.dxy.library.network.http.breaker;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.dxy.library.util.config.ConfigUtils;
+import com.google.common.collect.Maps;
+import okhttp3.Response;
+
+/**
+ * 熔断器，按域名共享
+ * 关闭状态下统计最近 windowSize 次请求的失败率和慢请求率，达到阈值后打开；
+ * 打开状态下请求快速失败，等待 waitDurationMillis 后进入半开状态；
+ * 半开状态下只放行 halfOpenPermittedCalls 次探测请求，探测请求的失败率和慢请求率低于阈值时关闭，否则重新打开；
+ * 每次请求持有发出时的许可，只统计在当前状态下发出的请求，状态变化前发出的请求和被取消的请求不统计
+ * @author duanxinyuan
+ * 2026/10/18 18:20
+ */
+public class CircuitBreaker {
+
+    /**
+     * 统计的最近请求数，默认为100
+     */
+    public static final int WINDOW_SIZE_DEFAULT = ConfigUtils.getAsInt("http.circuitBreaker.windowSize", 100);
+
+    /**
+     * 计算失败率所需的最少请求数，默认为20
+     */
+    public static final int MINIMUM_CALLS_DEFAULT = ConfigUtils.getAsInt("http.circuitBreaker.minimumCalls", 20);
+
+    /**
+     * 失败率阈值，百分比，默认为50
+     */
+    public static final int FAILURE_RATE_THRESHOLD_DEFAULT = ConfigUtils.getAsInt("http.circuitBreaker.failureRateThreshold", 50);
+
+    /**
+     * 慢请求率阈值，百分比，默认为100
+     */
+    public static final int SLOW_CALL_RATE_THRESHOLD_DEFAULT = ConfigUtils.getAsInt("http.circuitBreaker.slowCallRateThreshold", 100);
+
+    /**
+     * 慢请求阈值毫秒数，默认为10000
+     */
+    public static final long SLOW_CALL_MILLIS_DEFAULT = ConfigUtils.getAsLong("http.circuitBreaker.slowCallMillis", 10000L);
+
+    /**
+     * 打开状态的持续毫秒数，默认为10000
+     */
+    public static final long WAIT_DURATION_MILLIS_DEFAULT = ConfigUtils.getAsLong("http.circuitBreaker.waitDurationMillis", 10000L);
+
+    /**
+     * 半开状态放行的探测请求数，默认为5
+     */
+    public static final int HALF_OPEN_PERMITTED_CALLS_DEFAULT = ConfigUtils.getAsInt("http.circuitBreaker.halfOpenPermittedCalls", 5);
+
+    private static final byte FAILURE = 1;
+
+    private static final byte SLOW = 2;
+
+    /**
+     * Map<域名, CircuitBreaker>
+     */
+    private static final Map<String, CircuitBreaker> HOST_BREAKER_MAP = Maps.newConcurrentMap();
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        //关闭，正常放行请求
+        CLOSED,
+        //打开，请求快速失败
+        OPEN,
+        //半开，放行有限的探测请求
+        HALF_OPEN
+    }
+
+    private final String host;
+
+    private final int minimumCalls;
+
+    private final int failureRateThreshold;
+
+    private final int slowCallRateThreshold;
+
+    private final long slowCallMillis;
+
+    private final long waitDurationNanos;
+
+    private final int halfOpenPermittedCalls;
+
+    /**
+     * 最近请求的结果，每个元素为 FAILURE、SLOW 的位组合
+     */
+    private final byte[] window;
+
+    private State state = State.CLOSED;
+
+    private int index;
+
+    private int calls;
+
+    private int failures;
+
+    private int slowCalls;
+
+    private long openedNanos;
+
+    private int halfOpenIssued;
+
+    private int halfOpenCalls;
+
+    private int halfOpenFailures;
+
+    private int halfOpenSlowCalls;
+
+    /**
+     * 状态的版本号，每次状态变化时递增，用于区分请求是否在当前状态下发出
+     */
+    private long generation;
+
+    public CircuitBreaker(String host, int windowSize, int minimumCalls, int failureRateThreshold,
+        int slowCallRateThreshold, long slowCallMillis, long waitDurationMillis, int halfOpenPermittedCalls) {
+        this.host = host;
+        this.window = new byte[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallMillis = slowCallMillis;
+        this.waitDurationNanos = TimeUnit.MILLISECONDS.toNanos(waitDurationMillis);
+        this.halfOpenPermittedCalls = halfOpenPermittedCalls;
+    }
+
+    /**
+     * 获取域名共享的熔断器
+     */
+    public static CircuitBreaker forHost(String host) {
+        return HOST_BREAKER_MAP.computeIfAbsent(host, h -> new CircuitBreaker(h, WINDOW_SIZE_DEFAULT,
+            MINIMUM_CALLS_DEFAULT, FAILURE_RATE_THRESHOLD_DEFAULT, SLOW_CALL_RATE_THRESHOLD_DEFAULT,
+            SLOW_CALL_MILLIS_DEFAULT, WAIT_DURATION_MILLIS_DEFAULT, HALF_OPEN_PERMITTED_CALLS_DEFAULT));
+    }
+
+    /**
+     * 获取所有域名的熔断器，用于监控
+     * @return Map<域名, CircuitBreaker>
+     */
+    public static Map<String, CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(HOST_BREAKER_MAP);
+    }
+
+    /**
+     * 获取请求的许可，半开状态下会占用一次探测请求的名额
+     * @return 许可，请求结束后通过许可记录结果，不能发出时返回null
+     */
+    public synchronized Permission tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedNanos < waitDurationNanos) {
+                return null;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenIssued >= halfOpenPermittedCalls) {
+                return null;
+            }
+            halfOpenIssued++;
+            return new Permission(generation, true);
+        }
+        return new Permission(generation, false);
+    }
+
+    /**
+     * 记录请求结果，状态变化前发出的请求不统计，半开状态下只统计探测请求
+     */
+    private synchronized void onResult(Permission permission, boolean failure, long elapsedMillis) {
+        if (permission.generation != generation) {
+            return;
+        }
+        boolean slow = slowCallMillis > 0 && elapsedMillis >= slowCallMillis;
+        if (state == State.CLOSED) {
+            if (calls == window.length) {
+                byte evicted = window[index];
+                failures -= evicted & FAILURE;
+                slowCalls -= (evicted & SLOW) >> 1;
+            } else {
+                calls++;
+            }
+            window[index] = (byte) ((failure ? FAILURE : 0) | (slow ? SLOW : 0));
+            index = (index + 1) % window.length;
+            failures += failure ? 1 : 0;
+            slowCalls += slow ? 1 : 0;
+            if (calls >= minimumCalls && exceedsThreshold(calls, failures, slowCalls)) {
+                transitionTo(State.OPEN);
+            }
+        } else if (state == State.HALF_OPEN && permission.probe) {
+            halfOpenCalls++;
+            halfOpenFailures += failure ? 1 : 0;
+            halfOpenSlowCalls += slow ? 1 : 0;
+            if (halfOpenCalls >= halfOpenPermittedCalls) {
+                transitionTo(exceedsThreshold(halfOpenCalls, halfOpenFailures, halfOpenSlowCalls) ? State.OPEN : State.CLOSED);
+            }
+        }
+    }
+
+    /**
+     * 释放没有结果的许可，如被取消的请求，半开状态下归还探测请求的名额
+     */
+    private synchronized void release(Permission permission) {
+        if (permission.generation == generation && state == State.HALF_OPEN && permission.probe) {
+            halfOpenIssued--;
+        }
+    }
+
+    /**
+     * 响应是否计为失败，5xx 响应表示服务端异常
+     */
+    public static boolean isFailure(Response response) {
+        return response.code() >= 500;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * 当前状态，打开状态超过等待时间后，在下一次请求时才进入半开状态
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * 关闭状态下最近请求的失败率，百分比，请求数不足时返回-1
+     */
+    public synchronized float getFailureRate() {
+        return calls < minimumCalls ? -1 : failures * 100F / calls;
+    }
+
+    /**
+     * 关闭状态下最近请求的慢请求率，百分比，请求数不足时返回-1
+     */
+    public synchronized float getSlowCallRate() {
+        return calls < minimumCalls ? -1 : slowCalls * 100F / calls;
+    }
+
+    private boolean exceedsThreshold(int calls, int failures, int slowCalls) {
+        return failures * 100L >= (long) failureRateThreshold * calls || slowCalls * 100L >= (long) slowCallRateThreshold * calls;
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        generation++;
+        if (newState == State.OPEN) {
+            openedNanos = System.nanoTime();
+        }
+        if (newState == State.CLOSED) {
+            index = 0;
+            calls = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+        halfOpenIssued = 0;
+        halfOpenCalls = 0;
+        halfOpenFailures = 0;
+        halfOpenSlowCalls = 0;
+    }
+
+    /**
+     * 请求的许可，记录发出时熔断器的状态版本和是否是半开状态下的探测请求
+     */
+    public final class Permission {
+
+        private final long generation;
+
+        private final boolean probe;
+
+        private Permission(long generation, boolean probe) {
+            this.generation = generation;
+            this.probe = probe;
+        }
+
+        /**
+         * 是否是半开状态下的探测请求
+         */
+        public boolean isProbe() {
+            return probe;
+        }
+
+        /**
+         * 记录请求结果
+         * @param failure 请求是否失败
+         * @param elapsedMillis 请求耗时毫秒数
+         */
+        public void onResult(boolean failure, long elapsedMillis) {
+            CircuitBreaker.this.onResult(this, failure, elapsedMillis);
+        }
+
+        /**
+         * 请求被取消，不统计结果
+         */
+        public void release() {
+            CircuitBreaker.this.release(this);
+        }
+
+    }
+
+}
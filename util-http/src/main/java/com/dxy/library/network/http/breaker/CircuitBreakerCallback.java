@@ -0,0 +1,50 @@
+package com.dxy.library.network.http.breaker;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+
+/**
+ * 记录异步请求结果的熔断器回调
+ * @author duanxinyuan
+ * 2026/10/18 18:20
+ */
+@SuppressWarnings("NullableProblems")
+public class CircuitBreakerCallback implements Callback {
+
+    private final CircuitBreaker.Permission permission;
+
+    private final Callback callback;
+
+    private final long startTime = System.nanoTime();
+
+    public CircuitBreakerCallback(CircuitBreaker.Permission permission, Callback callback) {
+        this.permission = permission;
+        this.callback = callback;
+    }
+
+    @Override
+    public void onFailure(Call call, IOException e) {
+        if (call.isCanceled()) {
+            //主动取消的请求（如对冲请求中较慢的请求、批量请求中止）不统计，并归还探测请求的名额
+            permission.release();
+        } else {
+            permission.onResult(true, elapsedMillis());
+        }
+        callback.onFailure(call, e);
+    }
+
+    @Override
+    public void onResponse(Call call, Response response) throws IOException {
+        permission.onResult(CircuitBreaker.isFailure(response), elapsedMillis());
+        callback.onResponse(call, response);
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+}
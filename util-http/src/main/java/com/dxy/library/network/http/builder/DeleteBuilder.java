@@ -1,5 +1,6 @@
 package com.dxy.library.network.http.builder;
 
+import com.dxy.library.network.http.codec.HttpCodec;
 import com.dxy.library.network.http.header.Headers;
 import com.dxy.library.network.http.param.Params;
 import com.dxy.library.network.http.serializer.HttpSerializer;
@@ -15,6 +16,10 @@ public class DeleteBuilder extends OkBuilder {
         super(httpSerializer);
     }
 
+    public DeleteBuilder(HttpSerializer httpSerializer, HttpCodec httpCodec) {
+        super(httpSerializer, httpCodec);
+    }
+
     public DeleteBuilder buildDelete(String url, Headers headers, Params params) {
         url(url).delete(getRequestBody(headers, params));
         return this;
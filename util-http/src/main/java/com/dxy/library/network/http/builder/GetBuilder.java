@@ -1,6 +1,7 @@
 package com.dxy.library.network.http.builder;
 
 
+import com.dxy.library.network.http.codec.HttpCodec;
 import com.dxy.library.network.http.header.Headers;
 import com.dxy.library.network.http.param.Params;
 import com.dxy.library.network.http.serializer.HttpSerializer;
@@ -16,6 +17,10 @@ public class GetBuilder extends OkBuilder {
         super(httpSerializer);
     }
 
+    public GetBuilder(HttpSerializer httpSerializer, HttpCodec httpCodec) {
+        super(httpSerializer, httpCodec);
+    }
+
     public GetBuilder buildGet(String url, Params params) {
         if (null == params || params.size() == 0) {
             url(url).get();
@@ -1,18 +1,17 @@
 package com.dxy.library.network.http.builder;
 
 
+import com.dxy.library.network.http.body.StreamRequestBody;
+import com.dxy.library.network.http.codec.HttpCodec;
+import com.dxy.library.network.http.codec.HttpCodecs;
 import com.dxy.library.network.http.constant.Method;
+import com.dxy.library.network.http.exception.HttpException;
 import com.dxy.library.network.http.header.Headers;
 import com.dxy.library.network.http.param.FileParam;
 import com.dxy.library.network.http.param.Params;
 import com.dxy.library.network.http.serializer.HttpSerializer;
-import com.dxy.library.util.common.IOUtils;
 import okhttp3.*;
-import okhttp3.internal.Util;
-import okio.BufferedSink;
 import okio.ByteString;
-import okio.Okio;
-import okio.Source;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -21,7 +20,6 @@ import java.net.FileNameMap;
 import java.net.URLConnection;
 import java.net.URLEncoder;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * 请求构建者基类
@@ -32,50 +30,77 @@ public class OkBuilder extends Request.Builder {
     private static final MediaType MEDIA_TYPE_APPLICATION_JSON = MediaType.parse("application/json; charset=utf-8");
     private static final MediaType MEDIA_TYPE_OCTET_STREAM = MediaType.parse("application/octet-stream; charset=utf-8");
 
+    private static final String ACCEPT = "Accept";
+
     private final HttpSerializer httpSerializer;
 
+    /**
+     * 执行器指定的编解码器，为null时请求体使用 JSON
+     */
+    private final HttpCodec httpCodec;
+
     public OkBuilder(HttpSerializer httpSerializer) {
+        this(httpSerializer, null);
+    }
+
+    public OkBuilder(HttpSerializer httpSerializer, HttpCodec httpCodec) {
         this.httpSerializer = httpSerializer;
+        this.httpCodec = httpCodec;
     }
 
     public static <T> OkBuilder builder(HttpSerializer httpSerializer, Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams) {
+        return builder(httpSerializer, null, method, url, headers, params, body, fileParams);
+    }
+
+    /**
+     * 构建请求，指定编解码器时，未设置 Content-Type 的请求体使用编解码器编码，并以编解码器的类型作为 Accept
+     */
+    public static <T> OkBuilder builder(HttpSerializer httpSerializer, HttpCodec httpCodec, Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams) {
+        OkBuilder builder = newBuilder(httpSerializer, httpCodec, method, url, headers, params, body, fileParams);
+        if (httpCodec != null && (headers == null || !headers.containsKey(ACCEPT))) {
+            builder.header(ACCEPT, httpCodec.mediaType());
+        }
+        return builder;
+    }
+
+    private static <T> OkBuilder newBuilder(HttpSerializer httpSerializer, HttpCodec httpCodec, Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams) {
         switch (method) {
             case GET:
                 //GET不支持传输Body
-                return new GetBuilder(httpSerializer).buildGet(url, headers, params);
+                return new GetBuilder(httpSerializer, httpCodec).buildGet(url, headers, params);
             case POST:
                 if (null != fileParams && !fileParams.isEmpty()) {
-                    return new PostBuilder(httpSerializer).buildPost(url, headers, params, fileParams);
+                    return new PostBuilder(httpSerializer, httpCodec).buildPost(url, headers, params, fileParams);
                 } else {
                     if (null == body) {
-                        return new PostBuilder(httpSerializer).buildPost(url, headers, params);
+                        return new PostBuilder(httpSerializer, httpCodec).buildPost(url, headers, params);
                     } else {
-                        return new PostBuilder(httpSerializer).buildPost(url, headers, params, body, getMediaType(headers));
+                        return new PostBuilder(httpSerializer, httpCodec).buildPost(url, headers, params, body, getMediaType(headers, httpCodec));
                     }
                 }
             case PUT:
                 if (null == body) {
-                    return new PutBuilder(httpSerializer).buildPut(url, headers, params);
+                    return new PutBuilder(httpSerializer, httpCodec).buildPut(url, headers, params);
                 } else {
-                    return new PutBuilder(httpSerializer).buildPut(url, headers, params, body, getMediaType(headers));
+                    return new PutBuilder(httpSerializer, httpCodec).buildPut(url, headers, params, body, getMediaType(headers, httpCodec));
                 }
             case PATCH:
                 if (null == body) {
-                    return new PatchBuilder(httpSerializer).buildPatch(url, headers, params);
+                    return new PatchBuilder(httpSerializer, httpCodec).buildPatch(url, headers, params);
                 } else {
-                    return new PatchBuilder(httpSerializer).buildPatch(url, headers, params, body, getMediaType(headers));
+                    return new PatchBuilder(httpSerializer, httpCodec).buildPatch(url, headers, params, body, getMediaType(headers, httpCodec));
                 }
             case DELETE:
                 //DELETE不支持传输Body
-                return new DeleteBuilder(httpSerializer).buildDelete(url, headers, params);
+                return new DeleteBuilder(httpSerializer, httpCodec).buildDelete(url, headers, params);
             default:
                 throw new RuntimeException("unsupported request method");
         }
     }
 
-    private static MediaType getMediaType(Headers headers) {
+    private static MediaType getMediaType(Headers headers, HttpCodec httpCodec) {
         if (headers == null || !headers.containsContentType()) {
-            return MEDIA_TYPE_APPLICATION_JSON;
+            return httpCodec == null ? MEDIA_TYPE_APPLICATION_JSON : MediaType.parse(httpCodec.mediaType());
         } else {
             return MediaType.parse(headers.getContentType());
         }
@@ -90,12 +115,27 @@ public class OkBuilder extends Request.Builder {
         } else if (body instanceof ByteString) {
             return RequestBody.create((ByteString) body, type);
         } else if (body instanceof InputStream) {
-            return getRequestBody((InputStream) body, type);
+            return getRequestBody((InputStream) body, type, -1);
+        } else if (body instanceof RequestBody) {
+            return (RequestBody) body;
         } else {
+            //按请求体的 Content-Type 选择编解码器，优先使用执行器指定的编解码器
+            HttpCodec codec = HttpCodecs.get(type, httpCodec);
+            if (codec != null) {
+                return RequestBody.create(encode(codec, body), type);
+            }
             return RequestBody.create(httpSerializer.to(body), type);
         }
     }
 
+    private static <T> byte[] encode(HttpCodec codec, T body) {
+        try {
+            return codec.encode(body);
+        } catch (IOException e) {
+            throw new HttpException("http request body encode error", e);
+        }
+    }
+
     RequestBody getRequestBody(Headers headers, Params params) {
         addHeader(headers);
         FormBody.Builder builder = new FormBody.Builder();
@@ -123,7 +163,8 @@ public class OkBuilder extends Request.Builder {
             RequestBody fileBody = RequestBody.create(fileParam.getFile(), guessMimeType(fileParam.getFileName()));
             builder.addFormDataPart(fileParam.getName(), getHeaderValue(fileParam.getFileName()), fileBody);
         } else {
-            RequestBody fileBody = getRequestBody(fileParam.getInputStream(), guessMimeType(fileParam.getFileName()));
+            RequestBody fileBody = getRequestBody(fileParam.getInputStream(), guessMimeType(fileParam.getFileName()),
+                fileParam.getContentLength());
             builder.addFormDataPart(fileParam.getName(), getHeaderValue(fileParam.getFileName()), fileBody);
         }
     }
@@ -138,33 +179,11 @@ public class OkBuilder extends Request.Builder {
         }
     }
 
-    private RequestBody getRequestBody(InputStream inputStream, MediaType mediaType) {
-        return new RequestBody() {
-            @Override
-            public MediaType contentType() {
-                return mediaType;
-            }
-
-            @Override
-            public long contentLength() {
-                try {
-                    return inputStream.available();
-                } catch (IOException e) {
-                    return 0;
-                }
-            }
-
-            @Override
-            public void writeTo(BufferedSink sink) throws IOException {
-                Source source = null;
-                try {
-                    source = Okio.source(IOUtils.cloneInputStream(inputStream));
-                    sink.writeAll(source);
-                } finally {
-                    Util.closeQuietly(Objects.requireNonNull(source));
-                }
-            }
-        };
+    /**
+     * 流式请求体，边读边发送，长度未知时使用 chunked 编码
+     */
+    private RequestBody getRequestBody(InputStream inputStream, MediaType mediaType, long contentLength) {
+        return new StreamRequestBody(inputStream, mediaType, contentLength);
     }
 
     /**
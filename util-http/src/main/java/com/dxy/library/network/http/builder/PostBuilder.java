@@ -1,6 +1,7 @@
 package com.dxy.library.network.http.builder;
 
 
+import com.dxy.library.network.http.codec.HttpCodec;
 import com.dxy.library.network.http.header.Headers;
 import com.dxy.library.network.http.param.FileParam;
 import com.dxy.library.network.http.param.Params;
@@ -20,6 +21,10 @@ public class PostBuilder extends OkBuilder {
         super(httpSerializer);
     }
 
+    public PostBuilder(HttpSerializer httpSerializer, HttpCodec httpCodec) {
+        super(httpSerializer, httpCodec);
+    }
+
     public PostBuilder buildPost(String url, Headers headers, Params params) {
         url(url).post(getRequestBody(headers, params));
         return this;
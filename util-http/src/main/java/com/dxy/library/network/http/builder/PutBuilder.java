@@ -1,6 +1,7 @@
 package com.dxy.library.network.http.builder;
 
 
+import com.dxy.library.network.http.codec.HttpCodec;
 import com.dxy.library.network.http.header.Headers;
 import com.dxy.library.network.http.param.Params;
 import com.dxy.library.network.http.serializer.HttpSerializer;
@@ -17,6 +18,10 @@ public class PutBuilder extends OkBuilder {
         super(httpSerializer);
     }
 
+    public PutBuilder(HttpSerializer httpSerializer, HttpCodec httpCodec) {
+        super(httpSerializer, httpCodec);
+    }
+
     public PutBuilder buildPut(String url, Headers headers, Params params) {
         url(url).put(getRequestBody(headers, params));
         return this;
@@ -0,0 +1,264 @@
+package com.dxy.library.network.http.cache;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import com.dxy.library.util.common.NumberUtils;
+import okhttp3.CacheControl;
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * 内存缓存中的响应，新鲜度按 RFC 7234 计算
+ * @author duanxinyuan
+ * 2026/10/18 21:10
+ */
+class CachedResponse {
+
+    /**
+     * 可以缓存的状态码，302、307只有在显式声明过期时间时才缓存
+     */
+    private static final Set<Integer> CACHEABLE_CODES = new TreeSet<>(
+        Arrays.asList(200, 203, 204, 300, 301, 308, 404, 405, 410, 414, 501));
+
+    private final HttpUrl url;
+
+    /**
+     * 响应 Vary 头中声明的请求头，匹配时要求请求头的值相同
+     */
+    private final Headers varyHeaders;
+
+    private final Protocol protocol;
+
+    private final int code;
+
+    private final String message;
+
+    private final Headers headers;
+
+    private final byte[] body;
+
+    private final MediaType contentType;
+
+    private final long sentRequestAtMillis;
+
+    private final long receivedResponseAtMillis;
+
+    CachedResponse(Request request, Response response, byte[] body, MediaType contentType) {
+        this.url = request.url();
+        this.varyHeaders = varyHeaders(request, response.headers());
+        this.protocol = response.protocol();
+        this.code = response.code();
+        this.message = response.message();
+        this.headers = response.headers();
+        this.body = body;
+        this.contentType = contentType;
+        this.sentRequestAtMillis = response.sentRequestAtMillis();
+        this.receivedResponseAtMillis = response.receivedResponseAtMillis();
+    }
+
+    private CachedResponse(CachedResponse cached, Headers headers, long sentRequestAtMillis,
+        long receivedResponseAtMillis) {
+        this.url = cached.url;
+        this.varyHeaders = cached.varyHeaders;
+        this.protocol = cached.protocol;
+        this.code = cached.code;
+        this.message = cached.message;
+        this.headers = headers;
+        this.body = cached.body;
+        this.contentType = cached.contentType;
+        this.sentRequestAtMillis = sentRequestAtMillis;
+        this.receivedResponseAtMillis = receivedResponseAtMillis;
+    }
+
+    /**
+     * 判断响应是否可以缓存，要求响应有过期时间或者验证器（ETag、Last-Modified），且可以放入共享缓存
+     */
+    static boolean isCacheable(Request request, Response response) {
+        Headers headers = response.headers();
+        CacheControl responseCacheControl = response.cacheControl();
+        if (request.cacheControl().noStore() || responseCacheControl.noStore() || "*".equals(headers.get("Vary"))
+            || !isShareable(request, response)) {
+            return false;
+        }
+        boolean explicitExpiration = headers.get("Expires") != null || responseCacheControl.maxAgeSeconds() != -1
+            || responseCacheControl.sMaxAgeSeconds() != -1 || responseCacheControl.isPublic();
+        if (!CACHEABLE_CODES.contains(response.code())
+            && !((response.code() == 302 || response.code() == 307) && explicitExpiration)) {
+            return false;
+        }
+        return explicitExpiration || headers.get("ETag") != null || headers.get("Last-Modified") != null;
+    }
+
+    /**
+     * 缓存由所有执行器和调用方共享，按共享缓存处理（RFC 7234 3.2）
+     * 不缓存 private 的响应，请求携带 Authorization 时只缓存 public、s-maxage、must-revalidate 的响应
+     */
+    static boolean isShareable(Request request, Response response) {
+        CacheControl responseCacheControl = response.cacheControl();
+        if (responseCacheControl.isPrivate()) {
+            return false;
+        }
+        return request.header("Authorization") == null || responseCacheControl.isPublic()
+            || responseCacheControl.sMaxAgeSeconds() != -1 || responseCacheControl.mustRevalidate();
+    }
+
+    /**
+     * 请求的 Vary 请求头是否与缓存时相同
+     */
+    boolean matches(Request request) {
+        for (String name : varyHeaders.names()) {
+            if (!varyHeaders.values(name).equals(request.headers(name))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 缓存的响应对当前请求是否仍然新鲜，请求的 max-stale 允许使用过期一段时间内的响应
+     */
+    boolean isFresh(CacheControl requestCacheControl, long nowMillis) {
+        CacheControl responseCacheControl = CacheControl.parse(headers);
+        if (requestCacheControl.noCache() || responseCacheControl.noCache()) {
+            return false;
+        }
+        long freshMillis = freshnessMillis(responseCacheControl);
+        if (requestCacheControl.maxAgeSeconds() != -1) {
+            freshMillis = Math.min(freshMillis, TimeUnit.SECONDS.toMillis(requestCacheControl.maxAgeSeconds()));
+        }
+        long minFreshMillis = 0;
+        if (requestCacheControl.minFreshSeconds() != -1) {
+            minFreshMillis = TimeUnit.SECONDS.toMillis(requestCacheControl.minFreshSeconds());
+        }
+        long maxStaleMillis = 0;
+        if (!responseCacheControl.mustRevalidate() && requestCacheControl.maxStaleSeconds() != -1) {
+            maxStaleMillis = TimeUnit.SECONDS.toMillis(requestCacheControl.maxStaleSeconds());
+        }
+        return ageMillis(nowMillis) + minFreshMillis < freshMillis + maxStaleMillis;
+    }
+
+    /**
+     * 构建重新验证的条件请求，优先使用 ETag
+     * @return 条件请求，响应没有验证器时返回null
+     */
+    Request conditionalRequest(Request request) {
+        String etag = headers.get("ETag");
+        if (etag != null) {
+            return request.newBuilder().header("If-None-Match", etag).build();
+        }
+        String lastModified = headers.get("Last-Modified");
+        if (lastModified != null) {
+            return request.newBuilder().header("If-Modified-Since", lastModified).build();
+        }
+        return null;
+    }
+
+    /**
+     * 服务端返回304后，以304响应的响应头更新缓存的响应头和缓存时间
+     */
+    CachedResponse revalidated(Response notModified) {
+        Headers.Builder builder = headers.newBuilder();
+        Headers networkHeaders = notModified.headers();
+        for (String name : networkHeaders.names()) {
+            if (isContentSpecificHeader(name)) {
+                continue;
+            }
+            builder.removeAll(name);
+            for (String value : networkHeaders.values(name)) {
+                builder.add(name, value);
+            }
+        }
+        return new CachedResponse(this, builder.build(), notModified.sentRequestAtMillis(),
+            notModified.receivedResponseAtMillis());
+    }
+
+    /**
+     * 以缓存的响应构建 Response
+     */
+    Response toResponse(Request request) {
+        Response.Builder builder = new Response.Builder()
+            .request(request)
+            .protocol(protocol)
+            .code(code)
+            .message(message)
+            .headers(headers)
+            .sentRequestAtMillis(sentRequestAtMillis)
+            .receivedResponseAtMillis(receivedResponseAtMillis);
+        Response cacheResponse = builder.build();
+        return builder.body(ResponseBody.create(body, contentType)).cacheResponse(cacheResponse).build();
+    }
+
+    /**
+     * 缓存占用的字节数，按响应体计算
+     */
+    long size() {
+        return body.length;
+    }
+
+    /**
+     * 响应的当前年龄
+     */
+    private long ageMillis(long nowMillis) {
+        Date servedDate = headers.getDate("Date");
+        long apparentAgeMillis = servedDate == null ? 0 : Math.max(0, receivedResponseAtMillis - servedDate.getTime());
+        long ageSeconds = NumberUtils.toLong(headers.get("Age"), 0);
+        long receivedAgeMillis = Math.max(apparentAgeMillis, TimeUnit.SECONDS.toMillis(ageSeconds));
+        long responseDurationMillis = receivedResponseAtMillis - sentRequestAtMillis;
+        long residentDurationMillis = nowMillis - receivedResponseAtMillis;
+        return receivedAgeMillis + responseDurationMillis + residentDurationMillis;
+    }
+
+    /**
+     * 响应的新鲜期，依次使用 s-maxage、max-age、Expires，都没有时按 Last-Modified 的10%估算
+     */
+    private long freshnessMillis(CacheControl responseCacheControl) {
+        if (responseCacheControl.sMaxAgeSeconds() != -1) {
+            return TimeUnit.SECONDS.toMillis(responseCacheControl.sMaxAgeSeconds());
+        }
+        if (responseCacheControl.maxAgeSeconds() != -1) {
+            return TimeUnit.SECONDS.toMillis(responseCacheControl.maxAgeSeconds());
+        }
+        Date servedDate = headers.getDate("Date");
+        Date expires = headers.getDate("Expires");
+        if (expires != null) {
+            long servedMillis = servedDate != null ? servedDate.getTime() : receivedResponseAtMillis;
+            return Math.max(0, expires.getTime() - servedMillis);
+        }
+        Date lastModified = headers.getDate("Last-Modified");
+        if (lastModified != null && url.query() == null) {
+            long servedMillis = servedDate != null ? servedDate.getTime() : sentRequestAtMillis;
+            return Math.max(0, (servedMillis - lastModified.getTime()) / 10);
+        }
+        return 0;
+    }
+
+    private static Headers varyHeaders(Request request, Headers responseHeaders) {
+        Headers.Builder builder = new Headers.Builder();
+        for (String vary : responseHeaders.values("Vary")) {
+            for (String name : vary.split(",")) {
+                name = name.trim();
+                if (!name.isEmpty() && builder.get(name) == null) {
+                    for (String value : request.headers(name)) {
+                        builder.add(name, value);
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static boolean isContentSpecificHeader(String name) {
+        return "Content-Length".equalsIgnoreCase(name) || "Content-Encoding".equalsIgnoreCase(name)
+            || "Content-Type".equalsIgnoreCase(name);
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.dxy.library.network.http.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 结果缓存中的反序列化结果
+ * @author duanxinyuan
+ * 2026/10/18 21:50
+ */
+@Getter
+@Setter
+public class CachedResult {
+
+    /**
+     * 反序列化后的结果，可以为null
+     */
+    private Object value;
+
+    /**
+     * 缓存权重，为响应体的字节数
+     */
+    private int weight;
+
+    /**
+     * 是否可以缓存，非2xx响应不缓存
+     */
+    private boolean cacheable = true;
+
+}
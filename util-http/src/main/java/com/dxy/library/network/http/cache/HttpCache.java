@@ -0,0 +1,166 @@
+package com.dxy.library.network.http.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.dxy.library.util.common.StringUtils;
+import com.dxy.library.util.config.ConfigUtils;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Cache;
+
+/**
+ * Http响应缓存，所有执行器共享，分为内存和磁盘两级
+ * 内存缓存按响应体字节数做 LRU 淘汰，磁盘缓存使用 OkHttp 的 Cache，均遵循 Cache-Control，过期后使用 ETag、Last-Modified 重新验证
+ * @author duanxinyuan
+ * 2026/10/18 21:10
+ */
+@Slf4j
+public class HttpCache {
+
+    /**
+     * 默认是否开启响应缓存，默认为false
+     */
+    public static final boolean ENABLE_DEFAULT = ConfigUtils.getAsBoolean("http.cache.enable", false);
+
+    /**
+     * 内存缓存的最大字节数，默认为10M，小于等于0时不使用内存缓存
+     */
+    private static final long MEMORY_MAX_SIZE = ConfigUtils.getAsLong("http.cache.memoryMaxSize", 10L * 1024 * 1024);
+
+    /**
+     * 单个响应体的最大缓存字节数，超过时不放入内存缓存，默认为1M
+     */
+    private static final long MAX_ENTRY_SIZE = ConfigUtils.getAsLong("http.cache.maxEntrySize", 1024L * 1024);
+
+    /**
+     * 磁盘缓存目录，默认为空，即不使用磁盘缓存
+     */
+    private static final String DISK_DIRECTORY = ConfigUtils.getAsString("http.cache.directory", "");
+
+    /**
+     * 磁盘缓存的最大字节数，默认为50M
+     */
+    private static final long DISK_MAX_SIZE = ConfigUtils.getAsLong("http.cache.diskMaxSize", 50L * 1024 * 1024);
+
+    /**
+     * 磁盘缓存，同一目录只能有一个 Cache 实例，未配置目录时为null
+     */
+    private static final Cache DISK_CACHE = StringUtils.isEmpty(DISK_DIRECTORY) ? null
+        : new Cache(new File(DISK_DIRECTORY), DISK_MAX_SIZE);
+
+    /**
+     * Map<url, CachedResponse>，按访问顺序排列，用于 LRU 淘汰
+     */
+    private static final Map<String, CachedResponse> MEMORY_CACHE = new LinkedHashMap<>(16, 0.75F, true);
+
+    private static long memorySize;
+
+    private static final LongAdder HIT_COUNT = new LongAdder();
+
+    private static final LongAdder CONDITIONAL_HIT_COUNT = new LongAdder();
+
+    private static final LongAdder MISS_COUNT = new LongAdder();
+
+    private HttpCache() {
+    }
+
+    /**
+     * 磁盘缓存，未配置 http.cache.directory 时为null
+     */
+    public static Cache getDiskCache() {
+        return DISK_CACHE;
+    }
+
+    /**
+     * 直接使用缓存的响应次数，包括内存缓存和磁盘缓存
+     */
+    public static long getHitCount() {
+        return HIT_COUNT.sum();
+    }
+
+    /**
+     * 缓存过期后重新验证，服务端返回304并继续使用缓存的响应次数
+     */
+    public static long getConditionalHitCount() {
+        return CONDITIONAL_HIT_COUNT.sum();
+    }
+
+    /**
+     * 没有可用的缓存，从服务端获取完整响应的次数
+     */
+    public static long getMissCount() {
+        return MISS_COUNT.sum();
+    }
+
+    /**
+     * 内存缓存的响应体总字节数
+     */
+    public static synchronized long getMemorySize() {
+        return memorySize;
+    }
+
+    /**
+     * 清空内存缓存和磁盘缓存，并重置统计
+     */
+    public static void clear() {
+        synchronized (HttpCache.class) {
+            MEMORY_CACHE.clear();
+            memorySize = 0;
+        }
+        if (DISK_CACHE != null) {
+            try {
+                DISK_CACHE.evictAll();
+            } catch (IOException e) {
+                log.error("http disk cache evict error", e);
+            }
+        }
+        HIT_COUNT.reset();
+        CONDITIONAL_HIT_COUNT.reset();
+        MISS_COUNT.reset();
+    }
+
+    static void onHit() {
+        HIT_COUNT.increment();
+    }
+
+    static void onConditionalHit() {
+        CONDITIONAL_HIT_COUNT.increment();
+    }
+
+    static void onMiss() {
+        MISS_COUNT.increment();
+    }
+
+    static long maxEntrySize() {
+        return MEMORY_MAX_SIZE <= 0 ? 0 : Math.min(MAX_ENTRY_SIZE, MEMORY_MAX_SIZE);
+    }
+
+    static synchronized CachedResponse get(String url) {
+        return MEMORY_CACHE.get(url);
+    }
+
+    static synchronized void put(String url, CachedResponse cachedResponse) {
+        CachedResponse previous = MEMORY_CACHE.put(url, cachedResponse);
+        if (previous != null) {
+            memorySize -= previous.size();
+        }
+        memorySize += cachedResponse.size();
+        Iterator<CachedResponse> iterator = MEMORY_CACHE.values().iterator();
+        while (memorySize > MEMORY_MAX_SIZE && iterator.hasNext()) {
+            memorySize -= iterator.next().size();
+            iterator.remove();
+        }
+    }
+
+    static synchronized void remove(String url) {
+        CachedResponse previous = MEMORY_CACHE.remove(url);
+        if (previous != null) {
+            memorySize -= previous.size();
+        }
+    }
+
+}
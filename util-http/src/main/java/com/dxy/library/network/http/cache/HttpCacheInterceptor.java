@@ -0,0 +1,117 @@
+package com.dxy.library.network.http.cache;
+
+import java.io.IOException;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * 响应缓存拦截器，作为应用拦截器位于重试、并发限制等拦截器之前，命中缓存时不发起请求
+ * 只缓存 GET 请求，先查内存缓存，未命中时由 OkHttp 的磁盘缓存处理，其他请求方式会使对应地址的缓存失效
+ * @author duanxinyuan
+ * 2026/10/18 21:10
+ */
+@SuppressWarnings("NullableProblems")
+public class HttpCacheInterceptor implements Interceptor {
+
+    /**
+     * 磁盘缓存的网络拦截器，磁盘缓存同样由所有执行器共享，不能放入共享缓存的响应添加 Cache-Control: no-store，OkHttp 不再保存
+     */
+    public static final Interceptor SHARED_CACHE_INTERCEPTOR = chain -> {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+        if (CachedResponse.isShareable(request, response)) {
+            return response;
+        }
+        return response.newBuilder().addHeader("Cache-Control", "no-store").build();
+    };
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String url = request.url().toString();
+        if (!"GET".equals(request.method())) {
+            if (!"HEAD".equals(request.method())) {
+                HttpCache.remove(url);
+            }
+            return chain.proceed(request);
+        }
+        if (request.header("Range") != null) {
+            //分段请求的部分响应不缓存，也不使用缓存的完整响应
+            return chain.proceed(request);
+        }
+        CacheControl requestCacheControl = request.cacheControl();
+        CachedResponse cached = HttpCache.get(url);
+        if (cached == null || !cached.matches(request) || hasConditions(request)) {
+            return store(request, record(chain.proceed(request)));
+        }
+        if (cached.isFresh(requestCacheControl, System.currentTimeMillis())) {
+            HttpCache.onHit();
+            return cached.toResponse(request);
+        }
+        Request conditionalRequest = cached.conditionalRequest(request);
+        if (conditionalRequest == null) {
+            return store(request, record(chain.proceed(request)));
+        }
+        Response response = chain.proceed(conditionalRequest);
+        if (response.code() == 304) {
+            CachedResponse revalidated = cached.revalidated(response);
+            response.close();
+            HttpCache.put(url, revalidated);
+            HttpCache.onConditionalHit();
+            return revalidated.toResponse(request);
+        }
+        HttpCache.onMiss();
+        return store(request, response);
+    }
+
+    /**
+     * 按磁盘缓存的处理结果统计命中次数
+     */
+    private Response record(Response response) {
+        Response networkResponse = response.networkResponse();
+        if (response.cacheResponse() == null) {
+            HttpCache.onMiss();
+        } else if (networkResponse == null) {
+            HttpCache.onHit();
+        } else if (networkResponse.code() == 304) {
+            HttpCache.onConditionalHit();
+        } else {
+            //重新验证时服务端返回了新的响应
+            HttpCache.onMiss();
+        }
+        return response;
+    }
+
+    /**
+     * 可缓存且响应体不超过单个响应最大缓存字节数时放入内存缓存，响应体预读后仍可由调用方正常读取
+     */
+    private Response store(Request request, Response response) throws IOException {
+        String url = request.url().toString();
+        long maxEntrySize = HttpCache.maxEntrySize();
+        ResponseBody body = response.body();
+        if (maxEntrySize <= 0 || body == null || !CachedResponse.isCacheable(request, response)) {
+            HttpCache.remove(url);
+            return response;
+        }
+        if (body.contentLength() > maxEntrySize) {
+            HttpCache.remove(url);
+            return response;
+        }
+        ResponseBody peeked = response.peekBody(maxEntrySize + 1);
+        if (peeked.contentLength() > maxEntrySize) {
+            HttpCache.remove(url);
+            return response;
+        }
+        HttpCache.put(url, new CachedResponse(request, response, peeked.bytes(), body.contentType()));
+        return response;
+    }
+
+    private boolean hasConditions(Request request) {
+        return request.header("If-None-Match") != null || request.header("If-Modified-Since") != null;
+    }
+
+}
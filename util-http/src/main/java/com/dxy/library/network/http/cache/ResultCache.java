@@ -0,0 +1,157 @@
+package com.dxy.library.network.http.cache;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.dxy.library.network.http.constant.Method;
+import com.dxy.library.network.http.exception.HttpException;
+import com.dxy.library.network.http.param.FileParam;
+import com.dxy.library.util.common.ExecutorUtils;
+import com.dxy.library.util.common.NumberUtils;
+import com.dxy.library.util.config.ConfigUtils;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * 反序列化结果的缓存，用于服务端不允许 Http 缓存、但调用方可以容忍短时间过期的数据，命中时既不发起请求也不反序列化
+ * 按响应体字节数做加权淘汰；写入后超过 TTL 过期，超过刷新时间后访问时返回旧值并在后台刷新；
+ * 同一个键同时只有一个请求在加载，其他请求等待加载结果，避免缓存失效时大量请求同时打到下游
+ * @author duanxinyuan
+ * 2026/10/18 21:50
+ */
+public class ResultCache {
+
+    /**
+     * 每个结果缓存的最大权重，即缓存的响应体总字节数，默认为10M
+     */
+    private static final long MAX_WEIGHT = ConfigUtils.getAsLong("http.resultCache.maxWeight", 10L * 1024 * 1024);
+
+    /**
+     * 提前刷新的时间占 TTL 的比例，默认为0.8，取值不在0到1之间时不提前刷新
+     */
+    private static final double REFRESH_AHEAD_RATIO = NumberUtils.toDouble(
+        ConfigUtils.getAsString("http.resultCache.refreshAheadRatio", "0.8"), 0.8D);
+
+    /**
+     * 后台刷新的线程数，默认为2
+     */
+    private static final int REFRESH_THREADS = ConfigUtils.getAsInt("http.resultCache.refreshThreads", 2);
+
+    /**
+     * 后台刷新的线程池，所有结果缓存共享
+     */
+    private static final ExecutorService REFRESH_EXECUTOR = ExecutorUtils.getExecutorService(
+        "http-result-cache-refresh", REFRESH_THREADS);
+
+    private final LoadingCache<ResultKey, CachedResult> cache;
+
+    /**
+     * @param ttlMillis 缓存的过期毫秒数
+     */
+    public ResultCache(long ttlMillis) {
+        this(ttlMillis, REFRESH_AHEAD_RATIO > 0 && REFRESH_AHEAD_RATIO < 1 ? (long) (ttlMillis * REFRESH_AHEAD_RATIO) : 0,
+            MAX_WEIGHT);
+    }
+
+    /**
+     * @param ttlMillis 缓存的过期毫秒数
+     * @param refreshMillis 写入后超过该毫秒数再访问时在后台刷新，小于等于0时不提前刷新
+     * @param maxWeight 最大权重，即缓存的响应体总字节数
+     */
+    public ResultCache(long ttlMillis, long refreshMillis, long maxWeight) {
+        CacheBuilder<ResultKey, CachedResult> builder = CacheBuilder.newBuilder()
+            .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+            .maximumWeight(maxWeight)
+            .weigher((ResultKey key, CachedResult result) -> result.getWeight())
+            .recordStats();
+        if (refreshMillis > 0 && refreshMillis < ttlMillis) {
+            builder.refreshAfterWrite(refreshMillis, TimeUnit.MILLISECONDS);
+        }
+        CacheLoader<ResultKey, CachedResult> loader = new CacheLoader<ResultKey, CachedResult>() {
+            @Override
+            public CachedResult load(ResultKey key) throws Exception {
+                return key.getLoader().call();
+            }
+
+            @Override
+            public ListenableFuture<CachedResult> reload(ResultKey key, CachedResult oldValue) throws Exception {
+                CachedResult result = load(key);
+                if (!result.isCacheable()) {
+                    //后台刷新得到非2xx响应时抛出异常，由 Guava 保留旧值，不用错误结果替换正常的缓存
+                    throw new HttpException("http result cache refresh got an uncacheable result");
+                }
+                return Futures.immediateFuture(result);
+            }
+        };
+        this.cache = builder.build(CacheLoader.asyncReloading(loader, REFRESH_EXECUTOR));
+    }
+
+    /**
+     * 判断请求结果是否可以缓存，只缓存没有请求体的 GET 请求，流式类型不缓存
+     */
+    public static boolean isCacheable(Method method, Object body, List<FileParam> fileParams, Type type) {
+        return method == Method.GET && body == null && (fileParams == null || fileParams.isEmpty())
+            && type != InputStream.class && type != Reader.class;
+    }
+
+    /**
+     * 获取缓存的结果，不存在或已过期时加载，同一个键同时只有一个请求在加载
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(ResultKey key) {
+        CachedResult result;
+        try {
+            result = cache.get(key);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new HttpException("http result cache load error", cause);
+        }
+        if (!result.isCacheable()) {
+            //非2xx响应只返回给本次等待的请求，不缓存
+            cache.asMap().remove(key, result);
+        }
+        return (V) result.getValue();
+    }
+
+    /**
+     * 使指定请求的缓存失效
+     */
+    public void invalidate(ResultKey key) {
+        cache.invalidate(key);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 缓存的结果数
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * 缓存统计，包括命中数、加载数、加载耗时和淘汰数
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+}
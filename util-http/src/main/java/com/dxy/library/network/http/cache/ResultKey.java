@@ -0,0 +1,77 @@
+package com.dxy.library.network.http.cache;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+import com.dxy.library.network.http.constant.Method;
+import com.dxy.library.network.http.header.Headers;
+import com.dxy.library.network.http.param.Params;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import okhttp3.HttpUrl;
+
+/**
+ * 结果缓存的键，由请求方式、地址、规范化后的参数、请求头和反序列化类型组成
+ * 地址中的查询参数和 Params 合并后排序，参数顺序不同的相同请求使用同一个缓存
+ * @author duanxinyuan
+ * 2026/10/18 21:50
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class ResultKey {
+
+    private final Method method;
+
+    private final String url;
+
+    private final List<String> params;
+
+    private final Map<String, String> headers;
+
+    private final Type type;
+
+    /**
+     * 加载结果的操作，不参与比较，后台刷新时复用
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final Callable<CachedResult> loader;
+
+    public ResultKey(Method method, String url, Headers headers, Params params, Type type,
+        Callable<CachedResult> loader) {
+        this.method = method;
+        this.type = type;
+        this.loader = loader;
+        List<String> canonicalParams = new ArrayList<>();
+        HttpUrl httpUrl = HttpUrl.parse(url);
+        if (httpUrl == null) {
+            this.url = url;
+        } else {
+            for (int i = 0; i < httpUrl.querySize(); i++) {
+                canonicalParams.add(httpUrl.queryParameterName(i) + "=" + httpUrl.queryParameterValue(i));
+            }
+            this.url = httpUrl.newBuilder().query(null).build().toString();
+        }
+        if (params != null) {
+            params.forEach((key, value) -> canonicalParams.add(key + "=" + value));
+        }
+        Collections.sort(canonicalParams);
+        this.params = canonicalParams;
+        //请求头名称统一转为小写，不使用忽略大小写的 TreeMap，否则 equals 与 hashCode 不一致；仅大小写不同的同名请求头合并取值
+        Map<String, String> canonicalHeaders = new TreeMap<>();
+        if (headers != null) {
+            headers.forEach((name, value) -> canonicalHeaders.merge(name.toLowerCase(Locale.ROOT), value,
+                (oldValue, newValue) -> oldValue + "," + newValue));
+        }
+        this.headers = canonicalHeaders;
+    }
+
+}
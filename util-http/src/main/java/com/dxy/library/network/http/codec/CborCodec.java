@@ -0,0 +1,23 @@
+package com.dxy.library.network.http.codec;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * CBOR 编解码器，需要依赖 jackson-dataformat-cbor
+ * @author duanxinyuan
+ * 2026/10/18 14:05
+ */
+public class CborCodec extends JacksonCodec {
+
+    public static final String MEDIA_TYPE = "application/cbor";
+
+    public CborCodec() {
+        super(new CBORFactory());
+    }
+
+    @Override
+    public String mediaType() {
+        return MEDIA_TYPE;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.dxy.library.network.http.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * 基于字节的编解码器，按 Content-Type 选择，用于 Smile、CBOR、Protobuf 等二进制格式
+ * @author duanxinyuan
+ * 2026/10/18 14:05
+ */
+public interface HttpCodec {
+
+    /**
+     * 对应的 Content-Type，如 application/x-jackson-smile
+     */
+    String mediaType();
+
+    /**
+     * 编码为字节数组
+     */
+    <V> byte[] encode(V v) throws IOException;
+
+    /**
+     * 从字节流解码
+     * @param inputStream 字节流，由调用方负责关闭
+     * @param type 目标类型
+     */
+    <V> V decode(InputStream inputStream, Type type) throws IOException;
+
+}
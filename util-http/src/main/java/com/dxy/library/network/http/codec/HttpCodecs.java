@@ -0,0 +1,96 @@
+package com.dxy.library.network.http.codec;
+
+import java.util.Locale;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.MediaType;
+
+/**
+ * 编解码器注册表，Map<Content-Type, HttpCodec>
+ * classpath 中存在对应依赖时，自动注册 Smile、CBOR 和 Protobuf 编解码器
+ * @author duanxinyuan
+ * 2026/10/18 14:05
+ */
+@Slf4j
+public final class HttpCodecs {
+
+    private static final Map<String, HttpCodec> CODEC_MAP = Maps.newConcurrentMap();
+
+    static {
+        //通过类名加载，避免缺少可选依赖时当前类初始化失败
+        registerIfPresent("com.fasterxml.jackson.dataformat.smile.SmileFactory", "com.dxy.library.network.http.codec.SmileCodec");
+        registerIfPresent("com.fasterxml.jackson.dataformat.cbor.CBORFactory", "com.dxy.library.network.http.codec.CborCodec");
+        registerIfPresent("com.google.protobuf.MessageLite", "com.dxy.library.network.http.codec.ProtobufCodec");
+    }
+
+    private HttpCodecs() {
+    }
+
+    /**
+     * 注册编解码器，相同 Content-Type 的编解码器会被替换
+     */
+    public static void register(HttpCodec codec) {
+        CODEC_MAP.put(key(codec.mediaType()), codec);
+    }
+
+    /**
+     * 按 Content-Type 获取编解码器，不存在时返回null
+     */
+    public static HttpCodec get(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        MediaType mediaType = MediaType.parse(contentType);
+        return mediaType == null ? null : get(mediaType);
+    }
+
+    /**
+     * 按 Content-Type 获取编解码器，不存在时返回null
+     */
+    public static HttpCodec get(MediaType mediaType) {
+        if (mediaType == null || CODEC_MAP.isEmpty()) {
+            return null;
+        }
+        return CODEC_MAP.get(key(mediaType.type() + "/" + mediaType.subtype()));
+    }
+
+    /**
+     * 按 Content-Type 获取编解码器，Content-Type 与 preferred 一致时使用 preferred，否则从注册表中获取，不存在时返回null
+     * @param preferred 优先使用的编解码器，如执行器指定的编解码器，可以为null
+     */
+    public static HttpCodec get(MediaType mediaType, HttpCodec preferred) {
+        if (mediaType == null) {
+            return null;
+        }
+        if (preferred != null && key(preferred.mediaType()).equals(key(mediaType.type() + "/" + mediaType.subtype()))) {
+            return preferred;
+        }
+        return get(mediaType);
+    }
+
+    private static String key(String mediaType) {
+        MediaType parsed = MediaType.parse(mediaType);
+        String key = parsed == null ? mediaType : parsed.type() + "/" + parsed.subtype();
+        return key.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * classpath 中存在依赖类时注册编解码器
+     */
+    private static void registerIfPresent(String dependencyClassName, String codecClassName) {
+        ClassLoader classLoader = HttpCodecs.class.getClassLoader();
+        try {
+            Class.forName(dependencyClassName, false, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return;
+        }
+        try {
+            register((HttpCodec)Class.forName(codecClassName, true, classLoader).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("http codec register failed, codec: {}", codecClassName, e);
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.dxy.library.network.http.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 基于 Jackson 数据格式的编解码器，忽略未知字段
+ * @author duanxinyuan
+ * 2026/10/18 14:05
+ */
+public abstract class JacksonCodec implements HttpCodec {
+
+    private final ObjectMapper objectMapper;
+
+    protected JacksonCodec(JsonFactory jsonFactory) {
+        this.objectMapper = new ObjectMapper(jsonFactory).configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
+            false);
+    }
+
+    @Override
+    public <V> byte[] encode(V v) throws IOException {
+        return objectMapper.writeValueAsBytes(v);
+    }
+
+    @Override
+    public <V> V decode(InputStream inputStream, Type type) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            //空响应体返回null
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            return objectMapper.readValue(parser, objectMapper.getTypeFactory().constructType(type));
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.dxy.library.network.http.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Map;
+
+import com.dxy.library.network.http.exception.HttpException;
+import com.google.common.collect.Maps;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+
+/**
+ * Protobuf 编解码器，需要依赖 protobuf-java，请求体和目标类型必须是 protobuf 生成的消息类
+ * @author duanxinyuan
+ * 2026/10/18 14:05
+ */
+public class ProtobufCodec implements HttpCodec {
+
+    public static final String MEDIA_TYPE = "application/x-protobuf";
+
+    /**
+     * Map<消息类, Parser>
+     */
+    private final Map<Class<?>, Parser<?>> parserMap = Maps.newConcurrentMap();
+
+    @Override
+    public String mediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public <V> byte[] encode(V v) {
+        if (!(v instanceof MessageLite)) {
+            throw new HttpException("protobuf codec only supports MessageLite, type: {}", v.getClass().getName());
+        }
+        return ((MessageLite)v).toByteArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <V> V decode(InputStream inputStream, Type type) throws IOException {
+        if (!(type instanceof Class) || !MessageLite.class.isAssignableFrom((Class<?>)type)) {
+            throw new HttpException("protobuf codec only supports MessageLite, type: {}", type.getTypeName());
+        }
+        return (V)getParser((Class<?>)type).parseFrom(inputStream);
+    }
+
+    private Parser<?> getParser(Class<?> type) {
+        return parserMap.computeIfAbsent(type, t -> {
+            try {
+                MessageLite defaultInstance = (MessageLite)t.getMethod("getDefaultInstance").invoke(null);
+                return defaultInstance.getParserForType();
+            } catch (ReflectiveOperationException e) {
+                throw new HttpException("protobuf parser not found, type: {}", t.getName(), e);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.dxy.library.network.http.codec;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Jackson Smile 编解码器，需要依赖 jackson-dataformat-smile
+ * @author duanxinyuan
+ * 2026/10/18 14:05
+ */
+public class SmileCodec extends JacksonCodec {
+
+    public static final String MEDIA_TYPE = "application/x-jackson-smile";
+
+    public SmileCodec() {
+        super(new SmileFactory());
+    }
+
+    @Override
+    public String mediaType() {
+        return MEDIA_TYPE;
+    }
+
+}
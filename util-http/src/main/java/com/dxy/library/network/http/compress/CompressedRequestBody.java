@@ -0,0 +1,53 @@
+package com.dxy.library.network.http.compress;
+
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * 压缩的请求体，发送时边序列化边压缩，不生成压缩后的副本，长度未知，使用 chunked 编码发送
+ * @author duanxinyuan
+ * 2026/10/19 20:00
+ */
+@SuppressWarnings("NullableProblems")
+public class CompressedRequestBody extends RequestBody {
+
+    private final RequestBody delegate;
+
+    private final ContentEncoding encoding;
+
+    public CompressedRequestBody(RequestBody delegate, ContentEncoding encoding) {
+        this.delegate = delegate;
+        this.encoding = encoding;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isOneShot() {
+        return delegate.isOneShot();
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        BufferedSink compressed = encoding.compress(sink);
+        delegate.writeTo(compressed);
+        //写入压缩数据的结尾，OkHttp 会再次关闭 sink
+        compressed.close();
+    }
+
+    public RequestBody getDelegate() {
+        return delegate;
+    }
+
+}
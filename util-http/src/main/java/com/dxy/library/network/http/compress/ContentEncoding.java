@@ -0,0 +1,79 @@
+package com.dxy.library.network.http.compress;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import com.dxy.library.network.http.exception.HttpException;
+import com.dxy.library.util.common.StringUtils;
+import lombok.Getter;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * 请求体的压缩编码，即请求头 Content-Encoding 的值
+ * @author duanxinyuan
+ * 2026/10/19 20:00
+ */
+@Getter
+public enum ContentEncoding {
+
+    GZIP("gzip") {
+        @Override
+        BufferedSink compress(BufferedSink sink) {
+            return Okio.buffer(new GzipSink(sink));
+        }
+    },
+
+    /**
+     * 需要引入 com.github.luben:zstd-jni
+     */
+    ZSTD("zstd") {
+        @Override
+        BufferedSink compress(BufferedSink sink) throws IOException {
+            return Okio.buffer(ZstdSinks.sink(sink));
+        }
+    };
+
+    /**
+     * Content-Encoding 的值
+     */
+    private final String value;
+
+    ContentEncoding(String value) {
+        this.value = value;
+    }
+
+    /**
+     * 返回写入时压缩的 Sink，关闭时写入剩余的压缩数据并关闭 sink
+     */
+    abstract BufferedSink compress(BufferedSink sink) throws IOException;
+
+    /**
+     * 按名称获取压缩编码，名称为空时返回null
+     * @throws HttpException 不支持的压缩编码，或者 zstd 缺少依赖
+     */
+    public static ContentEncoding of(String name) {
+        if (StringUtils.isEmpty(name)) {
+            return null;
+        }
+        for (ContentEncoding encoding : values()) {
+            if (encoding.value.equals(name.trim().toLowerCase(Locale.ROOT))) {
+                encoding.check();
+                return encoding;
+            }
+        }
+        throw new HttpException("unsupported request content encoding: {}", name);
+    }
+
+    /**
+     * 检查压缩编码的依赖是否存在
+     * @throws HttpException 缺少依赖
+     */
+    public void check() {
+        if (this == ZSTD && !ZstdSinks.isAvailable()) {
+            throw new HttpException("zstd request compression requires com.github.luben:zstd-jni");
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.dxy.library.network.http.compress;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import com.dxy.library.network.http.exception.HttpException;
+import com.dxy.library.util.config.ConfigUtils;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * 请求体压缩拦截器，压缩文本类型（JSON、XML、表单、text/*）的请求体并设置 Content-Encoding
+ * 长度小于阈值的请求体不压缩，长度未知的请求体（如 InputStream）总是压缩；已经设置 Content-Encoding 的请求不处理
+ * @author duanxinyuan
+ * 2026/10/19 20:00
+ */
+@SuppressWarnings("NullableProblems")
+@Slf4j
+public class RequestCompressionInterceptor implements Interceptor {
+
+    /**
+     * 默认的请求体压缩编码，gzip 或 zstd，默认为空，即不压缩
+     */
+    public static final ContentEncoding ENCODING_DEFAULT = defaultEncoding();
+
+    /**
+     * 压缩请求体的最小字节数，默认为1024（1K）
+     */
+    public static final long MIN_SIZE_DEFAULT = ConfigUtils.getAsLong("http.compress.minSize", 1024L);
+
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+
+    private final ContentEncoding encoding;
+
+    private final long minSize;
+
+    public RequestCompressionInterceptor(ContentEncoding encoding, long minSize) {
+        encoding.check();
+        this.encoding = encoding;
+        this.minSize = minSize;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        RequestBody body = request.body();
+        if (body == null || request.header(CONTENT_ENCODING) != null || !isCompressible(body.contentType())) {
+            return chain.proceed(request);
+        }
+        long contentLength = body.contentLength();
+        if (contentLength >= 0 && contentLength < minSize) {
+            return chain.proceed(request);
+        }
+        return chain.proceed(request.newBuilder()
+            .header(CONTENT_ENCODING, encoding.getValue())
+            .method(request.method(), new CompressedRequestBody(body, encoding))
+            .build());
+    }
+
+    private static ContentEncoding defaultEncoding() {
+        String encoding = ConfigUtils.getAsString("http.compress.encoding", "");
+        try {
+            return ContentEncoding.of(encoding);
+        } catch (HttpException e) {
+            log.warn("request compression disabled, encoding: {}, reason: {}", encoding, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 只压缩文本类型，文件、二进制和多段请求体通常已经压缩过或服务端不支持解压
+     */
+    private static boolean isCompressible(MediaType mediaType) {
+        if (mediaType == null) {
+            return false;
+        }
+        String type = mediaType.type().toLowerCase(Locale.ROOT);
+        String subtype = mediaType.subtype().toLowerCase(Locale.ROOT);
+        return "text".equals(type) || "application".equals(type)
+            && ("json".equals(subtype) || subtype.endsWith("+json") || "xml".equals(subtype)
+            || subtype.endsWith("+xml") || "x-www-form-urlencoded".equals(subtype) || "javascript".equals(subtype));
+    }
+
+}
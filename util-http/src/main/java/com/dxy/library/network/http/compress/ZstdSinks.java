@@ -0,0 +1,42 @@
+package com.dxy.library.network.http.compress;
+
+import java.io.IOException;
+
+import com.dxy.library.util.config.ConfigUtils;
+import com.github.luben.zstd.ZstdOutputStream;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Sink;
+
+/**
+ * zstd 压缩的 Sink，单独成类，缺少 zstd-jni 依赖时不影响 gzip 压缩
+ * @author duanxinyuan
+ * 2026/10/19 20:00
+ */
+final class ZstdSinks {
+
+    /**
+     * zstd 压缩级别，默认为3
+     */
+    private static final int LEVEL = ConfigUtils.getAsInt("http.compress.zstdLevel", 3);
+
+    private ZstdSinks() {
+    }
+
+    static Sink sink(BufferedSink sink) throws IOException {
+        return Okio.sink(new ZstdOutputStream(sink.outputStream(), LEVEL));
+    }
+
+    /**
+     * classpath 中是否存在 zstd-jni
+     */
+    static boolean isAvailable() {
+        try {
+            Class.forName("com.github.luben.zstd.ZstdOutputStream", false, ZstdSinks.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.dxy.library.network.http.download;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+import com.dxy.library.util.common.NumberUtils;
+import com.dxy.library.util.common.StringUtils;
+
+/**
+ * 分段下载的进度文件，与目标文件放在同一目录，记录资源的地址、长度、校验值和各段的下载进度
+ * 资源的地址、长度或校验值（ETag、Last-Modified）变化时进度失效，重新下载
+ * @author duanxinyuan
+ * 2026/10/19 11:00
+ */
+class DownloadProgress {
+
+    private static final String URL = "url";
+
+    private static final String LENGTH = "length";
+
+    private static final String VALIDATOR = "validator";
+
+    private static final String SEGMENTS = "segments";
+
+    private static final String SEGMENT_PREFIX = "segment.";
+
+    private final File file;
+
+    private final String url;
+
+    private final long length;
+
+    private final String validator;
+
+    DownloadProgress(File file, String url, long length, String validator) {
+        this.file = file;
+        this.url = url;
+        this.length = length;
+        this.validator = validator == null ? "" : validator;
+    }
+
+    /**
+     * 读取进度文件中的各段进度，进度文件不存在或已经失效时返回null
+     */
+    List<Segment> load() {
+        if (!file.isFile()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            return null;
+        }
+        if (!Objects.equals(url, properties.getProperty(URL))
+            || length != NumberUtils.toLong(properties.getProperty(LENGTH), -1)
+            || !Objects.equals(validator, properties.getProperty(VALIDATOR))) {
+            return null;
+        }
+        int count = NumberUtils.toInt(properties.getProperty(SEGMENTS), 0);
+        List<Segment> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] values = StringUtils.split(properties.getProperty(SEGMENT_PREFIX + i), ',');
+            if (values == null || values.length != 3) {
+                return null;
+            }
+            segments.add(new Segment(NumberUtils.toLong(values[0]), NumberUtils.toLong(values[1]),
+                NumberUtils.toLong(values[2])));
+        }
+        return segments.isEmpty() ? null : segments;
+    }
+
+    /**
+     * 保存各段进度，先写入临时文件再替换，避免中断时留下不完整的进度文件
+     */
+    void save(List<Segment> segments) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(URL, url);
+        properties.setProperty(LENGTH, String.valueOf(length));
+        properties.setProperty(VALIDATOR, validator);
+        properties.setProperty(SEGMENTS, String.valueOf(segments.size()));
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            properties.setProperty(SEGMENT_PREFIX + i,
+                segment.getStart() + "," + segment.getEnd() + "," + segment.getDownloaded());
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (OutputStream outputStream = Files.newOutputStream(tmp.toPath())) {
+            properties.store(outputStream, null);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+}
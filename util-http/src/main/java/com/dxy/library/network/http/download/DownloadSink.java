@@ -0,0 +1,160 @@
+package com.dxy.library.network.http.download;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+
+import okio.Buffer;
+import okio.Sink;
+import okio.Timeout;
+
+/**
+ * 写入 FileChannel 的 okio Sink
+ * 从连接读取的数据以 okio Buffer 的段（Segment）的形式暂存，累计到 WRITE_SIZE 后将各段直接包装为 ByteBuffer 一次写入，
+ * 不经过额外的堆内数组；指定起始位置时按偏移量写入，不改变 FileChannel 的位置，多个 Sink 可以并发写入同一个文件的不同区域
+ * 记录写入的字节数和耗时，用于统计下载速度
+ * @author duanxinyuan
+ * 2026/10/19 14:00
+ */
+@SuppressWarnings("NullableProblems")
+public class DownloadSink implements Sink {
+
+    /**
+     * 每次写入文件的最小字节数
+     */
+    private static final long WRITE_SIZE = 256 * 1024;
+
+    /**
+     * 一次写入最多包含的段数，与操作系统的 IOV_MAX 相当
+     */
+    private static final int MAX_SEGMENTS = 1024;
+
+    private final FileChannel channel;
+
+    /**
+     * 下一个写入位置，小于0时使用 FileChannel 当前的位置顺序写入
+     */
+    private long position;
+
+    /**
+     * 尚未写入文件的数据
+     */
+    private final Buffer pending = new Buffer();
+
+    private final Buffer.UnsafeCursor cursor = new Buffer.UnsafeCursor();
+
+    private final ByteBuffer[] byteBuffers = new ByteBuffer[MAX_SEGMENTS];
+
+    private final long startNanos = System.nanoTime();
+
+    private long bytesWritten;
+
+    private boolean closed;
+
+    /**
+     * 从 FileChannel 当前的位置顺序写入
+     */
+    public DownloadSink(FileChannel channel) {
+        this(channel, -1);
+    }
+
+    /**
+     * 从指定位置开始写入
+     */
+    public DownloadSink(FileChannel channel, long position) {
+        this.channel = channel;
+        this.position = position;
+    }
+
+    @Override
+    public void write(Buffer source, long byteCount) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("closed");
+        }
+        //移动段，不复制数据
+        pending.write(source, byteCount);
+        if (pending.size() >= WRITE_SIZE) {
+            writePending();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writePending();
+    }
+
+    @Override
+    public Timeout timeout() {
+        return Timeout.NONE;
+    }
+
+    /**
+     * 写入剩余的数据，不关闭 FileChannel
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            writePending();
+        } finally {
+            closed = true;
+            pending.clear();
+        }
+    }
+
+    /**
+     * 已经写入文件的字节数
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * 创建以来的平均写入速度，单位为字节/秒
+     */
+    public long getBytesPerSecond() {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return elapsedNanos <= 0 ? 0 : bytesWritten * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * 将暂存的各段包装为 ByteBuffer，顺序写入时使用聚集写，按偏移量写入时逐段写入
+     */
+    private void writePending() throws IOException {
+        while (pending.size() > 0) {
+            int count = 0;
+            long byteCount = 0;
+            pending.readUnsafe(cursor);
+            try {
+                while (count < MAX_SEGMENTS && cursor.next() != -1) {
+                    byteBuffers[count++] = ByteBuffer.wrap(cursor.data, cursor.start, cursor.end - cursor.start);
+                    byteCount += cursor.end - cursor.start;
+                }
+                if (position < 0) {
+                    long written = 0;
+                    while (written < byteCount) {
+                        written += channel.write(byteBuffers, 0, count);
+                    }
+                } else {
+                    for (int i = 0; i < count; i++) {
+                        ByteBuffer byteBuffer = byteBuffers[i];
+                        while (byteBuffer.hasRemaining()) {
+                            position += channel.write(byteBuffer, position);
+                        }
+                    }
+                }
+            } finally {
+                cursor.close();
+                for (int i = 0; i < count; i++) {
+                    byteBuffers[i] = null;
+                }
+            }
+            pending.skip(byteCount);
+            bytesWritten += byteCount;
+        }
+    }
+
+}
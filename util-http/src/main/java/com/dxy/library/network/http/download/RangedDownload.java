@@ -0,0 +1,354 @@
+package com.dxy.library.network.http.download;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.dxy.library.network.http.exception.HttpException;
+import com.dxy.library.util.common.ExecutorUtils;
+import com.dxy.library.util.common.NumberUtils;
+import com.dxy.library.util.common.StringUtils;
+import com.dxy.library.util.config.ConfigUtils;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+
+/**
+ * 分段并发下载
+ * 先以 Range: bytes=0-0 探测资源长度和是否支持分段，支持时将资源分为多段并发下载，按偏移量写入预分配长度的临时文件，
+ * 并在目标文件旁保存进度文件；下载中断后再次下载同一目标文件时，只下载未完成的部分，全部完成后将临时文件替换为目标文件
+ * 不支持分段或无法获取长度时退化为单连接下载
+ * @author duanxinyuan
+ * 2026/10/19 11:00
+ */
+@Slf4j
+public class RangedDownload {
+
+    /**
+     * 默认的分段数，默认为4
+     */
+    public static final int SEGMENTS_DEFAULT = ConfigUtils.getAsInt("http.download.segments", 4);
+
+    /**
+     * 每段的最小字节数，默认为1048576（1M），资源较小时减少分段数
+     */
+    private static final long MIN_SEGMENT_SIZE = ConfigUtils.getAsLong("http.download.minSegmentSize", 1024L * 1024);
+
+    /**
+     * 单段下载中断后从中断位置重新请求的次数，默认为3
+     */
+    private static final int SEGMENT_RETRIES = ConfigUtils.getAsInt("http.download.segmentRetries", 3);
+
+    /**
+     * 分段下载的线程数，默认为8，所有下载共享
+     */
+    private static final int DOWNLOAD_THREADS = ConfigUtils.getAsInt("http.download.threads", 8);
+
+    /**
+     * 分段下载的线程池
+     */
+    private static final ExecutorService DOWNLOAD_EXECUTOR = ExecutorUtils.getExecutorService("http-download",
+        DOWNLOAD_THREADS);
+
+    /**
+     * 每次从连接读取的最大字节数
+     */
+    private static final long READ_SIZE = 64 * 1024;
+
+    /**
+     * 每段每下载多少字节保存一次进度
+     */
+    private static final long PROGRESS_SAVE_BYTES = 8 * 1024 * 1024;
+
+    private static final String PART_SUFFIX = ".part";
+
+    private static final String PROGRESS_SUFFIX = ".download";
+
+    /**
+     * 发起请求的操作
+     */
+    @FunctionalInterface
+    public interface DownloadCall {
+        Response execute(Request request) throws IOException;
+    }
+
+    private final DownloadCall downloadCall;
+
+    private final Request request;
+
+    private final File target;
+
+    private final File part;
+
+    private final int segmentCount;
+
+    private final Executor executor;
+
+    private final ReentrantLock progressLock = new ReentrantLock();
+
+    /**
+     * 分段下载过程中资源发生了变化，下载失败后丢弃已下载的部分
+     */
+    private volatile boolean changed;
+
+    /**
+     * @param downloadCall 发起请求的操作
+     * @param request 下载请求
+     * @param targetPath 目标文件路径
+     * @param segmentCount 最大分段数
+     * @param executor 分段下载的线程池，为null时使用共享的下载线程池
+     */
+    public RangedDownload(DownloadCall downloadCall, Request request, String targetPath, int segmentCount,
+        Executor executor) {
+        this.downloadCall = downloadCall;
+        this.request = request;
+        this.target = new File(targetPath);
+        this.part = new File(targetPath + PART_SUFFIX);
+        this.segmentCount = Math.max(1, segmentCount);
+        this.executor = executor == null ? DOWNLOAD_EXECUTOR : executor;
+    }
+
+    /**
+     * 下载到目标文件，失败时保留已下载的部分和进度文件，再次下载时继续
+     * @return 资源的字节数
+     * @throws HttpException 下载失败
+     */
+    public long execute() {
+        try {
+            File parent = target.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs() && !parent.exists()) {
+                throw new IOException("create directory failed: " + parent);
+            }
+            return download();
+        } catch (IOException e) {
+            throw new HttpException("ranged download error", e);
+        }
+    }
+
+    private long download() throws IOException {
+        Response probe = downloadCall.execute(request.newBuilder().header("Range", "bytes=0-0").build());
+        long length = probe.code() == 206 ? parseLength(probe.header("Content-Range")) : -1;
+        if (length <= 0) {
+            //不支持分段，服务端返回了完整响应时直接使用
+            if (probe.code() == 200) {
+                return downloadSingle(probe);
+            }
+            probe.close();
+            return downloadSingle(downloadCall.execute(request));
+        }
+        String validator = validator(probe);
+        probe.close();
+
+        DownloadProgress progress = new DownloadProgress(new File(target.getPath() + PROGRESS_SUFFIX),
+            request.url().toString(), length, validator);
+        List<Segment> segments = part.isFile() && part.length() == length ? progress.load() : null;
+        if (segments == null) {
+            segments = split(length);
+        }
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(part, "rw");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            //预分配文件长度，各段按偏移量并发写入
+            randomAccessFile.setLength(length);
+            progress.save(segments);
+            List<Segment> allSegments = segments;
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (Segment segment : segments) {
+                if (!segment.isCompleted()) {
+                    futures.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            downloadSegment(segment, validator, channel, progress, allSegments);
+                        } catch (IOException e) {
+                            throw new CompletionException(e);
+                        }
+                    }, executor));
+                }
+            }
+            IOException failure = null;
+            for (CompletableFuture<Void> future : futures) {
+                try {
+                    future.join();
+                } catch (CompletionException e) {
+                    if (failure == null) {
+                        Throwable cause = e.getCause();
+                        failure = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+                    }
+                }
+            }
+            if (failure != null) {
+                if (changed) {
+                    progress.delete();
+                } else {
+                    channel.force(false);
+                    saveProgress(progress, allSegments);
+                }
+                throw failure;
+            }
+            channel.force(false);
+        } finally {
+            if (changed) {
+                Files.deleteIfExists(part.toPath());
+            }
+        }
+        Files.move(part.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        progress.delete();
+        return length;
+    }
+
+    /**
+     * 下载一段，连接中断时从已写入的位置重新请求
+     */
+    private void downloadSegment(Segment segment, String validator, FileChannel channel, DownloadProgress progress,
+        List<Segment> segments) throws IOException {
+        for (int retry = 0; ; retry++) {
+            Request.Builder builder = request.newBuilder()
+                .header("Range", "bytes=" + segment.position() + "-" + segment.getEnd());
+            if (StringUtils.isNotEmpty(validator)) {
+                //资源变化时服务端返回完整响应，而不是部分响应
+                builder.header("If-Range", validator);
+            }
+            try (Response response = downloadCall.execute(builder.build())) {
+                if (response.code() != 206) {
+                    if (response.code() == 200) {
+                        changed = true;
+                        throw new IOException("resource changed during download, url: " + request.url());
+                    }
+                    throw new IOException("segment download failed, code: " + response.code() + ", segment: " + segment);
+                }
+                writeSegment(response, segment, channel, progress, segments);
+                return;
+            } catch (IOException e) {
+                if (changed || e instanceof InterruptedIOException && Thread.currentThread().isInterrupted()
+                    || retry >= SEGMENT_RETRIES) {
+                    throw e;
+                }
+                log.warn("segment download interrupted, retry from position {}, segment: {}", segment.position(),
+                    segment, e);
+            }
+        }
+    }
+
+    private void writeSegment(Response response, Segment segment, FileChannel channel, DownloadProgress progress,
+        List<Segment> segments) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null) {
+            throw new IOException("segment body is null, segment: " + segment);
+        }
+        BufferedSource source = body.source();
+        Buffer buffer = new Buffer();
+        DownloadSink sink = new DownloadSink(channel, segment.position());
+        long remaining = segment.length() - segment.getDownloaded();
+        long recorded = 0;
+        long unsaved = 0;
+        try {
+            while (remaining > 0) {
+                long read = source.read(buffer, Math.min(READ_SIZE, remaining));
+                if (read == -1) {
+                    throw new EOFException("unexpected end of segment, segment: " + segment);
+                }
+                remaining -= read;
+                sink.write(buffer, read);
+                //只记录已经写入文件的字节数
+                long written = sink.getBytesWritten();
+                segment.addDownloaded(written - recorded);
+                unsaved += written - recorded;
+                recorded = written;
+                if (unsaved >= PROGRESS_SAVE_BYTES) {
+                    channel.force(false);
+                    saveProgress(progress, segments);
+                    unsaved = 0;
+                }
+            }
+        } finally {
+            //连接中断时已经读取的数据仍然有效，写入文件后再记录
+            sink.close();
+            segment.addDownloaded(sink.getBytesWritten() - recorded);
+        }
+    }
+
+    /**
+     * 单连接下载，写入临时文件后替换为目标文件
+     */
+    private long downloadSingle(Response response) throws IOException {
+        try (Response closeable = response) {
+            if (!response.isSuccessful()) {
+                throw new IOException("download failed, code: " + response.code() + ", url: " + request.url());
+            }
+            ResponseBody body = response.body();
+            if (body == null) {
+                throw new IOException("downloaded resource body is null, url: " + request.url());
+            }
+            DownloadSink sink;
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(part, "rw");
+                 FileChannel channel = randomAccessFile.getChannel()) {
+                randomAccessFile.setLength(0);
+                sink = new DownloadSink(channel);
+                body.source().readAll(sink);
+                sink.close();
+                channel.force(false);
+            }
+            Files.move(part.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return sink.getBytesWritten();
+        }
+    }
+
+    /**
+     * 将资源按最大分段数和每段最小字节数分段
+     */
+    private List<Segment> split(long length) {
+        long count = Math.min(segmentCount, Math.max(1, (length + MIN_SEGMENT_SIZE - 1) / MIN_SEGMENT_SIZE));
+        long size = (length + count - 1) / count;
+        List<Segment> segments = new ArrayList<>();
+        for (long start = 0; start < length; start += size) {
+            segments.add(new Segment(start, Math.min(start + size, length) - 1, 0));
+        }
+        return segments;
+    }
+
+    private void saveProgress(DownloadProgress progress, List<Segment> segments) throws IOException {
+        progressLock.lock();
+        try {
+            progress.save(segments);
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    /**
+     * 从 Content-Range: bytes 0-0/12345 中解析资源长度，无法解析时返回-1
+     */
+    private static long parseLength(String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        int index = contentRange.lastIndexOf('/');
+        return index < 0 ? -1 : NumberUtils.toLong(contentRange.substring(index + 1).trim(), -1);
+    }
+
+    /**
+     * 资源的校验值，用于 If-Range 和判断进度文件是否失效，弱 ETag 不能用于 If-Range，此时使用 Last-Modified
+     */
+    private static String validator(Response response) {
+        String etag = response.header("ETag");
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        String lastModified = response.header("Last-Modified");
+        return lastModified == null ? "" : lastModified;
+    }
+
+}
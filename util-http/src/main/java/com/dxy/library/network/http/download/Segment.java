@@ -0,0 +1,52 @@
+package com.dxy.library.network.http.download;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 分段下载的一段，[start, end] 为闭区间，与 Range 请求头一致
+ * @author duanxinyuan
+ * 2026/10/19 11:00
+ */
+@Getter
+@ToString
+public class Segment {
+
+    private final long start;
+
+    private final long end;
+
+    /**
+     * 已经写入文件的字节数
+     */
+    private volatile long downloaded;
+
+    public Segment(long start, long end, long downloaded) {
+        this.start = start;
+        this.end = end;
+        this.downloaded = downloaded;
+    }
+
+    /**
+     * 段的总字节数
+     */
+    public long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * 下一个待写入的位置
+     */
+    public long position() {
+        return start + downloaded;
+    }
+
+    public boolean isCompleted() {
+        return downloaded >= length();
+    }
+
+    void addDownloaded(long byteCount) {
+        downloaded += byteCount;
+    }
+
+}
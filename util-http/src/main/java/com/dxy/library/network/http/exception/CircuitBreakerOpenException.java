@@ -0,0 +1,14 @@
+package com.dxy.library.network.http.exception;
+
+/**
+ * 熔断器打开时快速失败的异常，请求没有发出
+ * @author duanxinyuan
+ * 2026/10/18 18:20
+ */
+public class CircuitBreakerOpenException extends HttpException {
+
+    public CircuitBreakerOpenException(String host) {
+        super("circuit breaker is open, host: {}", host);
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.dxy.library.network.http.exception;
+
+/**
+ * 超时时间内没有获取到域名的并发名额的异常，请求没有发出
+ * @author duanxinyuan
+ * 2026/10/18 19:10
+ */
+public class ConcurrencyLimitExceededException extends HttpException {
+
+    public ConcurrencyLimitExceededException(String host, int limit) {
+        super("concurrency limit exceeded, host: {}, limit: {}", host, limit);
+    }
+
+}
@@ -2,23 +2,40 @@ package com.dxy.library.network.http.executor;
 
 import java.io.OutputStream;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import com.dxy.library.network.http.batch.BatchCall;
+import com.dxy.library.network.http.batch.BatchMode;
+import com.dxy.library.network.http.batch.BatchResult;
+import com.dxy.library.network.http.batch.RequestSpec;
+import com.dxy.library.network.http.cache.ResultCache;
 import com.dxy.library.network.http.callback.RequestCallback;
+import com.dxy.library.network.http.codec.HttpCodec;
+import com.dxy.library.network.http.compress.ContentEncoding;
+import com.dxy.library.network.http.compress.RequestCompressionInterceptor;
 import com.dxy.library.network.http.constant.Method;
+import com.dxy.library.network.http.download.RangedDownload;
 import com.dxy.library.network.http.header.Headers;
+import com.dxy.library.network.http.hedge.HedgePolicy;
 import com.dxy.library.network.http.interceptor.RetryInterceptor;
 import com.dxy.library.network.http.param.FileParam;
 import com.dxy.library.network.http.param.Params;
 import com.dxy.library.network.http.requester.AbstractRequester;
 import com.dxy.library.network.http.requester.OkHttpRequester;
+import com.dxy.library.network.http.retry.RetryPolicy;
 import com.dxy.library.network.http.serializer.HttpSerializer;
+import com.dxy.library.network.http.upload.ResumableUpload;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 import org.apache.commons.collections4.MapUtils;
+import org.reactivestreams.Publisher;
 
 /**
  * Http执行器
@@ -36,6 +53,38 @@ public class Executor {
 
     private final AbstractRequester requester;
 
+    /**
+     * Map<配置项, Executor>
+     * 在当前执行器基础上派生出的执行器，用于线程安全
+     */
+    private final Map<String, Executor> derivedExecutors = Maps.newConcurrentMap();
+
+    /**
+     * Map<配置项, Map<配置对象, Executor>>
+     * 以配置对象（线程池、重试策略、编解码器）派生出的执行器，按对象本身弱引用缓存，调用方不再持有时随之回收
+     */
+    private final Map<String, Map<Object, Executor>> instanceDerivedExecutors = Maps.newConcurrentMap();
+
+    /**
+     * 派生来源的执行器，非派生的执行器为null
+     */
+    private Executor base;
+
+    /**
+     * 派生时使用的配置项
+     */
+    private String derivedOption;
+
+    /**
+     * 派生时使用的配置对象，以配置项派生时为null
+     */
+    private Object derivedInstance;
+
+    /**
+     * 派生时对请求实例的配置
+     */
+    private Consumer<AbstractRequester> derivedConfigurer;
+
     public Executor(HttpSerializer httpSerializer, boolean requestLogEnable, long timeoutMillis, int retries, long retryIntervalMillis, boolean enableH2c) {
         requester = new OkHttpRequester(httpSerializer, requestLogEnable, timeoutMillis, retries, retryIntervalMillis, enableH2c);
     }
@@ -48,13 +97,13 @@ public class Executor {
      * 替换序列化实现
      */
     public void httpSerializer(HttpSerializer httpSerializer) {
-        this.requester.setHttpSerializer(httpSerializer);
+        setDerivedHttpSerializer(httpSerializer);
         if (MapUtils.isNotEmpty(EXECUTOR_MAP)) {
             EXECUTOR_MAP.forEach((requestLogEnable, timeoutMap) -> {
                 if (MapUtils.isNotEmpty(timeoutMap)) {
                     timeoutMap.forEach((timeout, retriesMap) -> {
                         if (MapUtils.isNotEmpty(retriesMap)) {
-                            retriesMap.forEach((retries, executor) -> executor.getRequester().setHttpSerializer(httpSerializer));
+                            retriesMap.forEach((retries, executor) -> executor.setDerivedHttpSerializer(httpSerializer));
                         }
                     });
                 }
@@ -62,12 +111,76 @@ public class Executor {
         }
     }
 
+    /**
+     * 替换当前执行器及其派生执行器的序列化实现
+     */
+    private void setDerivedHttpSerializer(HttpSerializer httpSerializer) {
+        this.requester.setHttpSerializer(httpSerializer);
+        derivedExecutors.forEach((option, executor) -> executor.setDerivedHttpSerializer(httpSerializer));
+        instanceDerivedExecutors.forEach((option, executors) -> executors.forEach(
+            (instance, executor) -> executor.setDerivedHttpSerializer(httpSerializer)));
+    }
+
+    /**
+     * 在当前执行器的基础上派生新的执行器，相同配置项的派生执行器会被复用
+     * @param option 配置项，作为派生执行器的缓存键
+     * @param configurer 对派生执行器请求实例的配置
+     */
+    private Executor derive(String option, Consumer<AbstractRequester> configurer) {
+        return derivedExecutors.computeIfAbsent(option, o -> newDerived(option, null, configurer));
+    }
+
+    /**
+     * 以配置对象在当前执行器的基础上派生新的执行器，同一个配置对象（按引用比较）的派生执行器会被复用
+     * 键和值都是弱引用，不同的配置对象不会互相覆盖，也不会在缓存中无限累积
+     * @param option 配置项
+     * @param instance 配置对象，作为派生执行器的缓存键
+     * @param configurer 对派生执行器请求实例的配置
+     */
+    private Executor derive(String option, Object instance, Consumer<AbstractRequester> configurer) {
+        Map<Object, Executor> executors = instanceDerivedExecutors.computeIfAbsent(option,
+            o -> new MapMaker().weakKeys().weakValues().makeMap());
+        return executors.computeIfAbsent(instance, i -> newDerived(option, instance, configurer));
+    }
+
+    private Executor newDerived(String option, Object instance, Consumer<AbstractRequester> configurer) {
+        Executor executor = new Executor(requester.getHttpSerializer(), requester.isRequestLogEnable(), requester.getTimeoutMillis(), requester.getRetries(), requester.getRetryIntervalMillis(), requester.isEnableH2c());
+        executor.base = this;
+        executor.derivedOption = option;
+        executor.derivedInstance = instance;
+        executor.derivedConfigurer = configurer;
+        executor.configureDerived(executor.requester);
+        return executor;
+    }
+
+    /**
+     * 按派生链依次应用派生配置
+     */
+    private void configureDerived(AbstractRequester target) {
+        if (base != null) {
+            base.configureDerived(target);
+            derivedConfigurer.accept(target);
+        }
+    }
+
+    /**
+     * 将派生链上的配置重新应用到新的执行器上，保证修改超时、重试等配置后不丢失派生配置
+     */
+    private Executor rebase(Executor executor) {
+        if (base == null) {
+            return executor;
+        }
+        Executor rebased = base.rebase(executor);
+        return derivedInstance == null ? rebased.derive(derivedOption, derivedConfigurer)
+            : rebased.derive(derivedOption, derivedInstance, derivedConfigurer);
+    }
+
     /**
      * 设置请求日志开关
      * @param requestLogEnable true表示开启请求日志
      */
     public Executor requestLogEnable(boolean requestLogEnable) {
-        return getExecutor(requester.getHttpSerializer(), requestLogEnable, requester.getTimeoutMillis(), requester.getRetries(), requester.isEnableH2c());
+        return rebase(getExecutor(requester.getHttpSerializer(), requestLogEnable, requester.getTimeoutMillis(), requester.getRetries(), requester.isEnableH2c()));
     }
 
     /**
@@ -88,35 +201,189 @@ public class Executor {
      * 设置超时时间，单位为秒
      */
     public Executor timeout(int timeout) {
-        return getExecutor(requester.getHttpSerializer(), requester.isRequestLogEnable(), TimeUnit.SECONDS.toMillis(timeout), requester.getRetries(), requester.isEnableH2c());
+        return rebase(getExecutor(requester.getHttpSerializer(), requester.isRequestLogEnable(), TimeUnit.SECONDS.toMillis(timeout), requester.getRetries(), requester.isEnableH2c()));
     }
 
     /**
      * 设置超时时间
      */
     public Executor timeout(long timeout, TimeUnit timeUnit) {
-        return getExecutor(requester.getHttpSerializer(), requester.isRequestLogEnable(), timeUnit.toMillis(timeout), requester.getRetries(), requester.isEnableH2c());
+        return rebase(getExecutor(requester.getHttpSerializer(), requester.isRequestLogEnable(), timeUnit.toMillis(timeout), requester.getRetries(), requester.isEnableH2c()));
     }
 
     /**
      * 设置超时时间，单位为毫秒
      */
     public Executor timeoutMillis(long timeoutMillis) {
-        return getExecutor(requester.getHttpSerializer(), requester.isRequestLogEnable(), timeoutMillis, requester.getRetries(), requester.isEnableH2c());
+        return rebase(getExecutor(requester.getHttpSerializer(), requester.isRequestLogEnable(), timeoutMillis, requester.getRetries(), requester.isEnableH2c()));
     }
 
     /**
      * 设置重试次数，默认不重试
      */
     public Executor retries(int retries) {
-        return getExecutor(requester.getHttpSerializer(), requester.isRequestLogEnable(), requester.getTimeoutMillis(), retries, requester.isEnableH2c());
+        return rebase(getExecutor(requester.getHttpSerializer(), requester.isRequestLogEnable(), requester.getTimeoutMillis(), retries, requester.isEnableH2c()));
     }
 
     /**
      * 设置重试次数，默认不重试
      */
     public Executor retries(int retries, long retryIntervalMillis) {
-        return getExecutor(requester.getHttpSerializer(), requester.isRequestLogEnable(), requester.getTimeoutMillis(), retries, retryIntervalMillis, requester.isEnableH2c());
+        return rebase(getExecutor(requester.getHttpSerializer(), requester.isRequestLogEnable(), requester.getTimeoutMillis(), retries, retryIntervalMillis, requester.isEnableH2c()));
+    }
+
+    /**
+     * 设置重试策略，如指数退避、重试的状态码和异常类型，设置后忽略重试次数和重试间隔
+     * 同一个重试策略实例复用同一个派生执行器，建议保存返回的执行器
+     * @see com.dxy.library.network.http.retry.DefaultRetryPolicy
+     */
+    public Executor retryPolicy(RetryPolicy retryPolicy) {
+        return derive("retryPolicy", retryPolicy, r -> r.setRetryPolicy(retryPolicy));
+    }
+
+    /**
+     * 开启对冲请求，只对 GET、HEAD 请求生效
+     * 请求在延迟时间内没有响应时发起相同的请求，以最先成功的响应为准并取消其他请求，对冲请求数受对冲预算限制
+     * @param delayMillis 对冲延迟毫秒数
+     * @param maxAttempts 最大请求次数，包含第一次请求
+     */
+    public Executor hedge(long delayMillis, int maxAttempts) {
+        return derive("hedge=" + delayMillis + "," + maxAttempts, r -> r.setHedgePolicy(new HedgePolicy(delayMillis, maxAttempts)));
+    }
+
+    /**
+     * 开启对冲请求，按域名最近请求耗时的分位数计算对冲延迟，只对 GET、HEAD 请求生效
+     * @param percentile 耗时分位数，取值0到1，如0.95
+     * @param maxAttempts 最大请求次数，包含第一次请求
+     */
+    public Executor hedgeAtPercentile(double percentile, int maxAttempts) {
+        return derive("hedgeAtPercentile=" + percentile + "," + maxAttempts,
+            r -> r.setHedgePolicy(new HedgePolicy(HedgePolicy.DELAY_MILLIS_DEFAULT, maxAttempts, percentile)));
+    }
+
+    /**
+     * 设置是否开启按域名的熔断，失败率或慢请求率达到阈值后熔断器打开，请求以 CircuitBreakerOpenException 快速失败
+     * @see com.dxy.library.network.http.breaker.CircuitBreaker
+     */
+    public Executor circuitBreakerEnable(boolean circuitBreakerEnable) {
+        return derive("circuitBreakerEnable=" + circuitBreakerEnable, r -> r.setCircuitBreakerEnable(circuitBreakerEnable));
+    }
+
+    /**
+     * 设置是否开启按域名的自适应并发限制，每次请求（包括重试和对冲请求）各自获取并发名额，同步请求等待名额的时间计入超时时间
+     * @see com.dxy.library.network.http.limit.AdaptiveLimiter
+     */
+    public Executor limitEnable(boolean limitEnable) {
+        return derive("limitEnable=" + limitEnable, r -> r.setLimitEnable(limitEnable));
+    }
+
+    /**
+     * 设置是否开启响应缓存，只缓存 GET 请求，遵循 Cache-Control，过期后使用 ETag、Last-Modified 重新验证
+     * @see com.dxy.library.network.http.cache.HttpCache
+     */
+    public Executor cacheEnable(boolean cacheEnable) {
+        return derive("cacheEnable=" + cacheEnable, r -> r.setCacheEnable(cacheEnable));
+    }
+
+    /**
+     * 允许使用过期不超过指定时间的缓存响应，即请求头 Cache-Control: max-stale，响应声明 must-revalidate 时无效
+     */
+    public Executor maxStale(long maxStale, TimeUnit timeUnit) {
+        return derive("maxStale=" + timeUnit.toSeconds(maxStale), r -> r.setCacheMaxStaleSeconds(timeUnit.toSeconds(maxStale)));
+    }
+
+    /**
+     * 缓存反序列化后的结果，只缓存没有请求体的 GET 同步请求，键为请求方式、地址、规范化后的参数、请求头和反序列化类型
+     * 用于服务端不允许 Http 缓存、但可以容忍短时间过期的数据，同一个派生执行器共享一个结果缓存
+     * @param ttl 结果的过期时间，超过 ttl * http.resultCache.refreshAheadRatio 后访问时在后台刷新
+     * @see com.dxy.library.network.http.cache.ResultCache
+     */
+    public Executor resultCache(long ttl, TimeUnit timeUnit) {
+        return derive("resultCache=" + timeUnit.toMillis(ttl), r -> r.setResultCache(new ResultCache(timeUnit.toMillis(ttl))));
+    }
+
+    /**
+     * 设置是否合并相同的并发请求，请求方式、地址和请求头都相同的同步请求同时只发起一次，共享同一个响应体，各自反序列化
+     * 只合并没有请求体的 GET、HEAD、OPTIONS 请求
+     * @see com.dxy.library.network.http.singleflight.SingleFlight
+     */
+    public Executor singleFlightEnable(boolean singleFlightEnable) {
+        return derive("singleFlightEnable=" + singleFlightEnable, r -> r.setSingleFlightEnable(singleFlightEnable));
+    }
+
+    /**
+     * 使用指定的编解码器编码请求体，并以编解码器的类型作为 Accept，如 Smile、CBOR、Protobuf
+     * 响应的 Content-Type 与编解码器一致时使用该编解码器解码，否则按 Content-Type 选择已注册的编解码器
+     * 同一个编解码器实例复用同一个派生执行器
+     */
+    public Executor codec(HttpCodec httpCodec) {
+        return derive("codec", httpCodec, r -> r.setHttpCodec(httpCodec));
+    }
+
+    /**
+     * 设置请求日志采样率，取值0到1，失败的请求和慢请求不参与采样
+     */
+    public Executor logSampleRate(double logSampleRate) {
+        return derive("logSampleRate=" + logSampleRate, r -> r.setLogSampleRate(logSampleRate));
+    }
+
+    /**
+     * 设置请求日志中请求体和响应体按 UTF-8 编码的最大字节数，超出部分截断，小于等于0表示不截断
+     */
+    public Executor logMaxBodyLength(int logMaxBodyLength) {
+        return derive("logMaxBodyLength=" + logMaxBodyLength, r -> r.setLogMaxBodyLength(logMaxBodyLength));
+    }
+
+    /**
+     * 设置慢请求阈值，单位为毫秒，超过阈值的请求始终以 WARN 级别记录日志，不受请求日志开关和采样率影响
+     */
+    public Executor slowRequestMillis(long slowRequestMillis) {
+        return derive("slowRequestMillis=" + slowRequestMillis, r -> r.setSlowRequestMillis(slowRequestMillis));
+    }
+
+    /**
+     * 开启流式响应，以 InputStream、Reader 接收响应时直接返回基于连接的流，不再缓存整个响应体
+     * 返回的流必须由调用方关闭，关闭时释放连接，每次读取都受超时时间限制
+     */
+    public Executor streaming() {
+        return derive("streaming", r -> r.setStreamResponse(true));
+    }
+
+    /**
+     * 设置 CompletableFuture 异步请求完成时反序列化和回调所在的线程池，线程池拒绝任务时 Future 以 HttpException 异常结束
+     * 同一个线程池复用同一个派生执行器，调用方应持有返回的执行器，避免重复派生
+     */
+    public Executor completeOn(java.util.concurrent.Executor completionExecutor) {
+        return derive("completeOn", completionExecutor, r -> r.setCompletionExecutor(completionExecutor));
+    }
+
+    /**
+     * 使用虚拟线程执行 CompletableFuture 异步请求，每个请求在一个虚拟线程中以同步方式发起，阻塞等待时不占用平台线程
+     * 运行在 JDK 21 以下时不生效，仍使用 OkHttp 的调度线程
+     * @see com.dxy.library.network.http.virtual.VirtualThreads
+     */
+    public Executor virtual() {
+        return derive("virtual", r -> r.setVirtualThreads(true));
+    }
+
+    /**
+     * 压缩文本类型（JSON、XML、表单、text/*）的请求体并设置 Content-Encoding，发送时边序列化边压缩
+     * 长度小于 http.compress.minSize 的请求体不压缩，zstd 需要引入 com.github.luben:zstd-jni
+     * @see com.dxy.library.network.http.compress.RequestCompressionInterceptor
+     */
+    public Executor compress(ContentEncoding encoding) {
+        return compress(encoding, RequestCompressionInterceptor.MIN_SIZE_DEFAULT);
+    }
+
+    /**
+     * 压缩文本类型的请求体并设置 Content-Encoding，长度小于 minSize 的请求体不压缩
+     */
+    public Executor compress(ContentEncoding encoding, long minSize) {
+        encoding.check();
+        return derive("compress=" + encoding.getValue() + "," + minSize, r -> {
+            r.setCompressMinSize(minSize);
+            r.setRequestCompression(encoding);
+        });
     }
 
     public static Executor getExecutor(HttpSerializer httpSerializer, boolean requestLogEnable, long timeoutMillis, int retries) {
@@ -920,6 +1187,138 @@ public class Executor {
         requester.enqueue(Method.DELETE, url, headers, params, null, null, callback);
     }
 
+    /******** CompletableFuture *********/
+
+    public <V> CompletableFuture<V> getFuture(String url, Class<V> type) {
+        return getFuture(url, null, null, type);
+    }
+
+    public <V> CompletableFuture<V> getFuture(String url, TypeReference<V> typeReference) {
+        return getFuture(url, null, null, typeReference);
+    }
+
+    public <V> CompletableFuture<V> getFuture(String url, Headers headers, Class<V> type) {
+        return getFuture(url, headers, null, type);
+    }
+
+    public <V> CompletableFuture<V> getFuture(String url, Params params, Class<V> type) {
+        return getFuture(url, null, params, type);
+    }
+
+    public <V> CompletableFuture<V> getFuture(String url, Params params, TypeReference<V> typeReference) {
+        return getFuture(url, null, params, typeReference);
+    }
+
+    public <V> CompletableFuture<V> getFuture(String url, Headers headers, Params params, Class<V> type) {
+        return requester.executeFuture(Method.GET, url, headers, params, null, null, type);
+    }
+
+    public <V> CompletableFuture<V> getFuture(String url, Headers headers, Params params, TypeReference<V> typeReference) {
+        return requester.executeFuture(Method.GET, url, headers, params, null, null, typeReference.getType());
+    }
+
+    public <V> CompletableFuture<V> getFuture(String url, Headers headers, Params params, Type type) {
+        return requester.executeFuture(Method.GET, url, headers, params, null, null, type);
+    }
+
+    public <V> CompletableFuture<V> postFuture(String url, Params params, Class<V> type) {
+        return postFuture(url, null, params, type);
+    }
+
+    public <V> CompletableFuture<V> postFuture(String url, Headers headers, Params params, Class<V> type) {
+        return requester.executeFuture(Method.POST, url, headers, params, null, null, type);
+    }
+
+    public <V> CompletableFuture<V> postFuture(String url, Headers headers, Params params, TypeReference<V> typeReference) {
+        return requester.executeFuture(Method.POST, url, headers, params, null, null, typeReference.getType());
+    }
+
+    public <V, T> CompletableFuture<V> postJsonFuture(String url, T body, Class<V> type) {
+        return postJsonFuture(url, null, null, body, type);
+    }
+
+    public <V, T> CompletableFuture<V> postJsonFuture(String url, T body, TypeReference<V> typeReference) {
+        return postJsonFuture(url, null, null, body, typeReference);
+    }
+
+    public <V, T> CompletableFuture<V> postJsonFuture(String url, Headers headers, T body, Class<V> type) {
+        return postJsonFuture(url, headers, null, body, type);
+    }
+
+    public <V, T> CompletableFuture<V> postJsonFuture(String url, Headers headers, Params params, T body, Class<V> type) {
+        return requester.executeFuture(Method.POST, url, headers, params, body, null, type);
+    }
+
+    public <V, T> CompletableFuture<V> postJsonFuture(String url, Headers headers, Params params, T body, TypeReference<V> typeReference) {
+        return requester.executeFuture(Method.POST, url, headers, params, body, null, typeReference.getType());
+    }
+
+    public <V, T> CompletableFuture<V> postJsonFuture(String url, Headers headers, Params params, T body, Type type) {
+        return requester.executeFuture(Method.POST, url, headers, params, body, null, type);
+    }
+
+    public <V, T> CompletableFuture<V> putJsonFuture(String url, T body, Class<V> type) {
+        return putJsonFuture(url, null, null, body, type);
+    }
+
+    public <V, T> CompletableFuture<V> putJsonFuture(String url, Headers headers, Params params, T body, Class<V> type) {
+        return requester.executeFuture(Method.PUT, url, headers, params, body, null, type);
+    }
+
+    public <V, T> CompletableFuture<V> putJsonFuture(String url, Headers headers, Params params, T body, TypeReference<V> typeReference) {
+        return requester.executeFuture(Method.PUT, url, headers, params, body, null, typeReference.getType());
+    }
+
+    public <V> CompletableFuture<V> deleteFuture(String url, Class<V> type) {
+        return deleteFuture(url, null, null, type);
+    }
+
+    public <V> CompletableFuture<V> deleteFuture(String url, Headers headers, Params params, Class<V> type) {
+        return requester.executeFuture(Method.DELETE, url, headers, params, null, null, type);
+    }
+
+    public <V> CompletableFuture<V> deleteFuture(String url, Headers headers, Params params, TypeReference<V> typeReference) {
+        return requester.executeFuture(Method.DELETE, url, headers, params, null, null, typeReference.getType());
+    }
+
+    /******** Reactive Streams *********/
+
+    public <V> Publisher<V> getPublisher(String url, Class<V> type) {
+        return getPublisher(url, null, null, type);
+    }
+
+    public <V> Publisher<V> getPublisher(String url, TypeReference<V> typeReference) {
+        return getPublisher(url, null, null, typeReference);
+    }
+
+    public <V> Publisher<V> getPublisher(String url, Headers headers, Params params, Class<V> type) {
+        return requester.executePublisher(Method.GET, url, headers, params, null, null, type);
+    }
+
+    public <V> Publisher<V> getPublisher(String url, Headers headers, Params params, TypeReference<V> typeReference) {
+        return requester.executePublisher(Method.GET, url, headers, params, null, null, typeReference.getType());
+    }
+
+    public <V, T> Publisher<V> postJsonPublisher(String url, T body, Class<V> type) {
+        return postJsonPublisher(url, null, null, body, type);
+    }
+
+    public <V, T> Publisher<V> postJsonPublisher(String url, Headers headers, Params params, T body, Class<V> type) {
+        return requester.executePublisher(Method.POST, url, headers, params, body, null, type);
+    }
+
+    public <V, T> Publisher<V> postJsonPublisher(String url, Headers headers, Params params, T body, TypeReference<V> typeReference) {
+        return requester.executePublisher(Method.POST, url, headers, params, body, null, typeReference.getType());
+    }
+
+    public Publisher<ByteBuffer> getBodyPublisher(String url) {
+        return getBodyPublisher(url, null, null);
+    }
+
+    public Publisher<ByteBuffer> getBodyPublisher(String url, Headers headers, Params params) {
+        return requester.executeBodyPublisher(Method.GET, url, headers, params, null, null);
+    }
+
     /******** download *********/
 
     public void download(String url, String targetPath) {
@@ -986,6 +1385,34 @@ public class Executor {
         requester.download(url, headers, params, outputStream, true);
     }
 
+    public void downloadRanged(String url, String targetPath) {
+        downloadRanged(url, null, null, targetPath, RangedDownload.SEGMENTS_DEFAULT);
+    }
+
+    public void downloadRanged(String url, String targetPath, int segments) {
+        downloadRanged(url, null, null, targetPath, segments);
+    }
+
+    public void downloadRanged(String url, Headers headers, Params params, String targetPath, int segments) {
+        requester.downloadRanged(url, headers, params, targetPath, segments);
+    }
+
+    /******** 断点续传上传 *********/
+
+    public String uploadResumable(String url, FileParam fileParam) {
+        return uploadResumable(url, null, null, fileParam, ResumableUpload.CHUNK_SIZE_DEFAULT,
+            ResumableUpload.PARALLELISM_DEFAULT);
+    }
+
+    public String uploadResumable(String url, FileParam fileParam, long chunkSize, int parallelism) {
+        return uploadResumable(url, null, null, fileParam, chunkSize, parallelism);
+    }
+
+    public String uploadResumable(String url, Headers headers, Params params, FileParam fileParam, long chunkSize,
+        int parallelism) {
+        return requester.uploadResumable(url, headers, params, fileParam, chunkSize, parallelism);
+    }
+
     /******** 同步请求总方法 *********/
 
     public <V, T> V execute(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams, Class<V> type) {
@@ -1006,4 +1433,64 @@ public class Executor {
         requester.enqueue(method, url, headers, params, body, fileParams, callback);
     }
 
+    /******** CompletableFuture 异步请求总方法 *********/
+
+    public <V, T> CompletableFuture<V> executeFuture(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams, Class<V> type) {
+        return requester.executeFuture(method, url, headers, params, body, fileParams, type);
+    }
+
+    public <V, T> CompletableFuture<V> executeFuture(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams, TypeReference<V> typeReference) {
+        return requester.executeFuture(method, url, headers, params, body, fileParams, typeReference.getType());
+    }
+
+    public <V, T> CompletableFuture<V> executeFuture(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams, Type type) {
+        return requester.executeFuture(method, url, headers, params, body, fileParams, type);
+    }
+
+    /******** Reactive Streams 总方法 *********/
+
+    public <V, T> Publisher<V> executePublisher(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams, Class<V> type) {
+        return requester.executePublisher(method, url, headers, params, body, fileParams, type);
+    }
+
+    public <V, T> Publisher<V> executePublisher(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams, TypeReference<V> typeReference) {
+        return requester.executePublisher(method, url, headers, params, body, fileParams, typeReference.getType());
+    }
+
+    public <V, T> Publisher<V> executePublisher(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams, Type type) {
+        return requester.executePublisher(method, url, headers, params, body, fileParams, type);
+    }
+
+    public <T> Publisher<ByteBuffer> executeBodyPublisher(Method method, String url, Headers headers, Params params, T body, List<FileParam> fileParams) {
+        return requester.executeBodyPublisher(method, url, headers, params, body, fileParams);
+    }
+
+    /******** 批量请求总方法 *********/
+
+    /**
+     * 并发执行批量请求，按请求顺序返回结果，失败的请求在结果中记录异常
+     * @param parallelism 最大并发请求数，单个域名的并发请求数不超过 http.batch.maxRequestsPerHost
+     */
+    public <V> List<BatchResult<V>> executeAll(List<RequestSpec> requestSpecs, int parallelism) {
+        return executeAll(requestSpecs, parallelism, BatchMode.COLLECT_ERRORS);
+    }
+
+    /**
+     * 并发执行批量请求，按请求顺序返回结果
+     * @param parallelism 最大并发请求数，单个域名的并发请求数不超过 http.batch.maxRequestsPerHost
+     * @param batchMode 失败处理方式，FAIL_FAST 模式下任一请求失败时取消其他请求并抛出异常
+     */
+    public <V> List<BatchResult<V>> executeAll(List<RequestSpec> requestSpecs, int parallelism, BatchMode batchMode) {
+        return new BatchCall<V>(requester, requestSpecs, parallelism, batchMode, Integer.MAX_VALUE).start().toList();
+    }
+
+    /**
+     * 并发执行批量请求，按请求顺序迭代结果，最多提前执行 2 * parallelism 个请求，读取结果较慢时暂停发起请求
+     * @param parallelism 最大并发请求数，单个域名的并发请求数不超过 http.batch.maxRequestsPerHost
+     * @param batchMode 失败处理方式，FAIL_FAST 模式下任一请求失败时取消其他请求，迭代到失败的请求时抛出异常
+     */
+    public <V> BatchCall<V> iterateAll(List<RequestSpec> requestSpecs, int parallelism, BatchMode batchMode) {
+        return new BatchCall<V>(requester, requestSpecs, parallelism, batchMode, 2 * parallelism).start();
+    }
+
 }
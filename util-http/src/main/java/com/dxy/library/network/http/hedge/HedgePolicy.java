@@ -0,0 +1,94 @@
+package com.dxy.library.network.http.hedge;
+
+import java.util.Map;
+
+import com.dxy.library.network.http.retry.RetryBudget;
+import com.dxy.library.util.common.NumberUtils;
+import com.dxy.library.util.config.ConfigUtils;
+import com.google.common.collect.Maps;
+import lombok.Getter;
+import okhttp3.Request;
+
+/**
+ * 对冲请求策略
+ * 请求在延迟时间内没有响应时，发起相同的请求，以最先成功的响应为准，并取消其他请求
+ * @author duanxinyuan
+ * 2026/10/18 17:30
+ */
+@Getter
+public class HedgePolicy {
+
+    /**
+     * 按耗时分位数对冲时，样本不足前使用的对冲延迟毫秒数，默认为100
+     */
+    public static final long DELAY_MILLIS_DEFAULT = ConfigUtils.getAsLong("http.hedge.delayMillis", 100L);
+
+    /**
+     * 对冲预算，对冲请求数占成功请求数的比例，按域名统计，默认为0.05
+     */
+    public static final double BUDGET_RATIO_DEFAULT = NumberUtils.toDouble(ConfigUtils.getAsString("http.hedge.budgetRatio", "0.05"), 0.05D);
+
+    /**
+     * 对冲预算的最大对冲次数，默认为10
+     */
+    public static final int BUDGET_MAX_TOKENS_DEFAULT = ConfigUtils.getAsInt("http.hedge.budgetMaxTokens", 10);
+
+    /**
+     * Map<域名, 对冲预算>
+     */
+    private static final Map<String, RetryBudget> HOST_BUDGET_MAP = Maps.newConcurrentMap();
+
+    /**
+     * 对冲延迟毫秒数
+     */
+    private final long delayMillis;
+
+    /**
+     * 最大请求次数，包含第一次请求
+     */
+    private final int maxAttempts;
+
+    /**
+     * 按最近耗时的分位数计算对冲延迟，取值0到1，小于等于0时使用固定的对冲延迟
+     */
+    private final double percentile;
+
+    public HedgePolicy(long delayMillis, int maxAttempts) {
+        this(delayMillis, maxAttempts, 0);
+    }
+
+    public HedgePolicy(long delayMillis, int maxAttempts, double percentile) {
+        this.delayMillis = delayMillis;
+        this.maxAttempts = maxAttempts;
+        this.percentile = percentile;
+    }
+
+    /**
+     * 计算对冲延迟毫秒数
+     */
+    public long delayMillis(Request request) {
+        if (percentile > 0) {
+            long latency = latencyTracker(request).percentile(percentile);
+            if (latency >= 0) {
+                return Math.max(1, latency);
+            }
+        }
+        return delayMillis;
+    }
+
+    /**
+     * 域名共享的对冲预算
+     */
+    public RetryBudget hedgeBudget(Request request) {
+        return HOST_BUDGET_MAP.computeIfAbsent(request.url().host(),
+            h -> new RetryBudget(BUDGET_RATIO_DEFAULT, 0, BUDGET_MAX_TOKENS_DEFAULT));
+    }
+
+    /**
+     * 域名共享的耗时统计
+     */
+    public LatencyTracker latencyTracker(Request request) {
+        return LatencyTracker.forHost(request.url().host());
+    }
+
+}
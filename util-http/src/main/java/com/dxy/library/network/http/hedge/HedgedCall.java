@@ -0,0 +1,321 @@
+package com.dxy.library.network.http.hedge;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.dxy.library.network.http.limit.AdaptiveLimiter;
+import com.dxy.library.network.http.retry.DefaultRetryPolicy;
+import com.dxy.library.network.http.retry.RetryBudget;
+import com.dxy.library.util.common.ExecutorUtils;
+import com.dxy.library.util.config.ConfigUtils;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * 对冲请求
+ * 请求开始执行后在对冲延迟内没有响应时发起相同的请求，某次请求失败或返回可重试的状态码时立即发起下一次请求，
+ * 以最先成功的响应或不可重试的响应回调，并取消其他请求；全部请求失败时以最后一次失败回调
+ * 对冲延迟从请求真正开始执行时计算，在调度器中排队的时间不计入，避免调度器饱和时发起更多的请求
+ * @author duanxinyuan
+ * 2026/10/18 17:30
+ */
+@SuppressWarnings("NullableProblems")
+public class HedgedCall implements Callback {
+
+    /**
+     * 对冲请求调度的线程数，默认为1，调度线程只负责发起请求，不会阻塞
+     */
+    private static final int HEDGE_SCHEDULER_THREADS = ConfigUtils.getAsInt("http.hedge.schedulerThreads", 1);
+
+    /**
+     * 同步对冲请求的最大线程数，默认为64，线程不足时不再发起对冲请求
+     */
+    private static final int HEDGE_SYNC_THREADS = ConfigUtils.getAsInt("http.hedge.syncThreads", 64);
+
+    /**
+     * 对冲请求调度的定时线程池
+     */
+    private static final ScheduledExecutorService HEDGE_SCHEDULER = ExecutorUtils.getScheduledExecutorService(
+        "http-hedge", HEDGE_SCHEDULER_THREADS);
+
+    /**
+     * 同步对冲请求的线程池，第一次请求在调用线程中执行，对冲请求在此执行，不经过异步调度器的并发限制
+     */
+    private static final ExecutorService HEDGE_SYNC_EXECUTOR = ExecutorUtils.getExecutorService("http-hedge-sync", 0,
+        HEDGE_SYNC_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), new ThreadPoolExecutor.AbortPolicy());
+
+    /**
+     * 记录对冲请求开始执行的拦截器，需要添加到发起对冲请求的 OkHttpClient 中
+     */
+    public static final Interceptor START_INTERCEPTOR = chain -> {
+        HedgedCall hedgedCall = chain.request().tag(HedgedCall.class);
+        if (hedgedCall != null) {
+            hedgedCall.onStart(chain.call());
+        }
+        return chain.proceed(chain.request());
+    };
+
+    private final OkHttpClient httpClient;
+
+    private final Request request;
+
+    private final HedgePolicy hedgePolicy;
+
+    private final RetryBudget hedgeBudget;
+
+    private final Callback callback;
+
+    /**
+     * 是否以同步方式执行各次请求
+     */
+    private final boolean sync;
+
+    /**
+     * 自适应并发限制，为null时不限制，每次异步请求（包括对冲请求）各自获取并发名额
+     * 同步请求由 httpClient 中的 AdaptiveLimitInterceptor 获取名额
+     */
+    private final AdaptiveLimiter limiter;
+
+    /**
+     * Map<已发起的请求, 开始执行的时间>，尚未开始执行时为null
+     */
+    private final Map<Call, Long> calls = new IdentityHashMap<>();
+
+    /**
+     * 第一次请求开始执行的时间，尚未开始执行时为0
+     */
+    private long primaryStartTime;
+
+    private int finished;
+
+    private boolean done;
+
+    private boolean canceled;
+
+    private ScheduledFuture<?> nextHedge;
+
+    public HedgedCall(OkHttpClient httpClient, Request request, HedgePolicy hedgePolicy, Callback callback) {
+        this(httpClient, request, hedgePolicy, callback, false);
+    }
+
+    /**
+     * @param sync 是否以同步方式执行各次请求，为true时通过 execute() 发起
+     */
+    public HedgedCall(OkHttpClient httpClient, Request request, HedgePolicy hedgePolicy, Callback callback,
+        boolean sync) {
+        this(httpClient, request, hedgePolicy, callback, sync, null);
+    }
+
+    /**
+     * @param sync 是否以同步方式执行各次请求，为true时通过 execute() 发起
+     * @param limiter 异步请求的自适应并发限制，为null时不限制
+     */
+    public HedgedCall(OkHttpClient httpClient, Request request, HedgePolicy hedgePolicy, Callback callback,
+        boolean sync, AdaptiveLimiter limiter) {
+        this.httpClient = httpClient;
+        this.request = request.newBuilder().tag(HedgedCall.class, this).build();
+        this.hedgePolicy = hedgePolicy;
+        this.hedgeBudget = hedgePolicy.hedgeBudget(request);
+        this.callback = callback;
+        this.sync = sync;
+        this.limiter = limiter;
+    }
+
+    /**
+     * 发起异步请求
+     */
+    public synchronized HedgedCall enqueue() {
+        fire();
+        return this;
+    }
+
+    /**
+     * 在调用线程中同步执行第一次请求，对冲请求在对冲线程池中执行，第一次请求结束（包括被更快的响应取消）后返回
+     * 结果通过回调通知，调用方需要等待回调
+     */
+    public HedgedCall execute() {
+        Call call;
+        synchronized (this) {
+            call = newCall();
+        }
+        executeCall(call);
+        return this;
+    }
+
+    /**
+     * 取消所有请求，包括等待中的对冲请求
+     */
+    public synchronized void cancel() {
+        canceled = true;
+        cancelNextHedge();
+        calls.keySet().forEach(Call::cancel);
+    }
+
+    @Override
+    public void onFailure(Call call, IOException e) {
+        synchronized (this) {
+            finished++;
+            if (done || !isLastAttempt()) {
+                return;
+            }
+            done = true;
+        }
+        callback.onFailure(call, e);
+    }
+
+    @Override
+    public void onResponse(Call call, Response response) throws IOException {
+        synchronized (this) {
+            finished++;
+            if (done) {
+                response.close();
+                return;
+            }
+            if (response.isSuccessful()) {
+                done = true;
+                cancelOthers(call);
+                hedgeBudget.onSuccess();
+                //按第一次请求的开始时间记录耗时，对冲请求先返回时也不只记录对冲请求自身的耗时，避免对冲延迟越来越短
+                if (primaryStartTime != 0) {
+                    hedgePolicy.latencyTracker(request).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - primaryStartTime));
+                }
+            } else if (!isRetryable(response.code())) {
+                //不可重试的状态码（如404、400）再次请求也不会成功，直接结束
+                done = true;
+                cancelOthers(call);
+            } else if (!isLastAttempt()) {
+                response.close();
+                return;
+            } else {
+                done = true;
+            }
+        }
+        callback.onResponse(call, response);
+    }
+
+    /**
+     * 请求开始执行，安排下一次对冲请求
+     */
+    private synchronized void onStart(Call call) {
+        if (!calls.containsKey(call) || calls.get(call) != null) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        calls.put(call, startTime);
+        if (primaryStartTime == 0) {
+            primaryStartTime = startTime;
+        }
+        if (!done && !canceled && nextHedge == null && calls.size() < hedgePolicy.getMaxAttempts()) {
+            nextHedge = HEDGE_SCHEDULER.schedule(this::hedge, hedgePolicy.delayMillis(request), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 发起一次请求，开始执行后再安排下一次对冲请求
+     * @return 是否发起成功，同步对冲线程不足时返回false
+     */
+    private boolean fire() {
+        Call call = newCall();
+        if (!sync) {
+            if (limiter != null) {
+                limiter.enqueue(call, this);
+            } else {
+                call.enqueue(this);
+            }
+            return true;
+        }
+        try {
+            HEDGE_SYNC_EXECUTOR.execute(() -> executeCall(call));
+            return true;
+        } catch (RejectedExecutionException e) {
+            calls.remove(call);
+            return false;
+        }
+    }
+
+    private Call newCall() {
+        Call call = httpClient.newCall(request);
+        calls.put(call, null);
+        if (canceled) {
+            //发起前已经被取消
+            call.cancel();
+        }
+        return call;
+    }
+
+    /**
+     * 同步执行一次请求，结果交给回调
+     */
+    private void executeCall(Call call) {
+        Response response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            onFailure(call, e);
+            return;
+        } catch (RuntimeException e) {
+            //拦截器抛出的异常（如没有获取到并发名额）作为本次请求的失败
+            onFailure(call, new IOException(e.getMessage(), e));
+            return;
+        }
+        try {
+            onResponse(call, response);
+        } catch (IOException e) {
+            response.close();
+        }
+    }
+
+    /**
+     * 对冲延迟到达，预算充足时发起对冲请求
+     */
+    private synchronized void hedge() {
+        nextHedge = null;
+        if (!done && !canceled && hedgeBudget.tryAcquire()) {
+            fire();
+        }
+    }
+
+    /**
+     * 请求失败后，能够继续发起请求时立即发起，否则判断是否所有请求都已结束
+     * @return 是否应该以当前失败结束
+     */
+    private boolean isLastAttempt() {
+        cancelNextHedge();
+        if (!canceled && calls.size() < hedgePolicy.getMaxAttempts() && hedgeBudget.tryAcquire() && fire()) {
+            return false;
+        }
+        return finished >= calls.size();
+    }
+
+    /**
+     * 是否是可以通过再次请求恢复的状态码，与默认重试策略的状态码一致
+     */
+    private static boolean isRetryable(int code) {
+        return DefaultRetryPolicy.RETRY_STATUS_CODES_DEFAULT.contains(code);
+    }
+
+    private void cancelOthers(Call call) {
+        cancelNextHedge();
+        calls.keySet().stream().filter(c -> c != call).forEach(Call::cancel);
+    }
+
+    private void cancelNextHedge() {
+        if (nextHedge != null) {
+            nextHedge.cancel(false);
+            nextHedge = null;
+        }
+    }
+
+}
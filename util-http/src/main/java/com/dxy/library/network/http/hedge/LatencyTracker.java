@@ -0,0 +1,85 @@
+package com.dxy.library.network.http.hedge;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+/**
+ * 最近请求耗时统计，按域名共享，用于计算对冲请求的延迟分位数
+ * @author duanxinyuan
+ * 2026/10/18 17:30
+ */
+public class LatencyTracker {
+
+    /**
+     * 保留的最近耗时样本数
+     */
+    private static final int SAMPLE_SIZE = 256;
+
+    /**
+     * 计算分位数所需的最少样本数
+     */
+    private static final int MIN_SAMPLES = 32;
+
+    /**
+     * 每记录多少个样本重新计算一次分位数
+     */
+    private static final int REFRESH_INTERVAL = 32;
+
+    /**
+     * Map<域名, LatencyTracker>
+     */
+    private static final Map<String, LatencyTracker> HOST_TRACKER_MAP = Maps.newConcurrentMap();
+
+    private final long[] samples = new long[SAMPLE_SIZE];
+
+    private int index;
+
+    private int count;
+
+    private int unsortedCount;
+
+    /**
+     * 排序后的样本快照，样本不足时为null
+     */
+    private volatile long[] sortedSamples;
+
+    /**
+     * 获取域名共享的耗时统计
+     */
+    public static LatencyTracker forHost(String host) {
+        return HOST_TRACKER_MAP.computeIfAbsent(host, h -> new LatencyTracker());
+    }
+
+    /**
+     * 记录一次请求耗时
+     */
+    public synchronized void record(long millis) {
+        samples[index] = millis;
+        index = (index + 1) % SAMPLE_SIZE;
+        count = Math.min(count + 1, SAMPLE_SIZE);
+        unsortedCount++;
+        if (count >= MIN_SAMPLES && (sortedSamples == null || unsortedCount >= REFRESH_INTERVAL)) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            sortedSamples = sorted;
+            unsortedCount = 0;
+        }
+    }
+
+    /**
+     * 获取耗时分位数
+     * @param percentile 分位数，取值0到1
+     * @return 耗时毫秒数，样本不足时返回-1
+     */
+    public long percentile(double percentile) {
+        long[] sorted = sortedSamples;
+        if (sorted == null) {
+            return -1;
+        }
+        int i = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))];
+    }
+
+}
@@ -1,5 +1,9 @@
 package com.dxy.library.network.http.interceptor;
 
+import com.dxy.library.network.http.body.StreamRequestBody;
+import com.dxy.library.network.http.retry.DefaultRetryPolicy;
+import com.dxy.library.network.http.retry.RetryBudget;
+import com.dxy.library.network.http.retry.RetryPolicy;
 import com.dxy.library.util.config.ConfigUtils;
 import okhttp3.Interceptor;
 import okhttp3.Request;
@@ -19,31 +23,51 @@ public class RetryInterceptor implements Interceptor {
     //默认重试间隔为0毫秒
     public static final long RETRY_INTERVAL_DEFAULT = ConfigUtils.getAsLong("http.retryIntervalMillis", 0L);
 
-    //最大重试次数
-    private int maxRetryCount;
-
-    //重试间隔毫秒数
-    private long retryIntervalMillis;
+    //重试策略
+    private final RetryPolicy retryPolicy;
 
     public RetryInterceptor(int maxRetryCount, long retryIntervalMillis) {
-        this.maxRetryCount = maxRetryCount;
-        this.retryIntervalMillis = retryIntervalMillis;
+        this(new DefaultRetryPolicy(maxRetryCount, retryIntervalMillis));
+    }
+
+    public RetryInterceptor(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
     }
 
     @Override
     public Response intercept(Chain chain) throws IOException {
         Request request = chain.request();
-        Response response = chain.proceed(request);
+        RetryBudget retryBudget = retryPolicy.retryBudget(request);
         int retryCount = 0;
-        while (!response.isSuccessful() && retryCount < maxRetryCount) {
-            if (retryIntervalMillis > 0) {
-                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(retryIntervalMillis));
+        while (true) {
+            Response response = null;
+            IOException exception = null;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                exception = e;
+            }
+            if (retryBudget != null && response != null && response.isSuccessful()) {
+                retryBudget.onSuccess();
+            }
+            //只能发送一次的流式请求体不重试
+            if (!retryPolicy.shouldRetry(request, response, exception, retryCount)
+                || StreamRequestBody.isOneShot(request.body())
+                || (retryBudget != null && !retryBudget.tryAcquire())) {
+                if (exception != null) {
+                    throw exception;
+                }
+                return response;
+            }
+            if (response != null) {
+                response.close();
+            }
+            long backoffMillis = retryPolicy.backoffMillis(retryCount);
+            if (backoffMillis > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
             }
             retryCount++;
-            response.close();
-            response = chain.proceed(request);
         }
-        return response;
     }
 
 }
@@ -0,0 +1,38 @@
+package com.dxy.library.network.http.limit;
+
+import java.io.IOException;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+
+/**
+ * 每次异步请求（包括重试和对冲请求）结束时释放并发名额的回调，重试间隔内不占用名额
+ * @author duanxinyuan
+ * 2026/10/18 19:10
+ */
+@SuppressWarnings("NullableProblems")
+public class AdaptiveLimitCallback implements Callback {
+
+    private final AdaptiveLimiter limiter;
+
+    private final Callback callback;
+
+    public AdaptiveLimitCallback(AdaptiveLimiter limiter, Callback callback) {
+        this.limiter = limiter;
+        this.callback = callback;
+    }
+
+    @Override
+    public void onFailure(Call call, IOException e) {
+        limiter.release();
+        callback.onFailure(call, e);
+    }
+
+    @Override
+    public void onResponse(Call call, Response response) throws IOException {
+        limiter.release();
+        callback.onResponse(call, response);
+    }
+
+}
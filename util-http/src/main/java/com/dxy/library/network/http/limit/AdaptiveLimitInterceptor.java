@@ -0,0 +1,79 @@
+package com.dxy.library.network.http.limit;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import com.dxy.library.network.http.exception.ConcurrencyLimitExceededException;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * 自适应并发限制的拦截器，每次请求（包括重试）都会采样
+ * 同步请求在此获取并发名额，等待名额的时间计入请求超时时间，请求结束（包括重试间隔前）释放名额
+ * 异步请求在入队前通过 AdaptiveLimiter.enqueue 获取名额，此处只采样，不阻塞调度线程
+ * @author duanxinyuan
+ * 2026/10/18 19:10
+ */
+@SuppressWarnings("NullableProblems")
+public class AdaptiveLimitInterceptor implements Interceptor {
+
+    /**
+     * 是否在此获取并发名额
+     */
+    private final boolean acquire;
+
+    /**
+     * @param acquire 是否在此获取并发名额，同步请求的 OkHttpClient 为true，异步请求的 OkHttpClient 为false
+     */
+    public AdaptiveLimitInterceptor(boolean acquire) {
+        this.acquire = acquire;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        AdaptiveLimiter limiter = AdaptiveLimiter.forHost(chain.request().url().host());
+        if (!acquire) {
+            return sample(limiter, chain);
+        }
+        long timeoutMillis = chain.readTimeoutMillis();
+        long waitStartTime = System.nanoTime();
+        try {
+            //超时时间为0表示不限制超时，一直等待
+            if (!limiter.acquire(timeoutMillis > 0 ? timeoutMillis : Long.MAX_VALUE)) {
+                throw new ConcurrencyLimitExceededException(limiter.getHost(), limiter.getLimit());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("http call interrupted");
+        }
+        try {
+            //等待名额的时间计入超时时间
+            long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waitStartTime);
+            if (waitMillis > 0 && timeoutMillis > 0) {
+                int remainingMillis = (int) Math.max(1, timeoutMillis - waitMillis);
+                chain = chain.withConnectTimeout(Math.min(chain.connectTimeoutMillis(), remainingMillis), TimeUnit.MILLISECONDS)
+                    .withReadTimeout(remainingMillis, TimeUnit.MILLISECONDS)
+                    .withWriteTimeout(Math.min(chain.writeTimeoutMillis(), remainingMillis), TimeUnit.MILLISECONDS);
+            }
+            return sample(limiter, chain);
+        } finally {
+            limiter.release();
+        }
+    }
+
+    private Response sample(AdaptiveLimiter limiter, Chain chain) throws IOException {
+        long startTime = System.nanoTime();
+        try {
+            Response response = chain.proceed(chain.request());
+            //429、503 表示下游已经过载
+            limiter.onSample(System.nanoTime() - startTime, response.code() == 429 || response.code() == 503);
+            return response;
+        } catch (SocketTimeoutException e) {
+            limiter.onSample(System.nanoTime() - startTime, true);
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,314 @@
+package com.dxy.library.network.http.limit;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.dxy.library.util.config.ConfigUtils;
+import com.google.common.collect.Maps;
+import okhttp3.Call;
+import okhttp3.Callback;
+
+/**
+ * 自适应并发限制，按域名共享，算法参考 TCP Vegas
+ * 以观测到的最小耗时作为无排队耗时，估算下游的排队长度 limit * (1 - 最小耗时 / 当前耗时)，
+ * 排队长度小于 alpha 时增加并发限制，大于 beta 时减小并发限制，请求超时或被限流时按比例减小并发限制
+ * 同步和异步请求在同一个队列中按先后顺序获取名额，每次请求（包括重试和对冲请求）各自获取名额，重试间隔内不占用名额
+ * 使用 ReentrantLock 而不是 synchronized 等待名额，虚拟线程等待时不会固定（pin）载体线程
+ * @author duanxinyuan
+ * 2026/10/18 19:10
+ */
+public class AdaptiveLimiter {
+
+    /**
+     * 默认是否开启自适应并发限制，默认为false，开启后异步请求不再受 http.async.maxRequestsPerHost 限制
+     */
+    public static final boolean ENABLE_DEFAULT = ConfigUtils.getAsBoolean("http.limit.enable", false);
+
+    /**
+     * 初始并发限制，默认为20
+     */
+    public static final int INITIAL_LIMIT_DEFAULT = ConfigUtils.getAsInt("http.limit.initialLimit", 20);
+
+    /**
+     * 最小并发限制，默认为1
+     */
+    public static final int MIN_LIMIT_DEFAULT = ConfigUtils.getAsInt("http.limit.minLimit", 1);
+
+    /**
+     * 最大并发限制，默认为200
+     */
+    public static final int MAX_LIMIT_DEFAULT = ConfigUtils.getAsInt("http.limit.maxLimit", 200);
+
+    /**
+     * 每隔多少个样本重置一次最小耗时，以适应下游无排队耗时的变化
+     */
+    private static final int RTT_RESET_SAMPLES = 1000;
+
+    /**
+     * 请求超时或被限流时并发限制的衰减比例
+     */
+    private static final double DROP_BACKOFF_RATIO = 0.9;
+
+    /**
+     * Map<域名, AdaptiveLimiter>
+     */
+    private static final Map<String, AdaptiveLimiter> HOST_LIMITER_MAP = Maps.newConcurrentMap();
+
+    private final String host;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private double limit;
+
+    private int inflight;
+
+    private long rttNoLoadNanos;
+
+    private int samples;
+
+    /**
+     * 等待并发名额的请求，同步请求为 SyncWaiter
+     */
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 有空闲并发名额
+     */
+    private final Condition available = lock.newCondition();
+
+    public AdaptiveLimiter(String host, int initialLimit, int minLimit, int maxLimit) {
+        this.host = host;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * 获取域名共享的并发限制
+     */
+    public static AdaptiveLimiter forHost(String host) {
+        return HOST_LIMITER_MAP.computeIfAbsent(host,
+            h -> new AdaptiveLimiter(h, INITIAL_LIMIT_DEFAULT, MIN_LIMIT_DEFAULT, MAX_LIMIT_DEFAULT));
+    }
+
+    /**
+     * 获取所有域名的并发限制，用于监控
+     * @return Map<域名, AdaptiveLimiter>
+     */
+    public static Map<String, AdaptiveLimiter> getLimiters() {
+        return Collections.unmodifiableMap(HOST_LIMITER_MAP);
+    }
+
+    /**
+     * 同步获取并发名额，名额不足或有请求在排队时排在队尾阻塞等待
+     * @param timeoutMillis 最大等待毫秒数
+     * @return 是否获取成功
+     */
+    public boolean acquire(long timeoutMillis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        SyncWaiter waiter = new SyncWaiter();
+        lock.lockInterruptibly();
+        try {
+            if (inflight < (int) limit && pending.isEmpty()) {
+                inflight++;
+                return true;
+            }
+            pending.add(waiter);
+            while (!waiter.acquired && remaining > 0) {
+                remaining = available.awaitNanos(remaining);
+            }
+            if (!waiter.acquired) {
+                pending.remove(waiter);
+            }
+            return waiter.acquired;
+        } catch (InterruptedException e) {
+            if (!waiter.acquired) {
+                pending.remove(waiter);
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+        //中断的同时已经获取到名额，交还名额
+        release();
+        throw new InterruptedException();
+    }
+
+    /**
+     * 异步获取并发名额，名额不足或有请求在排队时排队，获取成功后执行 onAcquired，不阻塞调用线程
+     */
+    public void acquireAsync(Runnable onAcquired) {
+        lock.lock();
+        try {
+            if (inflight >= (int) limit || !pending.isEmpty()) {
+                pending.add(onAcquired);
+                return;
+            }
+            inflight++;
+        } finally {
+            lock.unlock();
+        }
+        onAcquired.run();
+    }
+
+    /**
+     * 释放并发名额
+     */
+    public void release() {
+        List<Runnable> acquired;
+        lock.lock();
+        try {
+            inflight--;
+            acquired = transferTo(drain());
+        } finally {
+            lock.unlock();
+        }
+        acquired.forEach(Runnable::run);
+    }
+
+    /**
+     * 记录一次请求的耗时，调整并发限制
+     * @param rttNanos 请求耗时纳秒数
+     * @param dropped 请求是否超时或被限流
+     */
+    public void onSample(long rttNanos, boolean dropped) {
+        List<Runnable> acquired;
+        lock.lock();
+        try {
+            if (dropped) {
+                limit = Math.max(minLimit, limit * DROP_BACKOFF_RATIO);
+            } else if (rttNanos > 0) {
+                if (rttNoLoadNanos == 0 || rttNanos < rttNoLoadNanos || ++samples >= RTT_RESET_SAMPLES) {
+                    rttNoLoadNanos = rttNanos;
+                    samples = 0;
+                }
+                //并发未用满时无法判断下游容量，不调整
+                if (inflight * 2 >= limit) {
+                    double log = Math.max(1, Math.log10(limit));
+                    double queueSize = limit * (1 - (double) rttNoLoadNanos / rttNanos);
+                    if (queueSize <= 3 * log) {
+                        limit = Math.min(maxLimit, limit + log);
+                    } else if (queueSize >= 6 * log) {
+                        limit = Math.max(minLimit, limit - log);
+                    }
+                }
+            }
+            acquired = transferTo(drain());
+        } finally {
+            lock.unlock();
+        }
+        acquired.forEach(Runnable::run);
+    }
+
+    /**
+     * 获取并发名额后发起异步请求，请求结束时释放名额
+     */
+    public void enqueue(Call call, Callback callback) {
+        acquireAsync(() -> call.enqueue(new AdaptiveLimitCallback(this, callback)));
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * 当前并发限制
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前并发请求数
+     */
+    public int getInflight() {
+        lock.lock();
+        try {
+            return inflight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 等待并发名额的请求数
+     */
+    public int getPending() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 将空闲的并发名额按排队顺序分配给等待中的请求
+     * @return 获取到名额的请求
+     */
+    private List<Runnable> drain() {
+        if (pending.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Runnable> acquired = new ArrayList<>();
+        while (inflight < (int) limit && !pending.isEmpty()) {
+            inflight++;
+            acquired.add(pending.poll());
+        }
+        return acquired;
+    }
+
+    /**
+     * 唤醒获取到名额的同步请求
+     * @return 获取到名额的异步请求，需要在释放锁之后执行
+     */
+    private List<Runnable> transferTo(List<Runnable> acquired) {
+        if (acquired.isEmpty()) {
+            return acquired;
+        }
+        List<Runnable> asyncAcquired = new ArrayList<>(acquired.size());
+        boolean signal = false;
+        for (Runnable runnable : acquired) {
+            if (runnable instanceof SyncWaiter) {
+                ((SyncWaiter) runnable).acquired = true;
+                signal = true;
+            } else {
+                asyncAcquired.add(runnable);
+            }
+        }
+        if (signal) {
+            available.signalAll();
+        }
+        return asyncAcquired;
+    }
+
+    /**
+     * 排队等待名额的同步请求，获取到名额时在持有锁的情况下标记
+     */
+    private static class SyncWaiter implements Runnable {
+
+        private boolean acquired;
+
+        @Override
+        public void run() {
+        }
+
+    }
+
+}
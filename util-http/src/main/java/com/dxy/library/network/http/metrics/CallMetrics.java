@@ -0,0 +1,92 @@
+package com.dxy.library.network.http.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * 单个维度的请求耗时统计，每个阶段一个 HdrHistogram，单位为微秒，记录无锁
+ * 同时记录到 Recorder，按区间获取自上次获取以来的耗时统计，用于定期导出到监控系统
+ * @author duanxinyuan
+ * 2026/10/18 20:00
+ */
+public class CallMetrics {
+
+    /**
+     * 耗时统计的有效位数
+     */
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<MetricPhase, ConcurrentHistogram> histograms = new EnumMap<>(MetricPhase.class);
+
+    /**
+     * 区间耗时统计，每次获取后重新开始统计
+     */
+    private final Map<MetricPhase, Recorder> recorders = new EnumMap<>(MetricPhase.class);
+
+    public CallMetrics() {
+        for (MetricPhase phase : MetricPhase.values()) {
+            histograms.put(phase, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+            recorders.put(phase, new Recorder(SIGNIFICANT_DIGITS));
+        }
+    }
+
+    /**
+     * 记录一个阶段的耗时
+     * @param phase 阶段
+     * @param nanos 耗时纳秒数，小于0时不记录
+     */
+    public void record(MetricPhase phase, long nanos) {
+        if (nanos >= 0) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+            histograms.get(phase).recordValue(micros);
+            recorders.get(phase).recordValue(micros);
+        }
+    }
+
+    /**
+     * 一个阶段的累计请求数，不复制耗时统计
+     */
+    public long getCount(MetricPhase phase) {
+        return histograms.get(phase).getTotalCount();
+    }
+
+    /**
+     * 获取一个阶段耗时统计的快照，单位为微秒
+     */
+    public Histogram snapshot(MetricPhase phase) {
+        return histograms.get(phase).copy();
+    }
+
+    /**
+     * 获取所有阶段耗时统计的快照，单位为微秒
+     */
+    public Map<MetricPhase, Histogram> snapshot() {
+        Map<MetricPhase, Histogram> snapshot = new EnumMap<>(MetricPhase.class);
+        histograms.forEach((phase, histogram) -> snapshot.put(phase, histogram.copy()));
+        return snapshot;
+    }
+
+    /**
+     * 获取一个阶段自上次获取以来的耗时统计，单位为微秒，获取后重新开始统计
+     * 同一阶段的区间统计只应由一个导出方获取，否则各自只能得到部分区间
+     * @param recycle 上次获取的区间统计，复用以避免分配，为null时新建
+     */
+    public Histogram intervalSnapshot(MetricPhase phase, Histogram recycle) {
+        Recorder recorder = recorders.get(phase);
+        return recycle == null ? recorder.getIntervalHistogram() : recorder.getIntervalHistogram(recycle);
+    }
+
+    /**
+     * 清空耗时统计
+     */
+    public void reset() {
+        histograms.values().forEach(Histogram::reset);
+        recorders.values().forEach(Recorder::reset);
+    }
+
+}
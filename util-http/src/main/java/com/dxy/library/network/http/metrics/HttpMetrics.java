@@ -0,0 +1,85 @@
+package com.dxy.library.network.http.metrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+import com.dxy.library.util.config.ConfigUtils;
+import com.google.common.collect.Maps;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 请求耗时统计，按域名、请求方式、状态码分类统计各阶段耗时
+ * @author duanxinyuan
+ * 2026/10/18 20:00
+ */
+@Slf4j
+public class HttpMetrics {
+
+    /**
+     * 是否开启请求耗时统计，默认为false
+     */
+    public static final boolean ENABLE = ConfigUtils.getAsBoolean("http.metrics.enable", false);
+
+    /**
+     * Map<统计维度, 耗时统计>
+     */
+    private static final Map<MetricKey, CallMetrics> METRICS_MAP = Maps.newConcurrentMap();
+
+    /**
+     * 新增统计维度的监听器，用于导出到监控系统
+     */
+    private static final List<BiConsumer<MetricKey, CallMetrics>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private HttpMetrics() {
+    }
+
+    /**
+     * 获取统计维度的耗时统计，不存在时创建并通知监听器
+     */
+    public static CallMetrics get(MetricKey key) {
+        CallMetrics callMetrics = METRICS_MAP.get(key);
+        if (callMetrics != null) {
+            return callMetrics;
+        }
+        CallMetrics created = new CallMetrics();
+        callMetrics = METRICS_MAP.putIfAbsent(key, created);
+        if (callMetrics != null) {
+            return callMetrics;
+        }
+        for (BiConsumer<MetricKey, CallMetrics> listener : LISTENERS) {
+            try {
+                listener.accept(key, created);
+            } catch (Exception e) {
+                log.error("http metrics listener error, key: {}", key, e);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * 获取所有统计维度的耗时统计
+     * @return Map<统计维度, 耗时统计>
+     */
+    public static Map<MetricKey, CallMetrics> getMetrics() {
+        return Collections.unmodifiableMap(METRICS_MAP);
+    }
+
+    /**
+     * 添加新增统计维度的监听器，已有的统计维度会立即通知
+     */
+    public static void addListener(BiConsumer<MetricKey, CallMetrics> listener) {
+        LISTENERS.add(listener);
+        METRICS_MAP.forEach(listener);
+    }
+
+    /**
+     * 清空所有耗时统计，统计维度保留
+     */
+    public static void reset() {
+        METRICS_MAP.values().forEach(CallMetrics::reset);
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.dxy.library.network.http.metrics;
+
+import com.dxy.library.network.http.constant.Method;
+import lombok.Value;
+
+/**
+ * 请求耗时统计的维度
+ * @author duanxinyuan
+ * 2026/10/18 20:00
+ */
+@Value
+public class MetricKey {
+
+    /**
+     * 域名
+     */
+    String host;
+
+    /**
+     * 请求方式
+     */
+    Method method;
+
+    /**
+     * 状态码分类，如 2xx、5xx，命中缓存时为 CACHE，请求异常时为 IO_ERROR，请求取消时为 CANCELED
+     */
+    String statusClass;
+
+}
@@ -0,0 +1,23 @@
+package com.dxy.library.network.http.metrics;
+
+/**
+ * 请求耗时的统计阶段
+ * @author duanxinyuan
+ * 2026/10/18 20:00
+ */
+public enum MetricPhase {
+
+    //DNS 解析
+    DNS,
+    //建立连接，包括 TLS 握手
+    CONNECT,
+    //TLS 握手
+    TLS,
+    //写请求头和请求体
+    REQUEST_WRITE,
+    //从请求开始到收到响应头（首字节）
+    TTFB,
+    //从请求开始到请求结束，包括读取响应体
+    TOTAL
+
+}
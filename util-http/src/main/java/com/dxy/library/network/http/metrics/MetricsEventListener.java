@@ -0,0 +1,146 @@
+package com.dxy.library.network.http.metrics;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import com.dxy.library.network.http.constant.Method;
+import okhttp3.Call;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * 记录请求各阶段耗时的 EventListener，每个请求一个实例，请求结束时按域名、请求方式、状态码分类记录
+ * 同一请求内重试多次时，各阶段记录最后一次的耗时，同时统计连接池的连接获取和新建次数
+ * @author duanxinyuan
+ * 2026/10/18 20:00
+ */
+@SuppressWarnings("NullableProblems")
+public class MetricsEventListener extends PoolEventListener {
+
+    private static final long NONE = -1;
+
+    private long callStart = NONE;
+
+    private long dnsStart = NONE;
+
+    private long dnsNanos = NONE;
+
+    private long connectStart = NONE;
+
+    private long connectNanos = NONE;
+
+    private long tlsStart = NONE;
+
+    private long tlsNanos = NONE;
+
+    private long requestWriteStart = NONE;
+
+    private long requestWriteEnd = NONE;
+
+    private long ttfbNanos = NONE;
+
+    private int code;
+
+    public MetricsEventListener(PoolMetrics poolMetrics) {
+        super(poolMetrics);
+    }
+
+    @Override
+    public void callStart(Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        dnsNanos = System.nanoTime() - dnsStart;
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        tlsStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        tlsNanos = System.nanoTime() - tlsStart;
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        super.connectEnd(call, inetSocketAddress, proxy, protocol);
+        connectNanos = System.nanoTime() - connectStart;
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        requestWriteStart = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+        requestWriteEnd = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        requestWriteEnd = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        ttfbNanos = System.nanoTime() - callStart;
+        code = response.code();
+    }
+
+    @Override
+    public void satisfactionFailure(Call call, Response response) {
+        //only-if-cached 且没有可用的缓存，OkHttp 直接返回504
+        code = response.code();
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        //没有收到响应头（命中内存缓存或磁盘缓存）时记为 CACHE
+        record(call, code == 0 ? "CACHE" : code / 100 + "xx");
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        record(call, call.isCanceled() ? "CANCELED" : "IO_ERROR");
+    }
+
+    private void record(Call call, String statusClass) {
+        if (callStart == NONE) {
+            return;
+        }
+        Request request = call.request();
+        MetricKey key = new MetricKey(request.url().host(), Method.resolve(request.method()), statusClass);
+        CallMetrics callMetrics = HttpMetrics.get(key);
+        callMetrics.record(MetricPhase.TOTAL, System.nanoTime() - callStart);
+        callMetrics.record(MetricPhase.TTFB, ttfbNanos);
+        callMetrics.record(MetricPhase.DNS, dnsNanos);
+        callMetrics.record(MetricPhase.CONNECT, connectNanos);
+        callMetrics.record(MetricPhase.TLS, tlsNanos);
+        if (requestWriteStart != NONE && requestWriteEnd != NONE) {
+            callMetrics.record(MetricPhase.REQUEST_WRITE, requestWriteEnd - requestWriteStart);
+        }
+        //callEnd、callFailed 只记录一次
+        callStart = NONE;
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.dxy.library.network.http.metrics;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+
+/**
+ * 统计连接获取和新建次数的 EventListener
+ * @author duanxinyuan
+ * 2026/10/18 20:40
+ */
+@SuppressWarnings("NullableProblems")
+public class PoolEventListener extends EventListener {
+
+    private final PoolMetrics poolMetrics;
+
+    public PoolEventListener(PoolMetrics poolMetrics) {
+        this.poolMetrics = poolMetrics;
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        poolMetrics.onConnected();
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        poolMetrics.onConnectionAcquired();
+    }
+
+}
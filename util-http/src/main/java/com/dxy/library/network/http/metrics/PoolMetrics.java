@@ -0,0 +1,115 @@
+package com.dxy.library.network.http.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+
+/**
+ * 连接池和异步调度器的统计
+ * @author duanxinyuan
+ * 2026/10/18 20:40
+ */
+public class PoolMetrics {
+
+    private final ConnectionPool connectionPool;
+
+    private final Dispatcher dispatcher;
+
+    /**
+     * 请求获取连接的次数，包括复用和新建的连接
+     */
+    private final LongAdder acquiredCount = new LongAdder();
+
+    /**
+     * 新建连接的次数
+     */
+    private final LongAdder connectedCount = new LongAdder();
+
+    private final PoolEventListener eventListener = new PoolEventListener(this);
+
+    public PoolMetrics(ConnectionPool connectionPool, Dispatcher dispatcher) {
+        this.connectionPool = connectionPool;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * 统计连接获取和新建次数的 EventListener，无状态，所有请求共用
+     */
+    public PoolEventListener getEventListener() {
+        return eventListener;
+    }
+
+    void onConnectionAcquired() {
+        acquiredCount.increment();
+    }
+
+    void onConnected() {
+        connectedCount.increment();
+    }
+
+    /**
+     * 空闲连接数
+     */
+    public int getIdleConnections() {
+        return connectionPool.idleConnectionCount();
+    }
+
+    /**
+     * 正在使用的连接数
+     */
+    public int getActiveConnections() {
+        return Math.max(0, connectionPool.connectionCount() - connectionPool.idleConnectionCount());
+    }
+
+    /**
+     * 连接池中的连接总数
+     */
+    public int getTotalConnections() {
+        return connectionPool.connectionCount();
+    }
+
+    /**
+     * 请求获取连接的次数，包括复用和新建的连接
+     */
+    public long getAcquiredCount() {
+        return acquiredCount.sum();
+    }
+
+    /**
+     * 新建连接的次数
+     */
+    public long getConnectedCount() {
+        return connectedCount.sum();
+    }
+
+    /**
+     * 已关闭的连接数，包括空闲超时、超过最大空闲连接数被清理以及被服务端关闭的连接
+     */
+    public long getClosedCount() {
+        return Math.max(0, connectedCount.sum() - connectionPool.connectionCount());
+    }
+
+    /**
+     * 连接复用率，即复用已有连接的获取次数占总获取次数的比例，没有获取过连接时返回0
+     */
+    public double getReuseRatio() {
+        long acquired = acquiredCount.sum();
+        return acquired == 0 ? 0 : Math.max(0, acquired - connectedCount.sum()) / (double) acquired;
+    }
+
+    /**
+     * 异步调度器中排队等待的请求数
+     */
+    public int getQueuedCalls() {
+        return dispatcher.queuedCallsCount();
+    }
+
+    /**
+     * 异步调度器中正在执行的请求数，包括同步请求
+     */
+    public int getRunningCalls() {
+        return dispatcher.runningCallsCount();
+    }
+
+}
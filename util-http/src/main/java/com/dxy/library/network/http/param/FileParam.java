@@ -26,6 +26,9 @@ public class FileParam {
     //流
     private InputStream inputStream;
 
+    //流的长度，小于0时表示未知，使用 chunked 编码上传
+    private long contentLength = -1;
+
     private FileParam() {
     }
 
@@ -57,4 +60,11 @@ public class FileParam {
         this.filename = filename;
         this.inputStream = inputStream;
     }
+
+    public FileParam(String name, String filename, InputStream inputStream, long contentLength) {
+        this.name = name;
+        this.filename = filename;
+        this.inputStream = inputStream;
+        this.contentLength = contentLength;
+    }
 }
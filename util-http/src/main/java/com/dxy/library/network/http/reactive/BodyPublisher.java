@@ -0,0 +1,244 @@
+package com.dxy.library.network.http.reactive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.dxy.library.network.http.exception.HttpException;
+import com.dxy.library.util.config.ConfigUtils;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * 以 ByteBuffer 分块发布响应体的 Publisher，支持背压
+ * 每次订阅在第一次 request 时发起一次异步请求，只有在订阅者有需求时才从连接读取下一块，
+ * 订阅者处理较慢时停止读取，由 TCP 流量控制限制服务端发送，响应体不会整体缓存在内存中
+ * 非2xx响应以 HttpException 结束，取消订阅时取消请求并释放连接
+ * @author duanxinyuan
+ * 2026/10/19 10:00
+ */
+@SuppressWarnings("NullableProblems")
+public class BodyPublisher implements Publisher<ByteBuffer> {
+
+    /**
+     * 每次从连接读取的最大字节数，即发布的 ByteBuffer 的最大字节数，默认为8192（8K）
+     */
+    public static final int CHUNK_SIZE = ConfigUtils.getAsInt("http.reactive.chunkSize", 8192);
+
+    /**
+     * 发起异步请求的操作，返回取消请求的操作
+     */
+    private final Function<Callback, Runnable> enqueuer;
+
+    /**
+     * 读取响应体和发布元素的线程池，读取连接时会阻塞
+     */
+    private final Executor drainExecutor;
+
+    public BodyPublisher(Function<Callback, Runnable> enqueuer, Executor drainExecutor) {
+        this.enqueuer = enqueuer;
+        this.drainExecutor = drainExecutor;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber is null");
+        subscriber.onSubscribe(new BodySubscription(subscriber, enqueuer, drainExecutor));
+    }
+
+    private static class BodySubscription implements Subscription, Callback {
+
+        private final Subscriber<? super ByteBuffer> subscriber;
+
+        private final Function<Callback, Runnable> enqueuer;
+
+        private final Executor drainExecutor;
+
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        /**
+         * 订阅者尚未满足的需求数
+         */
+        private final AtomicLong requested = new AtomicLong();
+
+        /**
+         * 待处理的 drain 次数，保证同时只有一个线程读取响应体和发布元素
+         */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled;
+
+        private volatile Runnable canceller;
+
+        private volatile Response response;
+
+        private volatile Throwable error;
+
+        /**
+         * 是否已经结束，结束后到达的响应直接关闭
+         */
+        private volatile boolean terminated;
+
+        BodySubscription(Subscriber<? super ByteBuffer> subscriber, Function<Callback, Runnable> enqueuer,
+            Executor drainExecutor) {
+            this.subscriber = subscriber;
+            this.enqueuer = enqueuer;
+            this.drainExecutor = drainExecutor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("request must be positive, but was: " + n);
+                cancelCall();
+                drain();
+                return;
+            }
+            requested.accumulateAndGet(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+            if (started.compareAndSet(false, true)) {
+                try {
+                    canceller = enqueuer.apply(this);
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+                if (cancelled) {
+                    cancelCall();
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            cancelCall();
+            drain();
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            error = new HttpException("http call execute error", e);
+            drain();
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            if (!response.isSuccessful()) {
+                String responseStr = null;
+                try (ResponseBody responseBody = response.body()) {
+                    if (responseBody != null) {
+                        responseStr = responseBody.string();
+                    }
+                } catch (IOException ignored) {
+                }
+                error = new HttpException("http call failed, code: {}, response: {}", response.code(), responseStr);
+            } else {
+                this.response = response;
+                if (cancelled || terminated) {
+                    response.close();
+                }
+            }
+            drain();
+        }
+
+        private void cancelCall() {
+            Runnable cancel = canceller;
+            if (cancel != null) {
+                cancel.run();
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            try {
+                drainExecutor.execute(this::drainLoop);
+            } catch (RejectedExecutionException e) {
+                cancelCall();
+                closeResponse();
+                if (!cancelled) {
+                    subscriber.onError(new HttpException("http response drain rejected", e));
+                }
+            }
+        }
+
+        private void drainLoop() {
+            int missed = 1;
+            do {
+                if (terminated) {
+                    return;
+                }
+                if (cancelled) {
+                    terminated = true;
+                    closeResponse();
+                    return;
+                }
+                if (error != null) {
+                    terminate(error);
+                    return;
+                }
+                Response current = response;
+                if (current != null) {
+                    BufferedSource source = current.body().source();
+                    try {
+                        while (requested.get() > 0 && !cancelled) {
+                            Buffer chunk = new Buffer();
+                            //阻塞直到读取到数据，读取的字节数不超过 CHUNK_SIZE
+                            if (source.read(chunk, CHUNK_SIZE) == -1) {
+                                terminate(null);
+                                return;
+                            }
+                            requested.decrementAndGet();
+                            subscriber.onNext(ByteBuffer.wrap(chunk.readByteArray()));
+                        }
+                    } catch (IOException e) {
+                        if (cancelled) {
+                            terminated = true;
+                            closeResponse();
+                            return;
+                        }
+                        terminate(new HttpException("http response read error", e));
+                        return;
+                    }
+                    if (cancelled) {
+                        continue;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void terminate(Throwable e) {
+            terminated = true;
+            closeResponse();
+            if (e == null) {
+                subscriber.onComplete();
+            } else {
+                subscriber.onError(e);
+            }
+        }
+
+        private void closeResponse() {
+            Response current = response;
+            if (current != null) {
+                current.close();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.dxy.library.network.http.reactive;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * 发布反序列化结果的 Publisher，最多发布一个元素
+ * 每次订阅在第一次 request 时发起一次异步请求，结果为null时直接结束，取消订阅时同时取消请求
+ * @author duanxinyuan
+ * 2026/10/19 10:00
+ */
+public class FuturePublisher<V> implements Publisher<V> {
+
+    /**
+     * 发起异步请求的操作
+     */
+    private final Supplier<CompletableFuture<V>> futureSupplier;
+
+    public FuturePublisher(Supplier<CompletableFuture<V>> futureSupplier) {
+        this.futureSupplier = futureSupplier;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super V> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber is null");
+        subscriber.onSubscribe(new FutureSubscription<>(subscriber, futureSupplier));
+    }
+
+    private static class FutureSubscription<V> implements Subscription {
+
+        private final Subscriber<? super V> subscriber;
+
+        private final Supplier<CompletableFuture<V>> futureSupplier;
+
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private volatile boolean cancelled;
+
+        private volatile CompletableFuture<V> future;
+
+        FutureSubscription(Subscriber<? super V> subscriber, Supplier<CompletableFuture<V>> futureSupplier) {
+            this.subscriber = subscriber;
+            this.futureSupplier = futureSupplier;
+        }
+
+        @Override
+        public void request(long n) {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            if (n <= 0) {
+                cancelled = true;
+                subscriber.onError(new IllegalArgumentException("request must be positive, but was: " + n));
+                return;
+            }
+            CompletableFuture<V> f;
+            try {
+                f = futureSupplier.get();
+            } catch (RuntimeException e) {
+                subscriber.onError(e);
+                return;
+            }
+            future = f;
+            if (cancelled) {
+                f.cancel(true);
+                return;
+            }
+            f.whenComplete((value, e) -> {
+                if (cancelled) {
+                    return;
+                }
+                if (e != null) {
+                    subscriber.onError(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                    return;
+                }
+                if (value != null) {
+                    subscriber.onNext(value);
+                }
+                subscriber.onComplete();
+            });
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            CompletableFuture<V> f = future;
+            if (f != null) {
+                f.cancel(true);
+            }
+        }
+
+    }
+
+}
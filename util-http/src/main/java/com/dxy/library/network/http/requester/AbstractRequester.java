@@ -1,19 +1,44 @@
 package com.dxy.library.network.http.requester;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+import com.dxy.library.network.http.cache.HttpCache;
+import com.dxy.library.network.http.cache.ResultCache;
 import com.dxy.library.network.http.callback.RequestCallback;
+import com.dxy.library.network.http.codec.HttpCodec;
+import com.dxy.library.network.http.compress.ContentEncoding;
+import com.dxy.library.network.http.compress.RequestCompressionInterceptor;
 import com.dxy.library.network.http.constant.Method;
 import com.dxy.library.network.http.header.Headers;
+import com.dxy.library.network.http.hedge.HedgePolicy;
+import com.dxy.library.network.http.limit.AdaptiveLimiter;
 import com.dxy.library.network.http.param.FileParam;
 import com.dxy.library.network.http.param.Params;
+import com.dxy.library.network.http.reactive.FuturePublisher;
+import com.dxy.library.network.http.retry.RetryPolicy;
 import com.dxy.library.network.http.serializer.HttpSerializer;
+import com.dxy.library.network.http.singleflight.SingleFlight;
+import com.dxy.library.util.common.NumberUtils;
+import com.dxy.library.util.common.StringUtils;
+import com.dxy.library.util.config.ConfigUtils;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.Response;
+import org.reactivestreams.Publisher;
 
 /**
  * 请求实例基类
@@ -26,8 +51,34 @@ import okhttp3.Response;
 @Setter
 public abstract class AbstractRequester {
 
+    /**
+     * 默认请求日志采样率，默认为1，即记录全部请求
+     */
+    public static final double LOG_SAMPLE_RATE_DEFAULT = NumberUtils.toDouble(
+        ConfigUtils.getAsString("http.log.sampleRate", "1"), 1D);
+
+    /**
+     * 默认请求日志中请求体和响应体的最大字节数（UTF-8），默认为4096
+     */
+    public static final int LOG_MAX_BODY_LENGTH_DEFAULT = ConfigUtils.getAsInt("http.log.maxBodyLength", 4096);
+
+    /**
+     * 默认慢请求阈值，单位为毫秒，默认为0，即不单独记录慢请求
+     */
+    public static final long SLOW_REQUEST_MILLIS_DEFAULT = ConfigUtils.getAsLong("http.log.slowRequestMillis", 0L);
+
+    /**
+     * 默认是否开启按域名的熔断，默认为false
+     */
+    public static final boolean CIRCUIT_BREAKER_ENABLE_DEFAULT = ConfigUtils.getAsBoolean("http.circuitBreaker.enable", false);
+
     private HttpSerializer httpSerializer;
 
+    /**
+     * 请求体编解码器，为null时请求体使用 JSON，响应按 Content-Type 选择编解码器
+     */
+    private HttpCodec httpCodec;
+
     /**
      * 是否记录请求日志
      */
@@ -48,11 +99,91 @@ public abstract class AbstractRequester {
      */
     private long retryIntervalMillis;
 
+    /**
+     * 重试策略，为null时按重试次数和重试间隔使用默认重试策略
+     */
+    private RetryPolicy retryPolicy;
+
+    /**
+     * 对冲请求策略，为null时不对冲，只对 GET、HEAD 请求生效
+     */
+    private HedgePolicy hedgePolicy;
+
+    /**
+     * 是否开启按域名的熔断，熔断器打开时请求以 CircuitBreakerOpenException 快速失败
+     */
+    private boolean circuitBreakerEnable = CIRCUIT_BREAKER_ENABLE_DEFAULT;
+
+    /**
+     * 是否开启按域名的自适应并发限制，每次请求（包括重试和对冲请求）各自获取并发名额
+     */
+    private boolean limitEnable = AdaptiveLimiter.ENABLE_DEFAULT;
+
+    /**
+     * 是否开启响应缓存，只缓存 GET 请求
+     */
+    private boolean cacheEnable = HttpCache.ENABLE_DEFAULT;
+
+    /**
+     * 允许使用的过期缓存的最大过期秒数，即请求头 Cache-Control: max-stale，小于0时不设置
+     */
+    private long cacheMaxStaleSeconds = -1;
+
+    /**
+     * 反序列化结果的缓存，为null时不缓存，只缓存没有请求体的 GET 同步请求
+     */
+    private ResultCache resultCache;
+
+    /**
+     * 是否合并相同的并发请求，开启后没有请求体的 GET、HEAD、OPTIONS 同步请求共享同一次请求的响应
+     */
+    private boolean singleFlightEnable = SingleFlight.ENABLE_DEFAULT;
+
+    /**
+     * 是否使用虚拟线程执行 CompletableFuture 异步请求，只在 JDK 21+ 生效
+     */
+    private boolean virtualThreads;
+
+    /**
+     * 请求体压缩编码，为null时不压缩，只压缩文本类型的请求体
+     */
+    private ContentEncoding requestCompression = RequestCompressionInterceptor.ENCODING_DEFAULT;
+
+    /**
+     * 压缩请求体的最小字节数，长度小于该值的请求体不压缩
+     */
+    private long compressMinSize = RequestCompressionInterceptor.MIN_SIZE_DEFAULT;
+
     /**
      * 开启 clearText Http2 注意线上因为有域名，需要确认nginx解析支持h2c,否则不能贸然开启
      */
     private boolean enableH2c;
 
+    /**
+     * 是否开启流式响应，开启后以 InputStream、Reader 接收响应时直接返回基于连接的流，由调用方负责关闭
+     */
+    private boolean streamResponse;
+
+    /**
+     * CompletableFuture 异步请求完成时反序列化和回调所在的线程池，为null时使用默认线程池
+     */
+    private Executor completionExecutor;
+
+    /**
+     * 请求日志采样率，取值0到1，默认记录全部请求
+     */
+    private double logSampleRate = LOG_SAMPLE_RATE_DEFAULT;
+
+    /**
+     * 请求日志中请求体和响应体的最大字节数（UTF-8），超出部分截断，小于等于0表示不截断
+     */
+    private int logMaxBodyLength = LOG_MAX_BODY_LENGTH_DEFAULT;
+
+    /**
+     * 慢请求阈值，单位为毫秒，超过阈值的请求始终记录日志，小于等于0表示不记录慢请求
+     */
+    private long slowRequestMillis = SLOW_REQUEST_MILLIS_DEFAULT;
+
     public AbstractRequester(HttpSerializer httpSerializer, boolean requestLogEnable, long timeoutMillis, int retries,
         long retryIntervalMillis, boolean enableH2c) {
         this.httpSerializer = httpSerializer;
@@ -79,6 +210,28 @@ public abstract class AbstractRequester {
     public abstract <T> void enqueue(Method method, String url, Headers headers, Params params, T body,
         List<FileParam> fileParams, RequestCallback callback);
 
+    /**
+     * 异步请求，Response 在 completionExecutor 中反序列化成对象，取消返回的 CompletableFuture 会同时取消请求
+     */
+    public abstract <V, T> CompletableFuture<V> executeFuture(Method method, String url, Headers headers, Params params,
+        T body, List<FileParam> fileParams, Type type);
+
+    /******** Reactive Streams *********/
+
+    /**
+     * 发布反序列化结果的 Publisher，每次订阅在第一次 request 时发起一次异步请求，取消订阅会同时取消请求
+     */
+    public <V, T> Publisher<V> executePublisher(Method method, String url, Headers headers, Params params, T body,
+        List<FileParam> fileParams, Type type) {
+        return new FuturePublisher<>(() -> executeFuture(method, url, headers, params, body, fileParams, type));
+    }
+
+    /**
+     * 以 ByteBuffer 分块发布响应体的 Publisher，只在订阅者有需求时从连接读取，响应体不会整体缓存在内存中
+     */
+    public abstract <T> Publisher<ByteBuffer> executeBodyPublisher(Method method, String url, Headers headers,
+        Params params, T body, List<FileParam> fileParams);
+
     /******** 下载文件 *********/
 
     /**
@@ -92,6 +245,23 @@ public abstract class AbstractRequester {
     public abstract void download(String url, Headers headers, Params params, OutputStream outputStream,
         boolean isAsync);
 
+    /**
+     * 分段并发下载文件到本地，失败时抛出 HttpException，保留已下载的部分，再次下载同一目标文件时继续
+     * @param segments 最大分段数
+     */
+    public abstract void downloadRanged(String url, Headers headers, Params params, String targetPath, int segments);
+
+    /******** 断点续传上传 *********/
+
+    /**
+     * 使用 tus 协议断点续传上传文件，失败时抛出 HttpException，保留进度，再次上传同一文件时继续
+     * @param chunkSize 每次 PATCH 请求上传的字节数
+     * @param parallelism 最大并发上传部分数
+     * @return 服务端的上传地址
+     */
+    public abstract String uploadResumable(String url, Headers headers, Params params, FileParam fileParam,
+        long chunkSize, int parallelism);
+
     /******** Response 反序列化 *********/
 
     /**
@@ -101,23 +271,191 @@ public abstract class AbstractRequester {
 
     /******** 打印请求日志 *********/
 
-    <V, T> void logResult(String url, Method method, Headers headers, Params params, T body, V response, int code,
-        Throwable e,
-        long executionTime) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(", url: ").append(url);
-        sb.append(", code: ").append(code);
-        sb.append(", method: ").append(method.name());
-        sb.append(", execution time: ").append(executionTime).append("ms");
-        sb.append(headers == null ? "" : ", headers: " + httpSerializer.to(headers));
-        sb.append(params == null ? "" : ", params: " + httpSerializer.to(params));
-        sb.append(body == null ? "" : ", body: " + httpSerializer.to(body));
-        sb.append(response == null ? "" : ", response: " + httpSerializer.to(response));
+    /**
+     * 计算从 startNanos（System.nanoTime()）到现在经过的毫秒数
+     */
+    static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
 
+    /**
+     * 记录请求日志
+     * 慢请求（超过 slowRequestMillis）始终以 WARN 级别记录，不受请求日志开关和采样率影响；
+     * 其余请求在开启请求日志且日志级别可用时，按采样率记录，失败的请求（包括非2xx响应）不采样；
+     * 日志内容在真正输出时才格式化，请求体和响应体按 UTF-8 编码后的字节数截断，不超过 logMaxBodyLength
+     */
+    <V, T> void logResult(String url, Method method, Headers headers, Params params, T body, V response, int code,
+        Throwable e, long executionTime) {
+        if (slowRequestMillis > 0 && executionTime >= slowRequestMillis) {
+            if (log.isWarnEnabled()) {
+                RequestLog<V, T> requestLog = new RequestLog<>(url, method, headers, params, body, response, code,
+                    executionTime);
+                log.warn("http request execute slow{}", requestLog, e);
+            }
+            return;
+        }
+        if (!requestLogEnable || !log.isInfoEnabled()) {
+            return;
+        }
+        boolean failed = e != null || code < 200 || code >= 300;
+        if (!failed && logSampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= logSampleRate) {
+            return;
+        }
+        RequestLog<V, T> requestLog = new RequestLog<>(url, method, headers, params, body, response, code,
+            executionTime);
         if (e != null) {
-            log.info("http request execute failed{}", sb, e);
+            log.info("http request execute failed{}", requestLog, e);
         } else {
-            log.info("http request execute successful{}", sb);
+            log.info("http request execute successful{}", requestLog);
+        }
+    }
+
+    /**
+     * 请求日志内容，toString 时才格式化
+     */
+    @AllArgsConstructor
+    private final class RequestLog<V, T> {
+        private final String url;
+        private final Method method;
+        private final Headers headers;
+        private final Params params;
+        private final T body;
+        private final V response;
+        private final int code;
+        private final long executionTime;
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(256);
+            sb.append(", url: ").append(url);
+            sb.append(", code: ").append(code);
+            sb.append(", method: ").append(method.name());
+            sb.append(", execution time: ").append(executionTime).append("ms");
+            if (headers != null) {
+                sb.append(", headers: ").append(httpSerializer.to(headers));
+            }
+            if (params != null) {
+                sb.append(", params: ").append(httpSerializer.to(params));
+            }
+            if (body != null) {
+                sb.append(", body: ");
+                appendTruncated(sb, body);
+            }
+            if (response != null) {
+                sb.append(", response: ");
+                appendTruncated(sb, response);
+            }
+            return sb.toString();
+        }
+
+        /**
+         * 追加请求体或响应体，UTF-8 编码后超过 logMaxBodyLength 个字节的部分截断，不拆分字符
+         * 对象序列化时直接写入日志内容，达到 logMaxBodyLength 后停止序列化，不生成完整的字符串
+         */
+        private void appendTruncated(StringBuilder sb, Object value) {
+            String content;
+            if (value instanceof String) {
+                content = (String)value;
+            } else if (value instanceof byte[]) {
+                sb.append("byte[").append(((byte[])value).length).append("]");
+                return;
+            } else if (value instanceof InputStream || value instanceof Reader) {
+                sb.append(value.getClass().getSimpleName());
+                return;
+            } else if (logMaxBodyLength > 0) {
+                int start = sb.length();
+                LimitedWriter writer = new LimitedWriter(sb, logMaxBodyLength);
+                try {
+                    httpSerializer.to(value, writer);
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    if (writer.isTruncated()) {
+                        sb.append("...(truncated)");
+                        return;
+                    }
+                    //编解码器解码的对象（如 Protobuf 消息）不一定能序列化为 JSON
+                    sb.setLength(start);
+                    content = String.valueOf(value);
+                }
+            } else {
+                try {
+                    content = httpSerializer.to(value);
+                } catch (RuntimeException e) {
+                    //编解码器解码的对象（如 Protobuf 消息）不一定能序列化为 JSON
+                    content = String.valueOf(value);
+                }
+            }
+            if (content == null) {
+                sb.append("null");
+                return;
+            }
+            //每个字符最多3个字节（代理对2个字符4个字节），长度不超过 logMaxBodyLength / 3 时无需计算字节数
+            if (logMaxBodyLength <= 0 || content.length() <= logMaxBodyLength / 3) {
+                sb.append(content);
+                return;
+            }
+            int prefixLength = StringUtils.utf8PrefixLength(content, logMaxBodyLength);
+            if (prefixLength == content.length()) {
+                sb.append(content);
+            } else {
+                sb.append(content, 0, prefixLength).append("...(").append(StringUtils.utf8Length(content))
+                    .append(" bytes)");
+            }
+        }
+    }
+
+    /**
+     * 写入 StringBuilder 的 Writer，UTF-8 编码后超过 maxBytes 个字节时截断并抛出异常，以停止序列化
+     */
+    private static final class LimitedWriter extends Writer {
+        private final StringBuilder sb;
+        private int remaining;
+        private boolean truncated;
+
+        private LimitedWriter(StringBuilder sb, int maxBytes) {
+            this.sb = sb;
+            this.remaining = maxBytes;
+        }
+
+        boolean isTruncated() {
+            return truncated;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            appendLimited(CharBuffer.wrap(cbuf, off, len));
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            appendLimited(CharBuffer.wrap(str, off, off + len));
+        }
+
+        private void appendLimited(CharSequence s) throws IOException {
+            if (truncated) {
+                //截断后序列化器关闭时可能再次刷新缓冲区，直接忽略
+                return;
+            }
+            int prefixLength = StringUtils.utf8PrefixLength(s, remaining);
+            sb.append(s, 0, prefixLength);
+            if (prefixLength < s.length()) {
+                truncated = true;
+                int last = sb.length() - 1;
+                if (last >= 0 && Character.isHighSurrogate(sb.charAt(last))) {
+                    //代理对被缓冲区拆开时去掉前半个字符
+                    sb.setLength(last);
+                }
+                throw new IOException("log body truncated");
+            }
+            remaining -= StringUtils.utf8Length(s.subSequence(0, prefixLength));
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
         }
     }
 
@@ -1,22 +1,37 @@
 package com.dxy.library.network.http.requester;
 
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.lang.reflect.Type;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.security.SecureRandom;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
@@ -25,20 +40,52 @@ import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509ExtendedTrustManager;
 import javax.net.ssl.X509TrustManager;
 
+import com.dxy.library.network.http.body.StreamRequestBody;
+import com.dxy.library.network.http.breaker.CircuitBreaker;
+import com.dxy.library.network.http.breaker.CircuitBreakerCallback;
 import com.dxy.library.network.http.builder.OkBuilder;
+import com.dxy.library.network.http.cache.CachedResult;
+import com.dxy.library.network.http.cache.HttpCache;
+import com.dxy.library.network.http.cache.HttpCacheInterceptor;
+import com.dxy.library.network.http.cache.ResultCache;
+import com.dxy.library.network.http.cache.ResultKey;
 import com.dxy.library.network.http.callback.RequestCallback;
+import com.dxy.library.network.http.codec.HttpCodec;
+import com.dxy.library.network.http.codec.HttpCodecs;
+import com.dxy.library.network.http.compress.ContentEncoding;
+import com.dxy.library.network.http.compress.RequestCompressionInterceptor;
 import com.dxy.library.network.http.constant.Method;
+import com.dxy.library.network.http.download.DownloadSink;
+import com.dxy.library.network.http.download.RangedDownload;
+import com.dxy.library.network.http.exception.CircuitBreakerOpenException;
+import com.dxy.library.network.http.exception.ConcurrencyLimitExceededException;
 import com.dxy.library.network.http.exception.HttpException;
 import com.dxy.library.network.http.header.Headers;
+import com.dxy.library.network.http.hedge.HedgedCall;
 import com.dxy.library.network.http.interceptor.RetryInterceptor;
+import com.dxy.library.network.http.limit.AdaptiveLimitInterceptor;
+import com.dxy.library.network.http.limit.AdaptiveLimiter;
+import com.dxy.library.network.http.metrics.HttpMetrics;
+import com.dxy.library.network.http.metrics.MetricsEventListener;
+import com.dxy.library.network.http.metrics.PoolMetrics;
 import com.dxy.library.network.http.param.FileParam;
 import com.dxy.library.network.http.param.Params;
+import com.dxy.library.network.http.reactive.BodyPublisher;
+import com.dxy.library.network.http.retry.DefaultRetryPolicy;
+import com.dxy.library.network.http.retry.RetryCallback;
+import com.dxy.library.network.http.retry.RetryPolicy;
 import com.dxy.library.network.http.serializer.HttpSerializer;
+import com.dxy.library.network.http.singleflight.SingleFlight;
+import com.dxy.library.network.http.upload.ResumableUpload;
+import com.dxy.library.network.http.virtual.VirtualThreads;
+import com.dxy.library.util.common.ExecutorUtils;
 import com.dxy.library.util.common.FileUtils;
 import com.dxy.library.util.common.IOUtils;
 import com.dxy.library.util.config.ConfigUtils;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.CacheControl;
 import okhttp3.Call;
 import okhttp3.Callback;
 import okhttp3.ConnectionPool;
@@ -47,8 +94,12 @@ import okhttp3.Dispatcher;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
+import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.Okio;
+import okio.Sink;
+import org.reactivestreams.Publisher;
 
 /**
  * OkHttp请求实例
@@ -77,6 +128,12 @@ public final class OkHttpRequester extends AbstractRequester {
      */
     private static final Integer ASYNC_MAX_REQUESTS_PER_HOST = ConfigUtils.getAsInt("http.async.maxRequestsPerHost", 5);
 
+    /**
+     * Map<域名, 固定的并发限制>，未开启自适应并发限制的执行器的异步请求按 http.async.maxRequestsPerHost 限制
+     * 调度器由所有执行器共享，不再按域名限制，否则开启自适应并发限制的执行器的并发限制无法超过 maxRequestsPerHost
+     */
+    private static final Map<String, AdaptiveLimiter> ASYNC_HOST_LIMITER_MAP = Maps.newConcurrentMap();
+
     /**
      * 每个地址的最大连接数，默认为5
      */
@@ -87,46 +144,366 @@ public final class OkHttpRequester extends AbstractRequester {
      */
     private static final Integer KEEP_ALIVE_DURATION = ConfigUtils.getAsInt("http.keepAliveDuration", 5);
 
+    /**
+     * CompletableFuture 异步请求默认的回调线程数，默认为CPU核数
+     */
+    private static final Integer ASYNC_COMPLETION_THREADS = ConfigUtils.getAsInt("http.async.completionThreads",
+        Runtime.getRuntime().availableProcessors());
+
+    /**
+     * CompletableFuture 异步请求默认的回调线程池，在此反序列化响应，不占用 OkHttp 的调度线程
+     */
+    private static final ExecutorService ASYNC_COMPLETION_EXECUTOR = ExecutorUtils.getExecutorService(
+        "http-async-completion", ASYNC_COMPLETION_THREADS);
+
+    /**
+     * 是否使用虚拟线程作为 OkHttp 异步请求的调度线程，默认为false，只在 JDK 21+ 生效
+     */
+    private static final boolean VIRTUAL_ENABLE = ConfigUtils.getAsBoolean("http.virtual.enable", false);
+
+    /**
+     * 虚拟线程池，virtual() 执行器的 CompletableFuture 异步请求在此以同步方式发起，JDK 21 以下为null
+     */
+    private static final ExecutorService VIRTUAL_EXECUTOR = VirtualThreads.isSupported()
+        ? VirtualThreads.newExecutor("http-virtual") : null;
+
+    /**
+     * 所有执行器共享的基础 OkHttpClient，各执行器通过 newBuilder() 派生，共用连接池、异步调度器和SSL配置
+     */
+    private static final OkHttpClient BASE_CLIENT = newBaseClient();
+
+    /**
+     * 共享的连接池和异步调度器的统计
+     */
+    private static final PoolMetrics POOL_METRICS = new PoolMetrics(BASE_CLIENT.connectionPool(), BASE_CLIENT.dispatcher());
+
     private volatile OkHttpClient httpClient;
 
+    /**
+     * 异步请求的 OkHttpClient，不包含重试拦截器，失败重试由 RetryCallback 调度，重试间隔内不占用调度线程
+     */
+    private volatile OkHttpClient asyncHttpClient;
+
+    /**
+     * 同步对冲请求的 OkHttpClient，不包含重试拦截器，开启自适应并发限制时每次请求同步获取并发名额
+     */
+    private volatile OkHttpClient hedgeHttpClient;
+
+    /**
+     * 合并相同的并发请求，只在当前请求实例内合并，不同超时、熔断、限流配置的执行器之间不互相等待
+     */
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    /**
+     * 当前生效的重试策略，为null时不重试
+     */
+    private volatile RetryPolicy effectiveRetryPolicy;
+
     public OkHttpRequester(HttpSerializer httpSerializer, boolean requestLogEnable, long timeoutMillis, int retries,
         long retryIntervalMillis, boolean enableH2c) {
         super(httpSerializer, requestLogEnable, timeoutMillis, retries, retryIntervalMillis, enableH2c);
-        httpClient = newClient();
+        initClient();
     }
 
     @Override
     public void setRequestLogEnable(boolean requestLogEnable) {
         super.setRequestLogEnable(requestLogEnable);
-        httpClient = newClient();
+        initClient();
     }
 
     @Override
     public void setTimeoutMillis(long timeoutMillis) {
         super.setTimeoutMillis(timeoutMillis);
-        httpClient = newClient();
+        initClient();
     }
 
     @Override
     public void setRetries(int retries) {
         super.setRetries(retries);
-        httpClient = newClient();
+        initClient();
+    }
+
+    @Override
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        super.setRetryPolicy(retryPolicy);
+        initClient();
+    }
+
+    @Override
+    public void setLimitEnable(boolean limitEnable) {
+        super.setLimitEnable(limitEnable);
+        initClient();
+    }
+
+    @Override
+    public void setCacheEnable(boolean cacheEnable) {
+        super.setCacheEnable(cacheEnable);
+        initClient();
+    }
+
+    @Override
+    public void setRequestCompression(ContentEncoding requestCompression) {
+        super.setRequestCompression(requestCompression);
+        initClient();
+    }
+
+    @Override
+    public void setCompressMinSize(long compressMinSize) {
+        super.setCompressMinSize(compressMinSize);
+        initClient();
+    }
+
+    @Override
+    public void setVirtualThreads(boolean virtualThreads) {
+        if (virtualThreads && !VirtualThreads.isSupported()) {
+            log.warn("virtual threads require JDK 21+, fall back to platform threads, java.version: {}",
+                System.getProperty("java.version"));
+        }
+        super.setVirtualThreads(virtualThreads);
     }
 
     @Override
     public void setEnableH2c(boolean enableH2c) {
         super.setEnableH2c(enableH2c);
-        httpClient = newClient();
+        initClient();
     }
 
-    private OkHttpClient newClient() {
-        OkHttpClient.Builder builder = new OkHttpClient().newBuilder();
+    /**
+     * 根据当前配置初始化同步和异步请求的 OkHttpClient
+     */
+    private void initClient() {
+        RetryPolicy retryPolicy = getRetryPolicy();
+        if (retryPolicy == null && getRetries() > 0) {
+            retryPolicy = new DefaultRetryPolicy(getRetries(), getRetryIntervalMillis());
+        }
+        effectiveRetryPolicy = retryPolicy;
+        asyncHttpClient = newClient(null, false);
+        hedgeHttpClient = newClient(null, true);
+        httpClient = newClient(retryPolicy, true);
+    }
+
+    /**
+     * 从共享的基础 OkHttpClient 派生当前执行器的 OkHttpClient，只覆盖超时、协议、缓存和重试配置
+     * @param retryPolicy 重试策略，为null时不添加重试拦截器
+     * @param sync 是否用于同步请求，同步请求在拦截器中获取自适应并发限制的名额，异步请求在入队前获取
+     */
+    private OkHttpClient newClient(RetryPolicy retryPolicy, boolean sync) {
+        OkHttpClient.Builder builder = BASE_CLIENT.newBuilder();
 
         //配置超时
         builder.connectTimeout(getTimeoutMillis(), TimeUnit.MILLISECONDS);
         builder.readTimeout(getTimeoutMillis(), TimeUnit.MILLISECONDS);
         builder.writeTimeout(getTimeoutMillis(), TimeUnit.MILLISECONDS);
 
+        //配置网络协议
+        if (isEnableH2c()) {
+            builder.protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+        }
+
+        //配置响应缓存，在重试拦截器之前，命中缓存时不发起请求
+        if (isCacheEnable()) {
+            builder.addInterceptor(new HttpCacheInterceptor());
+            if (HttpCache.getDiskCache() != null) {
+                builder.cache(HttpCache.getDiskCache());
+                builder.addNetworkInterceptor(HttpCacheInterceptor.SHARED_CACHE_INTERCEPTOR);
+            }
+        }
+
+        //配置请求体压缩，在重试拦截器之前，每次重试都重新压缩发送
+        if (getRequestCompression() != null) {
+            builder.addInterceptor(new RequestCompressionInterceptor(getRequestCompression(), getCompressMinSize()));
+        }
+
+        //配置重试
+        if (retryPolicy != null) {
+            builder.addInterceptor(new RetryInterceptor(retryPolicy));
+        }
+
+        //配置自适应并发限制，在重试拦截器之后，每次重试都各自获取名额并采样，重试间隔内不占用名额
+        if (isLimitEnable()) {
+            builder.addInterceptor(new AdaptiveLimitInterceptor(sync));
+        }
+
+        //记录对冲请求开始执行的时间，在获取并发名额之后，对冲延迟从请求真正开始执行时计算
+        builder.addInterceptor(HedgedCall.START_INTERCEPTOR);
+        return builder.build();
+    }
+
+    /**
+     * 发起异步请求，失败重试由定时线程池调度，不占用 OkHttp 的调度线程
+     * @return 取消请求的操作
+     * @throws CircuitBreakerOpenException 熔断器打开时快速失败
+     */
+    private Runnable enqueue(Request request, Callback callback) {
+        return enqueue(null, request, callback);
+    }
+
+    /**
+     * 发起异步请求，开启对冲时 GET、HEAD 请求按对冲策略发起，开启自适应并发限制时每次请求在获取并发名额后入队
+     * @return 取消请求的操作
+     * @throws CircuitBreakerOpenException 熔断器打开时快速失败
+     */
+    private Runnable enqueue(Method method, Request request, Callback callback) {
+        request = withMaxStale(request);
+        CircuitBreaker.Permission permission = acquireCircuitBreaker(request);
+        if (permission != null) {
+            callback = new CircuitBreakerCallback(permission, callback);
+        }
+        AdaptiveLimiter limiter = asyncLimiter(request.url().host());
+        if (isHedged(method)) {
+            return new HedgedCall(asyncHttpClient, request, getHedgePolicy(), callback, false, limiter).enqueue()::cancel;
+        }
+        return new RetryCallback(asyncHttpClient, request, effectiveRetryPolicy, callback, limiter).enqueue()::cancel;
+    }
+
+    /**
+     * 发起同步请求，开启对冲时 GET、HEAD 请求按对冲策略发起
+     * @throws CircuitBreakerOpenException 熔断器打开时快速失败
+     * @throws ConcurrencyLimitExceededException 超时时间内没有获取到并发名额
+     */
+    private Response execute(Method method, Request request) throws IOException {
+        request = withMaxStale(request);
+        try {
+            CircuitBreaker.Permission permission = acquireCircuitBreaker(request);
+            if (permission == null) {
+                return isHedged(method) ? executeHedged(request) : httpClient.newCall(request).execute();
+            }
+            long startTime = System.nanoTime();
+            try {
+                Response response = isHedged(method) ? executeHedged(request) : httpClient.newCall(request).execute();
+                permission.onResult(CircuitBreaker.isFailure(response), elapsedMillis(startTime));
+                return response;
+            } catch (IOException | RuntimeException e) {
+                if (Thread.currentThread().isInterrupted() || e instanceof ConcurrencyLimitExceededException
+                    || e.getCause() instanceof ConcurrencyLimitExceededException) {
+                    //调用线程被中断（如取消虚拟线程中的请求）或没有获取到并发名额时请求没有完成，不统计
+                    permission.release();
+                } else {
+                    permission.onResult(true, elapsedMillis(startTime));
+                }
+                throw e;
+            }
+        } finally {
+            StreamRequestBody.release(request.body());
+        }
+    }
+
+    /**
+     * 按对冲策略发起同步请求，第一次请求在当前线程中执行，对冲请求在对冲线程池中执行，不经过异步调度器
+     * 第一次请求结束后最多再等待超时时间
+     */
+    private Response executeHedged(Request request) throws IOException {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        HedgedCall hedgedCall = new HedgedCall(hedgeHttpClient, request, getHedgePolicy(), new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                if (!future.complete(response)) {
+                    //已经超时
+                    response.close();
+                }
+            }
+        }, true).execute();
+        try {
+            try {
+                return future.get(getTimeoutMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                hedgedCall.cancel();
+                //超时的同时请求可能已经结束，以先完成的结果为准
+                future.completeExceptionally(new SocketTimeoutException("hedged http call timeout"));
+                return future.get();
+            }
+        } catch (InterruptedException e) {
+            hedgedCall.cancel();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("http call interrupted");
+        } catch (ExecutionException e) {
+            throw (IOException) e.getCause();
+        }
+    }
+
+    /**
+     * 获取异步请求的并发限制，开启自适应并发限制时使用域名共享的自适应并发限制，否则按 http.async.maxRequestsPerHost 限制
+     */
+    private AdaptiveLimiter asyncLimiter(String host) {
+        if (isLimitEnable()) {
+            return AdaptiveLimiter.forHost(host);
+        }
+        return ASYNC_HOST_LIMITER_MAP.computeIfAbsent(host,
+            h -> new AdaptiveLimiter(h, ASYNC_MAX_REQUESTS_PER_HOST, ASYNC_MAX_REQUESTS_PER_HOST, ASYNC_MAX_REQUESTS_PER_HOST));
+    }
+
+    /**
+     * 开启熔断时获取请求域名的熔断器许可
+     * @return 熔断器许可，未开启熔断时返回null
+     * @throws CircuitBreakerOpenException 熔断器打开时快速失败
+     */
+    private CircuitBreaker.Permission acquireCircuitBreaker(Request request) {
+        if (!isCircuitBreakerEnable()) {
+            return null;
+        }
+        String host = request.url().host();
+        CircuitBreaker.Permission permission = CircuitBreaker.forHost(host).tryAcquirePermission();
+        if (permission == null) {
+            throw new CircuitBreakerOpenException(host);
+        }
+        return permission;
+    }
+
+    /**
+     * 设置了缓存最大过期秒数时，为请求添加 Cache-Control: max-stale，保留请求原有的 Cache-Control 指令
+     * 请求已经指定 max-stale 时以请求为准
+     */
+    private Request withMaxStale(Request request) {
+        CacheControl requestCacheControl = request.cacheControl();
+        if (getCacheMaxStaleSeconds() < 0 || requestCacheControl.maxStaleSeconds() != -1) {
+            return request;
+        }
+        CacheControl.Builder builder = new CacheControl.Builder()
+            .maxStale((int) Math.min(Integer.MAX_VALUE, getCacheMaxStaleSeconds()), TimeUnit.SECONDS);
+        if (requestCacheControl.noCache()) {
+            builder.noCache();
+        }
+        if (requestCacheControl.noStore()) {
+            builder.noStore();
+        }
+        if (requestCacheControl.maxAgeSeconds() != -1) {
+            builder.maxAge(requestCacheControl.maxAgeSeconds(), TimeUnit.SECONDS);
+        }
+        if (requestCacheControl.minFreshSeconds() != -1) {
+            builder.minFresh(requestCacheControl.minFreshSeconds(), TimeUnit.SECONDS);
+        }
+        if (requestCacheControl.onlyIfCached()) {
+            builder.onlyIfCached();
+        }
+        if (requestCacheControl.noTransform()) {
+            builder.noTransform();
+        }
+        return request.newBuilder().cacheControl(builder.build()).build();
+    }
+
+    /**
+     * 开启合并请求时，没有请求体的 GET、HEAD、OPTIONS 请求合并，流式响应不合并
+     */
+    private boolean isSingleFlight(Method method, Object body, Type type) {
+        return isSingleFlightEnable() && SingleFlight.isCoalescible(method, body)
+            && !(isStreamResponse() && (type == InputStream.class || type == Reader.class));
+    }
+
+    private boolean isHedged(Method method) {
+        return getHedgePolicy() != null && (method == Method.GET || method == Method.HEAD);
+    }
+
+    /**
+     * 创建共享的基础 OkHttpClient
+     */
+    private static OkHttpClient newBaseClient() {
+        OkHttpClient.Builder builder = new OkHttpClient().newBuilder();
+
         //配置连接池
         builder.connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_DURATION, TimeUnit.MINUTES));
 
@@ -135,19 +512,28 @@ public final class OkHttpRequester extends AbstractRequester {
         //ConnectionSpec.MODERN_TLS, ConnectionSpec.CLEARTEXT为默认支持的配置
         builder.connectionSpecs(
             Lists.newArrayList(ConnectionSpec.MODERN_TLS, ConnectionSpec.CLEARTEXT, ConnectionSpec.COMPATIBLE_TLS));
-        if (isEnableH2c()) {
-            builder.protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
-        }
 
-        //配置异步请求的并发数
-        Dispatcher dispatcher = new Dispatcher();
+        //配置异步请求的调度线程和并发数，开启虚拟线程且运行在 JDK 21+ 时每个异步请求一个虚拟线程
+        Dispatcher dispatcher;
+        if (VIRTUAL_ENABLE && VirtualThreads.isSupported()) {
+            dispatcher = new Dispatcher(VirtualThreads.newExecutor("http-dispatcher"));
+        } else {
+            if (VIRTUAL_ENABLE) {
+                log.warn("virtual threads require JDK 21+, fall back to platform dispatcher threads, java.version: {}",
+                    System.getProperty("java.version"));
+            }
+            dispatcher = new Dispatcher();
+        }
         dispatcher.setMaxRequests(ASYNC_MAX_REQUESTS);
-        dispatcher.setMaxRequestsPerHost(ASYNC_MAX_REQUESTS_PER_HOST);
+        //调度器由所有执行器共享，单个域名的并发请求数在入队前由各执行器的 AdaptiveLimiter 控制
+        dispatcher.setMaxRequestsPerHost(ASYNC_MAX_REQUESTS);
         builder.dispatcher(dispatcher);
 
-        //配置重试
-        if (getRetries() > 0) {
-            builder.addInterceptor(new RetryInterceptor(getRetries(), getRetryIntervalMillis()));
+        //配置连接池统计和请求耗时统计
+        if (HttpMetrics.ENABLE) {
+            builder.eventListenerFactory(call -> new MetricsEventListener(POOL_METRICS));
+        } else {
+            builder.eventListenerFactory(call -> POOL_METRICS.getEventListener());
         }
 
         //配置忽略客户端SSL证书
@@ -191,93 +577,289 @@ public final class OkHttpRequester extends AbstractRequester {
             HostnameVerifier doNotVerify = (hostname, session) -> true;
             builder.sslSocketFactory(sslContext.getSocketFactory(), trustManager).hostnameVerifier(doNotVerify);
         } catch (Exception e) {
-            if (isRequestLogEnable()) {
-                log.error("ssl certificate config error", e);
-            }
+            log.error("ssl certificate config error", e);
         }
         return builder.build();
     }
 
+    /**
+     * 获取共享的连接池和异步调度器的统计
+     */
+    public static PoolMetrics getPoolMetrics() {
+        return POOL_METRICS;
+    }
+
     /**
      * 同步请求
      */
     @Override
     public <V, T> V execute(Method method, String url, Headers headers, Params params, T body,
         List<FileParam> fileParams, Type type) {
-        OkBuilder builder = OkBuilder.builder(getHttpSerializer(), method, url, headers, params, body, fileParams);
-        long startTime = System.currentTimeMillis();
+        ResultCache resultCache = getResultCache();
+        if (resultCache != null && ResultCache.isCacheable(method, body, fileParams, type)) {
+            return resultCache.get(new ResultKey(method, url, headers, params, type, () -> {
+                CachedResult cachedResult = new CachedResult();
+                cachedResult.setValue(execute(method, url, headers, params, null, null, type, cachedResult));
+                return cachedResult;
+            }));
+        }
+        return execute(method, url, headers, params, body, fileParams, type, null);
+    }
+
+    /**
+     * 同步请求
+     * @param cachedResult 结果缓存的加载结果，不为null时先读取完整响应体，记录响应体字节数和是否可以缓存
+     */
+    private <V, T> V execute(Method method, String url, Headers headers, Params params, T body,
+        List<FileParam> fileParams, Type type, CachedResult cachedResult) {
+        OkBuilder builder = OkBuilder.builder(getHttpSerializer(), getHttpCodec(), method, url, headers, params, body,
+            fileParams);
+        long startTime = System.nanoTime();
         try {
-            Response response = httpClient.newCall(builder.build()).execute();
+            Request request = builder.build();
+            Response response = isSingleFlight(method, body, type) ? singleFlight.execute(request,
+                getTimeoutMillis(), () -> execute(method, request)) : execute(method, request);
+            if (cachedResult != null) {
+                response = bufferResponse(response, cachedResult);
+            }
             V result = serialize(response, type);
             //log
-            if (isRequestLogEnable()) {
-                long executionTime = System.currentTimeMillis() - startTime;
-                V resultForLog = type == InputStream.class || type == Reader.class ? null : result;
-                logResult(url, method, headers, params, body, resultForLog, response.code(), null, executionTime);
-            }
+            V resultForLog = type == InputStream.class || type == Reader.class ? null : result;
+            logResult(url, method, headers, params, body, resultForLog, response.code(), null,
+                elapsedMillis(startTime));
 
             return result;
         } catch (IOException e) {
             //log
-            if (isRequestLogEnable()) {
-                long executionTime = System.currentTimeMillis() - startTime;
-                logResult(url, method, headers, params, body, null, ERROR_CODE, e, executionTime);
-            }
+            logResult(url, method, headers, params, body, null, ERROR_CODE, e, elapsedMillis(startTime));
             throw new HttpException("http call execute error", e);
+        } catch (CircuitBreakerOpenException | ConcurrencyLimitExceededException e) {
+            //log
+            logResult(url, method, headers, params, body, null, ERROR_CODE, e, elapsedMillis(startTime));
+            throw e;
         }
     }
 
+    /**
+     * 读取完整响应体，以响应体字节数作为结果缓存的权重
+     */
+    private Response bufferResponse(Response response, CachedResult cachedResult) throws IOException {
+        cachedResult.setCacheable(response.isSuccessful());
+        ResponseBody responseBody = response.body();
+        if (responseBody == null) {
+            return response;
+        }
+        byte[] bytes = responseBody.bytes();
+        cachedResult.setWeight(bytes.length);
+        return response.newBuilder().body(ResponseBody.create(bytes, responseBody.contentType())).build();
+    }
+
     /**
      * 异步请求
      */
     @Override
     public <T> void enqueue(Method method, String url, Headers headers, Params params, T body,
         List<FileParam> fileParams, RequestCallback callback) {
-        OkBuilder builder = OkBuilder.builder(getHttpSerializer(), method, url, headers, params, body, fileParams);
-        long startTime = System.currentTimeMillis();
-        httpClient.newCall(builder.build()).enqueue(new Callback() {
+        OkBuilder builder = OkBuilder.builder(getHttpSerializer(), getHttpCodec(), method, url, headers, params, body,
+            fileParams);
+        long startTime = System.nanoTime();
+        try {
+            enqueue(method, builder.build(), new Callback() {
 
-            @Override
-            public void onFailure(Call call, IOException e) {
+                @Override
+                public void onFailure(Call call, IOException e) {
 
-                //log
-                if (isRequestLogEnable()) {
-                    long executionTime = System.currentTimeMillis() - startTime;
-                    logResult(url, method, headers, params, body, null, ERROR_CODE, e, executionTime);
+                    //log
+                    logResult(url, method, headers, params, body, null, ERROR_CODE, e, elapsedMillis(startTime));
+                    if (null == callback || CANCELED.equals(e.getMessage())) {
+                        //Http请求已经取消
+                        return;
+                    }
+                    callback.failure(e.getMessage());
                 }
-                if (null == callback || CANCELED.equals(e.getMessage())) {
-                    //Http请求已经取消
-                    return;
+
+                @Override
+                public void onResponse(Call call, Response response) throws IOException {
+                    ResponseBody responseBody = response.body();
+                    String responseStr = null;
+                    if (responseBody != null) {
+                        responseStr = responseBody.string();
+                        responseBody.close();
+                    }
+                    //log
+                    logResult(url, method, headers, params, body, responseStr, response.code(), null,
+                        elapsedMillis(startTime));
+                    if (response.isSuccessful()) {
+                        if (callback != null) {
+                            callback.success(responseStr);
+                        }
+                    } else {
+                        if (null == callback || CANCELED.equals(responseStr)) {
+                            //Http请求已经取消
+                            return;
+                        }
+                        callback.failure(responseStr);
+                    }
                 }
+            });
+        } catch (CircuitBreakerOpenException e) {
+            //log
+            logResult(url, method, headers, params, body, null, ERROR_CODE, e, elapsedMillis(startTime));
+            if (callback != null) {
                 callback.failure(e.getMessage());
             }
+        }
+    }
 
+    /**
+     * 异步请求，返回 CompletableFuture
+     */
+    @Override
+    public <V, T> CompletableFuture<V> executeFuture(Method method, String url, Headers headers, Params params, T body,
+        List<FileParam> fileParams, Type type) {
+        OkBuilder builder = OkBuilder.builder(getHttpSerializer(), getHttpCodec(), method, url, headers, params, body,
+            fileParams);
+        AtomicReference<Runnable> canceller = new AtomicReference<>();
+        CompletableFuture<V> future = new CompletableFuture<V>() {
             @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                ResponseBody responseBody = response.body();
-                String responseStr = null;
-                if (responseBody != null) {
-                    responseStr = responseBody.string();
-                    responseBody.close();
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                //取消 Future 时同时取消Http请求和等待中的重试
+                Runnable cancel = canceller.get();
+                if (cancel != null) {
+                    cancel.run();
                 }
-                //log
-                if (isRequestLogEnable()) {
-                    long executionTime = System.currentTimeMillis() - startTime;
-                    logResult(url, method, headers, params, body, responseStr, response.code(), null, executionTime);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        long startTime = System.nanoTime();
+        if (isVirtualThreads() && VIRTUAL_EXECUTOR != null) {
+            //在虚拟线程中发起同步请求，阻塞等待时不占用平台线程
+            Future<?> task = VIRTUAL_EXECUTOR.submit(() -> {
+                try {
+                    Response response = execute(method, builder.build());
+                    completeFuture(future, response, method, url, headers, params, body, type, startTime);
+                } catch (IOException e) {
+                    //log
+                    logResult(url, method, headers, params, body, null, ERROR_CODE, e, elapsedMillis(startTime));
+                    future.completeExceptionally(new HttpException("http call execute error", e));
+                } catch (RuntimeException e) {
+                    //log
+                    logResult(url, method, headers, params, body, null, ERROR_CODE, e, elapsedMillis(startTime));
+                    future.completeExceptionally(e);
                 }
-                if (response.isSuccessful()) {
-                    if (callback != null) {
-                        callback.success(responseStr);
-                    }
-                } else {
-                    if (null == callback || CANCELED.equals(responseStr)) {
-                        //Http请求已经取消
-                        return;
+            });
+            canceller.set(() -> task.cancel(true));
+            if (future.isCancelled()) {
+                task.cancel(true);
+            }
+            return future;
+        }
+        try {
+            canceller.set(enqueue(method, builder.build(), new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    //log
+                    logResult(url, method, headers, params, body, null, ERROR_CODE, e, elapsedMillis(startTime));
+                    future.completeExceptionally(new HttpException("http call execute error", e));
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    //在回调线程池中读取并反序列化响应，尽快释放 OkHttp 的调度线程
+                    Executor completionExecutor = getCompletionExecutor() == null ? ASYNC_COMPLETION_EXECUTOR
+                        : getCompletionExecutor();
+                    try {
+                        completionExecutor.execute(
+                            () -> completeFuture(future, response, method, url, headers, params, body, type, startTime));
+                    } catch (RejectedExecutionException e) {
+                        //默认线程池由调用线程执行被拒绝的任务，只有 completeOn 指定的线程池会拒绝
+                        response.close();
+                        future.completeExceptionally(new HttpException("http call completion rejected", e));
                     }
-                    callback.failure(responseStr);
                 }
+            }));
+        } catch (CircuitBreakerOpenException e) {
+            //log
+            logResult(url, method, headers, params, body, null, ERROR_CODE, e, elapsedMillis(startTime));
+            future.completeExceptionally(e);
+            return future;
+        }
+        if (future.isCancelled()) {
+            canceller.get().run();
+        }
+        return future;
+    }
+
+    /**
+     * 以 ByteBuffer 分块发布响应体，在回调线程池（开启虚拟线程时为虚拟线程）中读取连接并发布
+     */
+    @Override
+    public <T> Publisher<ByteBuffer> executeBodyPublisher(Method method, String url, Headers headers, Params params,
+        T body, List<FileParam> fileParams) {
+        OkBuilder builder = OkBuilder.builder(getHttpSerializer(), getHttpCodec(), method, url, headers, params, body,
+            fileParams);
+        Executor drainExecutor;
+        if (isVirtualThreads() && VIRTUAL_EXECUTOR != null) {
+            drainExecutor = VIRTUAL_EXECUTOR;
+        } else {
+            drainExecutor = getCompletionExecutor() == null ? ASYNC_COMPLETION_EXECUTOR : getCompletionExecutor();
+        }
+        return new BodyPublisher(callback -> {
+            long startTime = System.nanoTime();
+            try {
+                return enqueue(method, builder.build(), new Callback() {
+                    @Override
+                    public void onFailure(Call call, IOException e) {
+                        //log
+                        logResult(url, method, headers, params, body, null, ERROR_CODE, e, elapsedMillis(startTime));
+                        callback.onFailure(call, e);
+                    }
+
+                    @Override
+                    public void onResponse(Call call, Response response) throws IOException {
+                        //log，响应体以流的方式发布，不记录
+                        logResult(url, method, headers, params, body, null, response.code(), null,
+                            elapsedMillis(startTime));
+                        callback.onResponse(call, response);
+                    }
+                });
+            } catch (CircuitBreakerOpenException e) {
+                //log
+                logResult(url, method, headers, params, body, null, ERROR_CODE, e, elapsedMillis(startTime));
+                throw e;
+            }
+        }, drainExecutor);
+    }
+
+    /**
+     * 反序列化响应并完成 CompletableFuture，非2xx响应以 HttpException 异常结束
+     */
+    private <V, T> void completeFuture(CompletableFuture<V> future, Response response, Method method, String url,
+        Headers headers, Params params, T body, Type type, long startTime) {
+        if (future.isDone()) {
+            //已经被取消
+            response.close();
+            return;
+        }
+        try {
+            if (!response.isSuccessful()) {
+                String responseStr = serialize(response, String.class);
+                logResult(url, method, headers, params, body, responseStr, response.code(), null,
+                    elapsedMillis(startTime));
+                future.completeExceptionally(
+                    new HttpException("http call failed, code: {}, response: {}", response.code(), responseStr));
+                return;
             }
-        });
+            V result = serialize(response, type);
+            //log
+            V resultForLog = type == InputStream.class || type == Reader.class ? null : result;
+            logResult(url, method, headers, params, body, resultForLog, response.code(), null,
+                elapsedMillis(startTime));
+            future.complete(result);
+        } catch (Exception e) {
+            response.close();
+            future.completeExceptionally(e);
+        }
     }
 
     /**
@@ -287,24 +869,30 @@ public final class OkHttpRequester extends AbstractRequester {
     public void download(String url, Headers headers, Params params, String targetPath, boolean isAsync) {
         OkBuilder builder = OkBuilder.builder(getHttpSerializer(), Method.GET, url, headers, params, null, null);
         if (isAsync) {
-            httpClient.newCall(builder.build()).enqueue(new Callback() {
-                @Override
-                public void onFailure(Call call, IOException e) {
-                    if (isRequestLogEnable()) {
-                        log.error("download error, url: {}, targetPath: {}, isAsync: {}", url, targetPath, isAsync, e);
+            try {
+                enqueue(builder.build(), new Callback() {
+                    @Override
+                    public void onFailure(Call call, IOException e) {
+                        if (isRequestLogEnable()) {
+                            log.error("download error, url: {}, targetPath: {}, isAsync: {}", url, targetPath, isAsync, e);
+                        }
                     }
-                }
 
-                @Override
-                public void onResponse(Call call, Response response) {
-                    writeResponse(response, targetPath);
+                    @Override
+                    public void onResponse(Call call, Response response) {
+                        writeResponse(response, targetPath);
+                    }
+                });
+            } catch (CircuitBreakerOpenException e) {
+                if (isRequestLogEnable()) {
+                    log.error("download error, url: {}, targetPath: {}, isAsync: {}", url, targetPath, isAsync, e);
                 }
-            });
+            }
         } else {
             try {
-                Response response = httpClient.newCall(builder.build()).execute();
+                Response response = execute(null, builder.build());
                 writeResponse(response, targetPath);
-            } catch (IOException e) {
+            } catch (IOException | CircuitBreakerOpenException | ConcurrencyLimitExceededException e) {
                 if (isRequestLogEnable()) {
                     log.error("download error, url: {}, targetPath: {}, isAsync: {}", url, targetPath, isAsync, e);
                 }
@@ -319,24 +907,30 @@ public final class OkHttpRequester extends AbstractRequester {
     public void download(String url, Headers headers, Params params, OutputStream outputStream, boolean isAsync) {
         OkBuilder builder = OkBuilder.builder(getHttpSerializer(), Method.GET, url, headers, params, null, null);
         if (isAsync) {
-            httpClient.newCall(builder.build()).enqueue(new Callback() {
-                @Override
-                public void onFailure(Call call, IOException e) {
-                    if (isRequestLogEnable()) {
-                        log.error("download error, url: {}, isAsync: {}", url, isAsync, e);
+            try {
+                enqueue(builder.build(), new Callback() {
+                    @Override
+                    public void onFailure(Call call, IOException e) {
+                        if (isRequestLogEnable()) {
+                            log.error("download error, url: {}, isAsync: {}", url, isAsync, e);
+                        }
                     }
-                }
 
-                @Override
-                public void onResponse(Call call, Response response) {
-                    writeResponse(response, outputStream);
+                    @Override
+                    public void onResponse(Call call, Response response) {
+                        writeResponse(response, outputStream);
+                    }
+                });
+            } catch (CircuitBreakerOpenException e) {
+                if (isRequestLogEnable()) {
+                    log.error("download error, url: {}, isAsync: {}", url, isAsync, e);
                 }
-            });
+            }
         } else {
             try {
-                Response response = httpClient.newCall(builder.build()).execute();
+                Response response = execute(null, builder.build());
                 writeResponse(response, outputStream);
-            } catch (IOException e) {
+            } catch (IOException | CircuitBreakerOpenException | ConcurrencyLimitExceededException e) {
                 if (isRequestLogEnable()) {
                     log.error("download error, url: {}, isAsync: {}", url, isAsync, e);
                 }
@@ -344,6 +938,58 @@ public final class OkHttpRequester extends AbstractRequester {
         }
     }
 
+    /**
+     * 分段并发下载文件到本地，各段请求经过熔断、并发限制和重试，开启虚拟线程时各段在虚拟线程中下载
+     */
+    @Override
+    public void downloadRanged(String url, Headers headers, Params params, String targetPath, int segments) {
+        OkBuilder builder = OkBuilder.builder(getHttpSerializer(), Method.GET, url, headers, params, null, null);
+        Executor executor = isVirtualThreads() ? VIRTUAL_EXECUTOR : null;
+        long startTime = System.nanoTime();
+        try {
+            long length = new RangedDownload(request -> execute(null, request), builder.build(), targetPath, segments,
+                executor).execute();
+            if (isRequestLogEnable()) {
+                log.info("ranged download success, url: {}, targetPath: {}, length: {}, execution time: {}ms", url,
+                    targetPath, length, elapsedMillis(startTime));
+            }
+        } catch (HttpException e) {
+            if (isRequestLogEnable()) {
+                log.error("ranged download error, url: {}, targetPath: {}", url, targetPath, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 断点续传上传文件，各请求经过熔断、并发限制和重试，开启虚拟线程时各部分在虚拟线程中上传
+     */
+    @Override
+    public String uploadResumable(String url, Headers headers, Params params, FileParam fileParam, long chunkSize,
+        int parallelism) {
+        if (fileParam == null || fileParam.getFile() == null) {
+            throw new HttpException("resumable upload requires a file param with a file, url: {}", url);
+        }
+        OkBuilder builder = OkBuilder.builder(getHttpSerializer(), Method.GET, url, headers, params, null, null);
+        Executor executor = isVirtualThreads() ? VIRTUAL_EXECUTOR : null;
+        File file = fileParam.getFile();
+        long startTime = System.nanoTime();
+        try {
+            String location = new ResumableUpload(request -> execute(null, request), builder.build(), file,
+                fileParam.getFileName(), chunkSize, parallelism, executor).execute();
+            if (isRequestLogEnable()) {
+                log.info("resumable upload success, url: {}, file: {}, location: {}, length: {}, execution time: {}ms",
+                    url, file, location, file.length(), elapsedMillis(startTime));
+            }
+            return location;
+        } catch (HttpException e) {
+            if (isRequestLogEnable()) {
+                log.error("resumable upload error, url: {}, file: {}", url, file, e);
+            }
+            throw e;
+        }
+    }
+
     /**
      * 将 Response 反序列化为对象
      */
@@ -354,6 +1000,9 @@ public final class OkHttpRequester extends AbstractRequester {
             if (responseBody == null) {
                 return null;
             }
+            if (isStreamResponse() && (InputStream.class == type || Reader.class == type)) {
+                return streamResponse(response, responseBody, type);
+            }
             V v;
             if (byte[].class == type || Byte[].class == type) {
                 v = (V)responseBody.bytes();
@@ -364,16 +1013,17 @@ public final class OkHttpRequester extends AbstractRequester {
                 v = (V)inputStream;
             } else if (Reader.class == type) {
                 InputStream inputStream = IOUtils.cloneInputStream(responseBody.byteStream());
-                MediaType contentType = responseBody.contentType();
-                Charset charset = contentType != null ? contentType.charset(StandardCharsets.UTF_8)
-                    : StandardCharsets.UTF_8;
-                if (null == charset) {
-                    charset = StandardCharsets.UTF_8;
-                }
-                InputStreamReader inputStreamReader = new InputStreamReader(inputStream, charset);
+                InputStreamReader inputStreamReader = new InputStreamReader(inputStream, getCharset(responseBody));
                 v = (V)inputStreamReader;
             } else {
-                v = getHttpSerializer().from(responseBody.string(), type);
+                HttpCodec codec = HttpCodecs.get(responseBody.contentType(), getHttpCodec());
+                if (codec != null) {
+                    //按响应的 Content-Type 使用对应的编解码器，优先使用执行器指定的编解码器
+                    v = codec.decode(responseBody.byteStream(), type);
+                } else {
+                    //直接从字节流反序列化，避免先把整个响应体解码为字符串
+                    v = getHttpSerializer().from(responseBody.byteStream(), getCharset(responseBody), type);
+                }
             }
             responseBody.close();
             return v;
@@ -383,7 +1033,36 @@ public final class OkHttpRequester extends AbstractRequester {
     }
 
     /**
-     * 将 Response 写到本地文件
+     * 返回基于连接的流，流关闭时关闭 Response 并释放连接
+     */
+    private <V> V streamResponse(Response response, ResponseBody responseBody, Type type) {
+        InputStream inputStream = new FilterInputStream(responseBody.byteStream()) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    response.close();
+                }
+            }
+        };
+        if (InputStream.class == type) {
+            return (V)inputStream;
+        }
+        return (V)new InputStreamReader(inputStream, getCharset(responseBody));
+    }
+
+    /**
+     * 获取响应体的编码，默认为UTF-8
+     */
+    private Charset getCharset(ResponseBody responseBody) {
+        MediaType contentType = responseBody.contentType();
+        Charset charset = contentType != null ? contentType.charset(StandardCharsets.UTF_8) : StandardCharsets.UTF_8;
+        return null == charset ? StandardCharsets.UTF_8 : charset;
+    }
+
+    /**
+     * 将 Response 写到本地文件，okio 的段直接写入 FileChannel，不经过中间的字节数组
      */
     private void writeResponse(Response response, String targetPath) {
         ResponseBody body = checkResponse(response);
@@ -391,12 +1070,14 @@ public final class OkHttpRequester extends AbstractRequester {
             return;
         }
         FileUtils.createFile(targetPath);
-        try (FileOutputStream fileOutputStream = new FileOutputStream(new File(targetPath));
-             InputStream inputStream = body.byteStream()) {
-            int readLength;
-            byte[] buffer = new byte[4 * 1024];
-            while ((readLength = inputStream.read(buffer)) != -1) {
-                fileOutputStream.write(buffer, 0, readLength);
+        try (FileChannel channel = FileChannel.open(Paths.get(targetPath), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DownloadSink sink = new DownloadSink(channel);
+            body.source().readAll(sink);
+            sink.close();
+            if (isRequestLogEnable()) {
+                log.info("download success, url: {}, targetPath: {}, bytes: {}, bytes/s: {}", response.request().url(),
+                    targetPath, sink.getBytesWritten(), sink.getBytesPerSecond());
             }
         } catch (IOException e) {
             if (isRequestLogEnable()) {
@@ -408,19 +1089,17 @@ public final class OkHttpRequester extends AbstractRequester {
     }
 
     /**
-     * 将 Response 写到 OutputStream
+     * 将 Response 写到 OutputStream，不关闭 OutputStream
      */
     private void writeResponse(Response response, OutputStream outputStream) {
         ResponseBody body = checkResponse(response);
         if (body == null) {
             return;
         }
-        try (InputStream inputStream = body.byteStream()) {
-            int readLength;
-            byte[] buffer = new byte[4 * 1024];
-            while ((readLength = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, readLength);
-            }
+        try {
+            Sink sink = Okio.sink(outputStream);
+            body.source().readAll(sink);
+            sink.flush();
         } catch (IOException e) {
             if (isRequestLogEnable()) {
                 log.error("downloaded resource write to local error", e);
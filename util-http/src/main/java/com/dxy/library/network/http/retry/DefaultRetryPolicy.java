@@ -0,0 +1,164 @@
+package com.dxy.library.network.http.retry;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import com.dxy.library.network.http.constant.Method;
+import com.dxy.library.util.common.StringUtils;
+import com.dxy.library.util.config.ConfigUtils;
+import com.google.common.collect.Sets;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * 默认重试策略：指数退避加全抖动，只对指定的状态码和异常重试
+ * 连接失败的异常（请求未发出）对所有请求方式重试，其他异常只对幂等请求重试
+ * @author duanxinyuan
+ * 2026/10/18 15:20
+ */
+public class DefaultRetryPolicy implements RetryPolicy {
+
+    /**
+     * 默认重试的状态码
+     */
+    public static final Set<Integer> RETRY_STATUS_CODES_DEFAULT = parseStatusCodes(
+        ConfigUtils.getAsString("http.retry.statusCodes", "408,429,500,502,503,504"));
+
+    /**
+     * 默认最大重试间隔毫秒数，默认为10秒
+     */
+    public static final long MAX_INTERVAL_MILLIS_DEFAULT = ConfigUtils.getAsLong("http.retry.maxIntervalMillis", 10000L);
+
+    /**
+     * 幂等的请求方式
+     */
+    private static final Set<String> IDEMPOTENT_METHODS = Sets.newHashSet(Method.GET.name(), Method.HEAD.name(),
+        Method.PUT.name(), Method.DELETE.name(), Method.OPTIONS.name(), Method.TRACE.name());
+
+    /**
+     * 最大重试次数
+     */
+    private final int maxRetries;
+
+    /**
+     * 基础重试间隔毫秒数，第 n 次重试的间隔在 0 到 min(maxIntervalMillis, baseIntervalMillis * 2^n) 之间随机
+     */
+    private final long baseIntervalMillis;
+
+    /**
+     * 最大重试间隔毫秒数
+     */
+    private long maxIntervalMillis = MAX_INTERVAL_MILLIS_DEFAULT;
+
+    /**
+     * 重试的状态码
+     */
+    private Set<Integer> retryStatusCodes = RETRY_STATUS_CODES_DEFAULT;
+
+    /**
+     * 重试的异常类型
+     */
+    private Set<Class<? extends IOException>> retryExceptions = new HashSet<>(Arrays.<Class<? extends IOException>>asList(
+        ConnectException.class, NoRouteToHostException.class, UnknownHostException.class, SocketTimeoutException.class));
+
+    /**
+     * 是否启用重试预算
+     */
+    private boolean retryBudgetEnable = true;
+
+    public DefaultRetryPolicy(int maxRetries, long baseIntervalMillis) {
+        this.maxRetries = maxRetries;
+        this.baseIntervalMillis = baseIntervalMillis;
+    }
+
+    /**
+     * 设置最大重试间隔毫秒数
+     */
+    public DefaultRetryPolicy maxIntervalMillis(long maxIntervalMillis) {
+        this.maxIntervalMillis = maxIntervalMillis;
+        return this;
+    }
+
+    /**
+     * 设置重试的状态码
+     */
+    public DefaultRetryPolicy retryOnStatus(Integer... statusCodes) {
+        this.retryStatusCodes = Sets.newHashSet(statusCodes);
+        return this;
+    }
+
+    /**
+     * 设置重试的异常类型，包含子类
+     */
+    @SafeVarargs
+    public final DefaultRetryPolicy retryOnException(Class<? extends IOException>... exceptions) {
+        this.retryExceptions = Sets.newHashSet(exceptions);
+        return this;
+    }
+
+    /**
+     * 设置是否启用重试预算
+     */
+    public DefaultRetryPolicy retryBudgetEnable(boolean retryBudgetEnable) {
+        this.retryBudgetEnable = retryBudgetEnable;
+        return this;
+    }
+
+    @Override
+    public boolean shouldRetry(Request request, Response response, IOException e, int retryCount) {
+        if (retryCount >= maxRetries) {
+            return false;
+        }
+        if (e != null) {
+            //请求可能已经发出，非幂等请求只在连接失败时重试
+            if (!isIdempotent(request) && !isConnectFailure(e)) {
+                return false;
+            }
+            return retryExceptions.stream().anyMatch(type -> type.isInstance(e));
+        }
+        return response != null && retryStatusCodes.contains(response.code());
+    }
+
+    @Override
+    public long backoffMillis(int retryCount) {
+        if (baseIntervalMillis <= 0) {
+            return 0;
+        }
+        //全抖动：在 0 到指数退避上限之间均匀随机，避免客户端同时重试
+        long ceiling = retryCount >= 62 ? maxIntervalMillis : Math.min(maxIntervalMillis, baseIntervalMillis << retryCount);
+        if (ceiling <= 0) {
+            ceiling = maxIntervalMillis;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    @Override
+    public RetryBudget retryBudget(Request request) {
+        return retryBudgetEnable ? RetryPolicy.super.retryBudget(request) : null;
+    }
+
+    private static boolean isIdempotent(Request request) {
+        return IDEMPOTENT_METHODS.contains(request.method());
+    }
+
+    private static boolean isConnectFailure(IOException e) {
+        return e instanceof ConnectException || e instanceof UnknownHostException || e instanceof NoRouteToHostException;
+    }
+
+    private static Set<Integer> parseStatusCodes(String statusCodes) {
+        if (StringUtils.isBlank(statusCodes)) {
+            return Sets.newHashSet();
+        }
+        return Arrays.stream(statusCodes.split(",")).map(String::trim).filter(StringUtils::isNotEmpty)
+            .map(Integer::valueOf).collect(Collectors.toSet());
+    }
+
+}
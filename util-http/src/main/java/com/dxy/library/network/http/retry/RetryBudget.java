@@ -0,0 +1,103 @@
+package com.dxy.library.network.http.retry;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.dxy.library.util.common.NumberUtils;
+import com.dxy.library.util.config.ConfigUtils;
+import com.google.common.collect.Maps;
+
+/**
+ * 重试预算（令牌桶），按域名共享
+ * 每个成功的请求存入 ratio 个令牌，每次重试取出 1 个令牌，令牌不足时不再重试，
+ * 使重试流量不超过成功流量的 ratio 比例；另外每秒补充 minRetriesPerSecond 个令牌，保证低流量时也能重试
+ * @author duanxinyuan
+ * 2026/10/18 15:20
+ */
+public class RetryBudget {
+
+    /**
+     * 默认重试流量占成功流量的比例，默认为0.1
+     */
+    public static final double RATIO_DEFAULT = NumberUtils.toDouble(ConfigUtils.getAsString("http.retry.budgetRatio", "0.1"), 0.1D);
+
+    /**
+     * 默认每秒补充的令牌数，默认为1
+     */
+    public static final double MIN_RETRIES_PER_SECOND_DEFAULT = NumberUtils.toDouble(ConfigUtils.getAsString("http.retry.budgetMinPerSecond", "1"), 1D);
+
+    /**
+     * 默认令牌桶容量，默认为10
+     */
+    public static final int MAX_TOKENS_DEFAULT = ConfigUtils.getAsInt("http.retry.budgetMaxTokens", 10);
+
+    /**
+     * Map<域名, RetryBudget>
+     */
+    private static final Map<String, RetryBudget> HOST_BUDGET_MAP = Maps.newConcurrentMap();
+
+    private final double ratio;
+
+    private final double minRetriesPerSecond;
+
+    private final double maxTokens;
+
+    private double tokens;
+
+    private long lastRefillNanos;
+
+    public RetryBudget(double ratio, double minRetriesPerSecond, int maxTokens) {
+        this.ratio = ratio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 获取域名共享的重试预算
+     */
+    public static RetryBudget forHost(String host) {
+        return HOST_BUDGET_MAP.computeIfAbsent(host, h -> new RetryBudget(RATIO_DEFAULT, MIN_RETRIES_PER_SECOND_DEFAULT, MAX_TOKENS_DEFAULT));
+    }
+
+    /**
+     * 请求成功，存入令牌
+     */
+    public synchronized void onSuccess() {
+        refill();
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * 尝试取出一个重试令牌
+     * @return 是否允许重试
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        //容忍浮点累加误差
+        if (tokens >= 1 - 1e-9) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 当前剩余的令牌数
+     */
+    public synchronized double getTokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        if (minRetriesPerSecond > 0) {
+            double seconds = (now - lastRefillNanos) / (double)TimeUnit.SECONDS.toNanos(1);
+            tokens = Math.min(maxTokens, tokens + seconds * minRetriesPerSecond);
+        }
+        lastRefillNanos = now;
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.dxy.library.network.http.retry;
+
+import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.dxy.library.network.http.body.StreamRequestBody;
+import com.dxy.library.network.http.limit.AdaptiveLimiter;
+import com.dxy.library.util.common.ExecutorUtils;
+import com.dxy.library.util.config.ConfigUtils;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * 异步请求的重试回调
+ * 请求失败时由定时线程池在重试间隔后重新发起请求，重试间隔内不占用 OkHttp 的调度线程和并发请求数
+ * @author duanxinyuan
+ * 2026/10/18 16:40
+ */
+@SuppressWarnings("NullableProblems")
+public class RetryCallback implements Callback {
+
+    /**
+     * 异步重试调度的线程数，默认为1，调度线程只负责重新发起请求，不会阻塞
+     */
+    private static final int RETRY_SCHEDULER_THREADS = ConfigUtils.getAsInt("http.retry.schedulerThreads", 1);
+
+    /**
+     * 异步重试调度的定时线程池
+     */
+    private static final ScheduledExecutorService RETRY_SCHEDULER = ExecutorUtils.getScheduledExecutorService(
+        "http-retry", RETRY_SCHEDULER_THREADS);
+
+    private final OkHttpClient httpClient;
+
+    private final Request request;
+
+    /**
+     * 重试策略，为null时不重试
+     */
+    private final RetryPolicy retryPolicy;
+
+    private final RetryBudget retryBudget;
+
+    private final Callback callback;
+
+    /**
+     * 自适应并发限制，为null时不限制，每次请求（包括重试）各自获取并发名额
+     */
+    private final AdaptiveLimiter limiter;
+
+    private volatile Call call;
+
+    private volatile boolean canceled;
+
+    private int retryCount;
+
+    public RetryCallback(OkHttpClient httpClient, Request request, RetryPolicy retryPolicy, Callback callback) {
+        this(httpClient, request, retryPolicy, callback, null);
+    }
+
+    /**
+     * @param limiter 自适应并发限制，为null时不限制
+     */
+    public RetryCallback(OkHttpClient httpClient, Request request, RetryPolicy retryPolicy, Callback callback,
+        AdaptiveLimiter limiter) {
+        this.httpClient = httpClient;
+        this.request = request;
+        this.retryPolicy = retryPolicy;
+        this.retryBudget = retryPolicy == null ? null : retryPolicy.retryBudget(request);
+        this.callback = callback;
+        this.limiter = limiter;
+    }
+
+    /**
+     * 发起异步请求
+     */
+    public RetryCallback enqueue() {
+        Call newCall = httpClient.newCall(request);
+        call = newCall;
+        if (canceled) {
+            newCall.cancel();
+        }
+        if (limiter != null) {
+            limiter.enqueue(newCall, this);
+        } else {
+            newCall.enqueue(this);
+        }
+        return this;
+    }
+
+    /**
+     * 取消请求，包括正在等待的重试
+     */
+    public void cancel() {
+        canceled = true;
+        Call current = call;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    @Override
+    public void onFailure(Call call, IOException e) {
+        if (shouldRetry(null, e)) {
+            scheduleRetry();
+            return;
+        }
+        StreamRequestBody.release(request.body());
+        callback.onFailure(call, e);
+    }
+
+    @Override
+    public void onResponse(Call call, Response response) throws IOException {
+        if (retryBudget != null && response.isSuccessful()) {
+            retryBudget.onSuccess();
+        }
+        if (shouldRetry(response, null)) {
+            response.close();
+            scheduleRetry();
+            return;
+        }
+        StreamRequestBody.release(request.body());
+        callback.onResponse(call, response);
+    }
+
+    private boolean shouldRetry(Response response, IOException e) {
+        if (canceled || retryPolicy == null || !retryPolicy.shouldRetry(request, response, e, retryCount)
+            || StreamRequestBody.isOneShot(request.body())) {
+            return false;
+        }
+        return retryBudget == null || retryBudget.tryAcquire();
+    }
+
+    private void scheduleRetry() {
+        long backoffMillis = retryPolicy.backoffMillis(retryCount);
+        retryCount++;
+        if (backoffMillis > 0) {
+            RETRY_SCHEDULER.schedule(this::enqueue, backoffMillis, TimeUnit.MILLISECONDS);
+        } else {
+            enqueue();
+        }
+    }
+
+}
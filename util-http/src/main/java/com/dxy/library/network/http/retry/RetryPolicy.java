@@ -0,0 +1,37 @@
+package com.dxy.library.network.http.retry;
+
+import java.io.IOException;
+
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * 重试策略
+ * @author duanxinyuan
+ * 2026/10/18 15:20
+ */
+public interface RetryPolicy {
+
+    /**
+     * 是否重试
+     * @param request 请求
+     * @param response 响应，请求异常时为null
+     * @param e 请求异常，请求成功时为null
+     * @param retryCount 已经重试的次数
+     */
+    boolean shouldRetry(Request request, Response response, IOException e, int retryCount);
+
+    /**
+     * 第 retryCount + 1 次重试前等待的毫秒数
+     * @param retryCount 已经重试的次数
+     */
+    long backoffMillis(int retryCount);
+
+    /**
+     * 重试预算，为null时不限制重试流量
+     */
+    default RetryBudget retryBudget(Request request) {
+        return RetryBudget.forHost(request.url().host());
+    }
+
+}
@@ -1,8 +1,18 @@
 package com.dxy.library.network.http.serializer;
 
 import com.dxy.library.json.jackson.JacksonUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 /**
  * 序列化实现
@@ -11,6 +21,13 @@ import java.lang.reflect.Type;
  */
 public final class DefaultSerializer implements HttpSerializer {
 
+    /**
+     * 字节流反序列化和写入 Writer 使用的 ObjectMapper，JacksonUtil 只提供字符串方法，此处与 JacksonUtil 一样忽略未知字段
+     */
+    private static final ObjectMapper STREAM_MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+        .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
     /**
      * JSON反序列化
      */
@@ -19,6 +36,28 @@ public final class DefaultSerializer implements HttpSerializer {
         return JacksonUtil.from(json, type);
     }
 
+    /**
+     * 直接从字节流反序列化，UTF-8 编码时由 Jackson 直接解析字节，不再生成中间字符串
+     */
+    @Override
+    public <V> V from(InputStream inputStream, Charset charset, Type type) throws IOException {
+        JsonParser parser;
+        if (charset == null || StandardCharsets.UTF_8.equals(charset)) {
+            parser = STREAM_MAPPER.getFactory().createParser(inputStream);
+        } else {
+            parser = STREAM_MAPPER.getFactory().createParser(new InputStreamReader(inputStream, charset));
+        }
+        try {
+            //空响应体与字符串反序列化保持一致，返回null
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            return STREAM_MAPPER.readValue(parser, STREAM_MAPPER.getTypeFactory().constructType(type));
+        } finally {
+            parser.close();
+        }
+    }
+
     /**
      * 序列化为JSON
      */
@@ -27,4 +66,12 @@ public final class DefaultSerializer implements HttpSerializer {
         return JacksonUtil.to(v);
     }
 
-}
\ No newline at end of file
+    /**
+     * 直接写入 writer，不生成完整的字符串，writer 抛出的异常原样抛出
+     */
+    @Override
+    public <V> void to(V v, Writer writer) throws IOException {
+        STREAM_MAPPER.writeValue(writer, v);
+    }
+
+}
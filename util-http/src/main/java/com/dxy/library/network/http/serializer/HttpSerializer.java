@@ -1,6 +1,12 @@
 package com.dxy.library.network.http.serializer;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+
+import com.dxy.library.util.common.IOUtils;
 
 /**
  * @author duanxinyuan
@@ -13,10 +19,28 @@ public interface HttpSerializer {
      */
     <V> V from(String json, Type type);
 
+    /**
+     * 从字节流反序列化，默认先解码为字符串，实现类可以覆盖为直接读取字节流，避免整个响应体转为字符串
+     * @param inputStream 字节流，由调用方负责关闭
+     * @param charset 字节流的编码
+     * @param type 目标类型
+     */
+    default <V> V from(InputStream inputStream, Charset charset, Type type) throws IOException {
+        return from(IOUtils.toString(inputStream, charset), type);
+    }
+
     /**
      * 序列化为JSON
      */
     <V> String to(V v);
 
+    /**
+     * 序列化为JSON并写入 writer，默认先序列化为字符串，实现类可以覆盖为直接写入，writer 抛出异常时停止序列化
+     * @param writer 输出，由调用方负责关闭
+     */
+    default <V> void to(V v, Writer writer) throws IOException {
+        writer.write(String.valueOf(to(v)));
+    }
+
 
 }
@@ -0,0 +1,79 @@
+package com.dxy.library.network.http.singleflight;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Okio;
+
+/**
+ * 合并请求共享的响应，响应体只读取一次，各个等待的请求从同一个字节数组读取，不再复制
+ * @author duanxinyuan
+ * 2026/10/18 22:30
+ */
+class SharedResponse {
+
+    private final Protocol protocol;
+
+    private final int code;
+
+    private final String message;
+
+    private final Headers headers;
+
+    private final byte[] body;
+
+    private final MediaType contentType;
+
+    private final long sentRequestAtMillis;
+
+    private final long receivedResponseAtMillis;
+
+    private SharedResponse(Response response, byte[] body, MediaType contentType) {
+        this.protocol = response.protocol();
+        this.code = response.code();
+        this.message = response.message();
+        this.headers = response.headers();
+        this.body = body;
+        this.contentType = contentType;
+        this.sentRequestAtMillis = response.sentRequestAtMillis();
+        this.receivedResponseAtMillis = response.receivedResponseAtMillis();
+    }
+
+    /**
+     * 读取完整响应体并关闭 Response
+     */
+    static SharedResponse read(Response response) throws IOException {
+        try (ResponseBody responseBody = response.body()) {
+            if (responseBody == null) {
+                return new SharedResponse(response, null, null);
+            }
+            return new SharedResponse(response, responseBody.bytes(), responseBody.contentType());
+        }
+    }
+
+    /**
+     * 以共享的响应体构建当前请求的 Response
+     */
+    Response toResponse(Request request) {
+        Response.Builder builder = new Response.Builder()
+            .request(request)
+            .protocol(protocol)
+            .code(code)
+            .message(message)
+            .headers(headers)
+            .sentRequestAtMillis(sentRequestAtMillis)
+            .receivedResponseAtMillis(receivedResponseAtMillis);
+        if (body != null) {
+            builder.body(ResponseBody.create(Okio.buffer(Okio.source(new ByteArrayInputStream(body))), contentType,
+                body.length));
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.dxy.library.network.http.singleflight;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.dxy.library.network.http.constant.Method;
+import com.dxy.library.util.config.ConfigUtils;
+import com.google.common.collect.Maps;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * 合并相同的并发请求（single-flight），每个请求实例独立合并，不同配置的执行器之间不互相等待
+ * 请求方式、地址和请求头都相同的请求同时只发起一次，其他请求等待并共享同一个响应，各自从共享的响应体反序列化
+ * 只合并没有请求体的 GET、HEAD、OPTIONS 请求
+ * @author duanxinyuan
+ * 2026/10/18 22:30
+ */
+public class SingleFlight {
+
+    /**
+     * 默认是否合并相同的并发请求，默认为false
+     */
+    public static final boolean ENABLE_DEFAULT = ConfigUtils.getAsBoolean("http.singleFlight.enable", false);
+
+    /**
+     * Map<请求, 正在进行的请求>
+     */
+    private final Map<String, CompletableFuture<SharedResponse>> flights = Maps.newConcurrentMap();
+
+    /**
+     * 被合并的请求数，即没有发起请求、直接共享响应的请求数
+     */
+    private final LongAdder sharedCount = new LongAdder();
+
+    /**
+     * 发起请求的操作
+     */
+    @FunctionalInterface
+    public interface NetworkCall {
+        Response execute() throws IOException;
+    }
+
+    /**
+     * 判断请求是否可以合并
+     */
+    public static boolean isCoalescible(Method method, Object body) {
+        return body == null && (method == Method.GET || method == Method.HEAD || method == Method.OPTIONS);
+    }
+
+    /**
+     * 相同的请求正在进行时等待其响应，否则发起请求，并将响应共享给等待中的请求
+     * @param request 请求
+     * @param timeoutMillis 等待相同请求响应的超时毫秒数，小于等于0时不限制
+     * @param networkCall 发起请求的操作
+     * @return 基于共享响应体的 Response
+     */
+    public Response execute(Request request, long timeoutMillis, NetworkCall networkCall) throws IOException {
+        String key = key(request);
+        CompletableFuture<SharedResponse> flight = new CompletableFuture<>();
+        CompletableFuture<SharedResponse> inflight = flights.putIfAbsent(key, flight);
+        if (inflight != null) {
+            sharedCount.increment();
+            return await(inflight, timeoutMillis).toResponse(request);
+        }
+        try {
+            SharedResponse sharedResponse = SharedResponse.read(networkCall.execute());
+            flight.complete(sharedResponse);
+            return sharedResponse.toResponse(request);
+        } catch (Throwable e) {
+            //包括 OutOfMemoryError 等 Error，保证等待中的请求不会一直阻塞
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * 被合并的请求数，即没有发起请求、直接共享响应的请求数
+     */
+    public long getSharedCount() {
+        return sharedCount.sum();
+    }
+
+    /**
+     * 正在进行的合并请求数
+     */
+    public int getInflightCount() {
+        return flights.size();
+    }
+
+    private static SharedResponse await(CompletableFuture<SharedResponse> flight, long timeoutMillis)
+        throws IOException {
+        try {
+            return timeoutMillis > 0 ? flight.get(timeoutMillis, TimeUnit.MILLISECONDS) : flight.get();
+        } catch (TimeoutException e) {
+            throw new SocketTimeoutException("single flight wait timeout");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("http call interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+
+    private static String key(Request request) {
+        return request.method() + " " + request.url() + "\n" + request.headers();
+    }
+
+}
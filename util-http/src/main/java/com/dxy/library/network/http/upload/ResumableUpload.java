@@ -0,0 +1,403 @@
+package com.dxy.library.network.http.upload;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import com.dxy.library.network.http.exception.HttpException;
+import com.dxy.library.util.common.ExecutorUtils;
+import com.dxy.library.util.common.NumberUtils;
+import com.dxy.library.util.common.StringUtils;
+import com.dxy.library.util.config.ConfigUtils;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.ByteString;
+import okio.Okio;
+
+/**
+ * 断点续传上传，使用 tus 1.0.0 协议（core、creation、concatenation 扩展）
+ * 文件较大且服务端支持 concatenation 扩展时分为多个部分并发上传，每部分按固定大小分块顺序发送 PATCH 请求，
+ * 全部完成后合并为最终的上传；单块上传失败时向服务端查询已确认的偏移量，从该位置继续
+ * 各部分的上传地址保存在进度文件中，上传失败后再次上传同一文件到同一地址时，只上传服务端尚未确认的部分
+ * @author duanxinyuan
+ * 2026/10/19 18:00
+ */
+@Slf4j
+public class ResumableUpload {
+
+    /**
+     * 每次 PATCH 请求上传的字节数，默认为8388608（8M）
+     */
+    public static final long CHUNK_SIZE_DEFAULT = ConfigUtils.getAsLong("http.upload.chunkSize", 8L * 1024 * 1024);
+
+    /**
+     * 默认的并发上传部分数，默认为4，服务端不支持 concatenation 扩展时为1
+     */
+    public static final int PARALLELISM_DEFAULT = ConfigUtils.getAsInt("http.upload.parallelism", 4);
+
+    /**
+     * 单块上传失败后从服务端确认的偏移量继续上传的次数，默认为3
+     */
+    private static final int CHUNK_RETRIES = ConfigUtils.getAsInt("http.upload.chunkRetries", 3);
+
+    /**
+     * 并发上传的线程数，默认为8，所有上传共享
+     */
+    private static final int UPLOAD_THREADS = ConfigUtils.getAsInt("http.upload.threads", 8);
+
+    /**
+     * 进度文件的目录，默认为系统临时目录
+     */
+    private static final String PROGRESS_DIR = ConfigUtils.getAsString("http.upload.progressDir",
+        System.getProperty("java.io.tmpdir"));
+
+    /**
+     * 并发上传的线程池
+     */
+    private static final ExecutorService UPLOAD_EXECUTOR = ExecutorUtils.getExecutorService("http-upload",
+        UPLOAD_THREADS);
+
+    private static final String TUS_VERSION = "1.0.0";
+
+    private static final String TUS_RESUMABLE = "Tus-Resumable";
+
+    private static final String TUS_EXTENSION = "Tus-Extension";
+
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+
+    private static final String UPLOAD_METADATA = "Upload-Metadata";
+
+    private static final String UPLOAD_CONCAT = "Upload-Concat";
+
+    private static final String LOCATION = "Location";
+
+    private static final MediaType OFFSET_OCTET_STREAM = MediaType.parse("application/offset+octet-stream");
+
+    private static final RequestBody EMPTY_BODY = RequestBody.create(new byte[0], null);
+
+    /**
+     * 发起请求的操作
+     */
+    @FunctionalInterface
+    public interface UploadCall {
+        Response execute(Request request) throws IOException;
+    }
+
+    private final UploadCall uploadCall;
+
+    /**
+     * 创建上传的请求，包含上传地址和请求头
+     */
+    private final Request request;
+
+    private final File file;
+
+    private final String filename;
+
+    private final long chunkSize;
+
+    private final int parallelism;
+
+    private final Executor executor;
+
+    /**
+     * @param uploadCall 发起请求的操作
+     * @param request 创建上传的请求，包含上传地址和请求头
+     * @param file 上传的文件
+     * @param filename 文件名称，通过 Upload-Metadata 发送，为空时不发送
+     * @param chunkSize 每次 PATCH 请求上传的字节数
+     * @param parallelism 最大并发上传部分数
+     * @param executor 并发上传的线程池，为null时使用共享的上传线程池
+     */
+    public ResumableUpload(UploadCall uploadCall, Request request, File file, String filename, long chunkSize,
+        int parallelism, Executor executor) {
+        this.uploadCall = uploadCall;
+        this.request = request;
+        this.file = file;
+        this.filename = filename;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.executor = executor == null ? UPLOAD_EXECUTOR : executor;
+    }
+
+    /**
+     * 上传文件，失败时保留进度文件，再次上传时继续
+     * @return 服务端的上传地址
+     * @throws HttpException 上传失败
+     */
+    public String execute() {
+        try {
+            return upload();
+        } catch (IOException e) {
+            throw new HttpException("resumable upload error", e);
+        }
+    }
+
+    private String upload() throws IOException {
+        if (!file.isFile()) {
+            throw new IOException("upload file not found: " + file);
+        }
+        String endpoint = request.url().toString();
+        UploadProgress progress = new UploadProgress(progressFile(endpoint), endpoint, file);
+        List<UploadPart> parts = progress.load();
+        if (parts != null && !restore(parts)) {
+            parts = null;
+        }
+        if (parts == null) {
+            parts = create(file.length());
+            progress.save(parts);
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (UploadPart part : parts) {
+            if (!part.isCompleted()) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        uploadPart(part);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor));
+            }
+        }
+        IOException failure = null;
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    Throwable cause = e.getCause();
+                    failure = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        String location = parts.size() == 1 ? parts.get(0).getUrl() : concat(parts);
+        progress.delete();
+        return location;
+    }
+
+    /**
+     * 向服务端查询各部分已经确认的偏移量，上传已经失效时返回false
+     */
+    private boolean restore(List<UploadPart> parts) throws IOException {
+        for (UploadPart part : parts) {
+            Request head = request.newBuilder().url(part.getUrl()).header(TUS_RESUMABLE, TUS_VERSION).head().build();
+            try (Response response = uploadCall.execute(head)) {
+                if (response.code() == 404 || response.code() == 410 || response.code() == 403) {
+                    log.warn("resumable upload expired, upload again, url: {}", part.getUrl());
+                    return false;
+                }
+                part.setOffset(parseOffset(response, part));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 在服务端创建上传，文件较大且服务端支持 concatenation 扩展时创建多个部分
+     */
+    private List<UploadPart> create(long length) throws IOException {
+        int count = (int) Math.min(parallelism, Math.max(1, (length + chunkSize - 1) / chunkSize));
+        if (count > 1 && !supportsConcatenation()) {
+            count = 1;
+        }
+        long size = (length + count - 1) / count;
+        List<UploadPart> parts = new ArrayList<>(count);
+        long start = 0;
+        do {
+            long partLength = Math.min(size, length - start);
+            Request.Builder builder = request.newBuilder()
+                .header(TUS_RESUMABLE, TUS_VERSION)
+                .header(UPLOAD_LENGTH, String.valueOf(partLength))
+                .post(EMPTY_BODY);
+            if (count > 1) {
+                builder.header(UPLOAD_CONCAT, "partial");
+            } else if (StringUtils.isNotEmpty(filename)) {
+                builder.header(UPLOAD_METADATA, metadata());
+            }
+            parts.add(new UploadPart(start, partLength, createUpload(builder.build())));
+            start += partLength;
+        } while (start < length);
+        return parts;
+    }
+
+    /**
+     * 将各部分合并为最终的上传
+     */
+    private String concat(List<UploadPart> parts) throws IOException {
+        StringBuilder concat = new StringBuilder("final;");
+        for (int i = 0; i < parts.size(); i++) {
+            concat.append(i == 0 ? "" : " ").append(parts.get(i).getUrl());
+        }
+        Request.Builder builder = request.newBuilder()
+            .header(TUS_RESUMABLE, TUS_VERSION)
+            .header(UPLOAD_CONCAT, concat.toString())
+            .post(EMPTY_BODY);
+        if (StringUtils.isNotEmpty(filename)) {
+            builder.header(UPLOAD_METADATA, metadata());
+        }
+        return createUpload(builder.build());
+    }
+
+    private String createUpload(Request create) throws IOException {
+        try (Response response = uploadCall.execute(create)) {
+            String location = response.header(LOCATION);
+            if (response.code() != 201 || location == null) {
+                throw new IOException("create upload failed, code: " + response.code() + ", url: " + create.url());
+            }
+            HttpUrl url = create.url().resolve(location);
+            if (url == null) {
+                throw new IOException("invalid upload location: " + location);
+            }
+            return url.toString();
+        }
+    }
+
+    private boolean supportsConcatenation() throws IOException {
+        Request options = request.newBuilder().method("OPTIONS", null).build();
+        try (Response response = uploadCall.execute(options)) {
+            String extensions = response.header(TUS_EXTENSION);
+            return response.isSuccessful() && extensions != null && extensions.contains("concatenation");
+        }
+    }
+
+    /**
+     * 按块顺序上传一部分，失败时从服务端确认的偏移量继续
+     */
+    private void uploadPart(UploadPart part) throws IOException {
+        int failures = 0;
+        while (!part.isCompleted()) {
+            try {
+                if (failures > 0) {
+                    //以服务端确认的偏移量为准，失败的块可能已经部分写入
+                    part.setOffset(queryOffset(part));
+                    if (part.isCompleted()) {
+                        return;
+                    }
+                }
+                uploadChunk(part);
+                failures = 0;
+            } catch (IOException e) {
+                if (e instanceof InterruptedIOException && Thread.currentThread().isInterrupted()
+                    || ++failures > CHUNK_RETRIES) {
+                    throw e;
+                }
+                log.warn("upload chunk failed, resume from acknowledged offset, part: {}", part, e);
+            }
+        }
+    }
+
+    private void uploadChunk(UploadPart part) throws IOException {
+        long offset = part.getOffset();
+        long size = Math.min(chunkSize, part.getLength() - offset);
+        Request patch = request.newBuilder()
+            .url(part.getUrl())
+            .header(TUS_RESUMABLE, TUS_VERSION)
+            .header(UPLOAD_OFFSET, String.valueOf(offset))
+            .patch(new FileRegionBody(file, part.getStart() + offset, size))
+            .build();
+        try (Response response = uploadCall.execute(patch)) {
+            if (!response.isSuccessful()) {
+                //409 表示偏移量与服务端不一致，查询后重新上传
+                throw new IOException("upload chunk failed, code: " + response.code() + ", part: " + part);
+            }
+            long acknowledged = parseOffset(response, part);
+            if (acknowledged < offset) {
+                throw new IOException("upload offset went backwards, offset: " + acknowledged + ", part: " + part);
+            }
+            part.setOffset(acknowledged);
+        }
+    }
+
+    private long queryOffset(UploadPart part) throws IOException {
+        Request head = request.newBuilder().url(part.getUrl()).header(TUS_RESUMABLE, TUS_VERSION).head().build();
+        try (Response response = uploadCall.execute(head)) {
+            if (!response.isSuccessful()) {
+                throw new IOException("query upload offset failed, code: " + response.code() + ", part: " + part);
+            }
+            return parseOffset(response, part);
+        }
+    }
+
+    private static long parseOffset(Response response, UploadPart part) throws IOException {
+        long offset = NumberUtils.toLong(response.header(UPLOAD_OFFSET), -1);
+        if (!response.isSuccessful() || offset < 0 || offset > part.getLength()) {
+            throw new IOException("invalid upload offset, code: " + response.code() + ", Upload-Offset: "
+                + response.header(UPLOAD_OFFSET) + ", part: " + part);
+        }
+        return offset;
+    }
+
+    /**
+     * Upload-Metadata 的值为键和 Base64 编码的值
+     */
+    private String metadata() {
+        return "filename " + ByteString.encodeUtf8(filename).base64();
+    }
+
+    /**
+     * 进度文件按上传地址和文件路径命名
+     */
+    private File progressFile(String endpoint) {
+        String key = ByteString.encodeUtf8(endpoint + "\n" + file.getAbsolutePath()).md5().hex();
+        return new File(PROGRESS_DIR, "http-upload-" + key + ".properties");
+    }
+
+    /**
+     * 文件中一段区域的请求体，每次发送时重新读取文件，可以重试
+     */
+    @SuppressWarnings("NullableProblems")
+    private static class FileRegionBody extends RequestBody {
+
+        private final File file;
+
+        private final long position;
+
+        private final long length;
+
+        FileRegionBody(File file, long position, long length) {
+            this.file = file;
+            this.position = position;
+            this.length = length;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return OFFSET_OCTET_STREAM;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                channel.position(position);
+                sink.write(Okio.source(Channels.newInputStream(channel)), length);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.dxy.library.network.http.upload;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 断点续传上传的一部分，对应服务端的一个上传地址，文件中 [start, start + length) 的数据上传到该地址
+ * @author duanxinyuan
+ * 2026/10/19 18:00
+ */
+@Getter
+@ToString
+public class UploadPart {
+
+    /**
+     * 在文件中的起始位置
+     */
+    private final long start;
+
+    private final long length;
+
+    /**
+     * 服务端的上传地址
+     */
+    private final String url;
+
+    /**
+     * 服务端已经确认的字节数
+     */
+    private volatile long offset;
+
+    public UploadPart(long start, long length, String url) {
+        this.start = start;
+        this.length = length;
+        this.url = url;
+    }
+
+    public boolean isCompleted() {
+        return offset >= length;
+    }
+
+    void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.dxy.library.network.http.upload;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+import com.dxy.library.util.common.NumberUtils;
+import com.dxy.library.util.common.StringUtils;
+
+/**
+ * 断点续传上传的进度文件，记录上传地址、文件的路径、长度、修改时间和各部分在服务端的上传地址
+ * 各部分已经上传的字节数以服务端为准，续传时重新查询；文件的长度或修改时间变化时进度失效，重新上传
+ * @author duanxinyuan
+ * 2026/10/19 18:00
+ */
+class UploadProgress {
+
+    private static final String ENDPOINT = "endpoint";
+
+    private static final String PATH = "path";
+
+    private static final String LENGTH = "length";
+
+    private static final String LAST_MODIFIED = "lastModified";
+
+    private static final String PARTS = "parts";
+
+    private static final String PART_PREFIX = "part.";
+
+    private static final String URL_SUFFIX = ".url";
+
+    private final File file;
+
+    private final String endpoint;
+
+    private final String path;
+
+    private final long length;
+
+    private final long lastModified;
+
+    UploadProgress(File file, String endpoint, File source) {
+        this.file = file;
+        this.endpoint = endpoint;
+        this.path = source.getAbsolutePath();
+        this.length = source.length();
+        this.lastModified = source.lastModified();
+    }
+
+    /**
+     * 读取进度文件中的各部分，进度文件不存在或已经失效时返回null
+     */
+    List<UploadPart> load() {
+        if (!file.isFile()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            return null;
+        }
+        if (!Objects.equals(endpoint, properties.getProperty(ENDPOINT))
+            || !Objects.equals(path, properties.getProperty(PATH))
+            || length != NumberUtils.toLong(properties.getProperty(LENGTH), -1)
+            || lastModified != NumberUtils.toLong(properties.getProperty(LAST_MODIFIED), -1)) {
+            return null;
+        }
+        int count = NumberUtils.toInt(properties.getProperty(PARTS), 0);
+        List<UploadPart> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] values = StringUtils.split(properties.getProperty(PART_PREFIX + i), ',');
+            String url = properties.getProperty(PART_PREFIX + i + URL_SUFFIX);
+            if (values == null || values.length != 2 || StringUtils.isEmpty(url)) {
+                return null;
+            }
+            parts.add(new UploadPart(NumberUtils.toLong(values[0]), NumberUtils.toLong(values[1]), url));
+        }
+        return parts.isEmpty() ? null : parts;
+    }
+
+    /**
+     * 保存各部分，先写入临时文件再替换，避免中断时留下不完整的进度文件
+     */
+    void save(List<UploadPart> parts) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(ENDPOINT, endpoint);
+        properties.setProperty(PATH, path);
+        properties.setProperty(LENGTH, String.valueOf(length));
+        properties.setProperty(LAST_MODIFIED, String.valueOf(lastModified));
+        properties.setProperty(PARTS, String.valueOf(parts.size()));
+        for (int i = 0; i < parts.size(); i++) {
+            UploadPart part = parts.get(i);
+            properties.setProperty(PART_PREFIX + i, part.getStart() + "," + part.getLength());
+            properties.setProperty(PART_PREFIX + i + URL_SUFFIX, part.getUrl());
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs() && !parent.exists()) {
+            throw new IOException("create directory failed: " + parent);
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (OutputStream outputStream = Files.newOutputStream(tmp.toPath())) {
+            properties.store(outputStream, null);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.dxy.library.network.http.virtual;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 虚拟线程支持，JDK 21 以下不支持虚拟线程
+ * JDK 21 及以上版本构建时，src/main/java21 下的同名类编译到多版本jar的 META-INF/versions/21 中，运行在 JDK 21+ 时生效
+ * @author duanxinyuan
+ * 2026/10/18 23:20
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前运行环境是否支持虚拟线程
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的线程池
+     * @param name 线程名前缀
+     * @throws UnsupportedOperationException 当前运行环境不支持虚拟线程
+     */
+    public static ExecutorService newExecutor(String name) {
+        throw new UnsupportedOperationException("virtual threads require JDK 21+, current: " + System.getProperty("java.version"));
+    }
+
+}
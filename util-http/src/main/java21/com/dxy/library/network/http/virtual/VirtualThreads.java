@@ -0,0 +1,31 @@
+package com.dxy.library.network.http.virtual;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程支持，JDK 21+ 版本，编译到多版本jar的 META-INF/versions/21 中
+ * @author duanxinyuan
+ * 2026/10/18 23:20
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前运行环境是否支持虚拟线程
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的线程池
+     * @param name 线程名前缀
+     */
+    public static ExecutorService newExecutor(String name) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+
+}
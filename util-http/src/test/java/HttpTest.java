@@ -1,22 +1,113 @@
 import com.dxy.library.json.jackson.JacksonUtil;
 import com.dxy.library.network.http.Http;
+import com.dxy.library.network.http.batch.BatchCall;
+import com.dxy.library.network.http.batch.BatchMode;
+import com.dxy.library.network.http.batch.BatchResult;
+import com.dxy.library.network.http.batch.RequestSpec;
+import com.dxy.library.network.http.body.StreamRequestBody;
+import com.dxy.library.network.http.breaker.CircuitBreaker;
+import com.dxy.library.network.http.cache.CachedResult;
+import com.dxy.library.network.http.cache.HttpCache;
+import com.dxy.library.network.http.cache.ResultCache;
+import com.dxy.library.network.http.cache.ResultKey;
 import com.dxy.library.network.http.callback.RequestCallback;
+import com.dxy.library.network.http.codec.CborCodec;
+import com.dxy.library.network.http.codec.HttpCodec;
+import com.dxy.library.network.http.codec.ProtobufCodec;
+import com.dxy.library.network.http.codec.SmileCodec;
+import com.dxy.library.network.http.compress.CompressedRequestBody;
+import com.dxy.library.network.http.compress.ContentEncoding;
 import com.dxy.library.network.http.constant.Method;
+import com.dxy.library.network.http.download.DownloadSink;
+import com.dxy.library.network.http.exception.HttpException;
+import com.dxy.library.network.http.executor.Executor;
 import com.dxy.library.network.http.header.Headers;
+import com.dxy.library.network.http.hedge.HedgePolicy;
+import com.dxy.library.network.http.hedge.HedgedCall;
+import com.dxy.library.network.http.hedge.LatencyTracker;
+import com.dxy.library.network.http.limit.AdaptiveLimiter;
+import com.dxy.library.network.http.metrics.CallMetrics;
+import com.dxy.library.network.http.metrics.HttpMetrics;
+import com.dxy.library.network.http.metrics.MetricKey;
+import com.dxy.library.network.http.metrics.MetricPhase;
+import com.dxy.library.network.http.metrics.MetricsEventListener;
+import com.dxy.library.network.http.metrics.PoolEventListener;
+import com.dxy.library.network.http.metrics.PoolMetrics;
+import com.dxy.library.network.http.param.FileParam;
+import com.dxy.library.network.http.param.Params;
+import com.dxy.library.network.http.reactive.BodyPublisher;
+import com.dxy.library.network.http.retry.DefaultRetryPolicy;
+import com.dxy.library.network.http.retry.RetryBudget;
+import com.dxy.library.network.http.retry.RetryCallback;
+import com.dxy.library.network.http.retry.RetryPolicy;
+import com.dxy.library.network.http.serializer.DefaultSerializer;
+import com.dxy.library.network.http.singleflight.SingleFlight;
+import com.dxy.library.network.http.virtual.VirtualThreads;
 import com.dxy.library.util.common.IOUtils;
+import com.dxy.library.util.common.StringUtils;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.luben.zstd.ZstdInputStream;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.protobuf.StringValue;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import okio.GzipSource;
+import okio.Okio;
+import org.HdrHistogram.Histogram;
 import org.junit.Assert;
 import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author duanxinyuan
@@ -52,6 +143,20 @@ public class HttpTest {
         System.out.println(IOUtils.toString(reader));
     }
 
+    /**
+     * 测试以流式接收数据
+     */
+    @Test
+    public void testHttpStreaming() throws IOException {
+        try (InputStream inputStream = Http.streaming().timeout(300).get("https://www.baidu.com", InputStream.class)) {
+            System.out.println(IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+        }
+
+        try (Reader reader = Http.timeout(300).streaming().get("https://www.baidu.com", Reader.class)) {
+            System.out.println(IOUtils.toString(reader));
+        }
+    }
+
     @Test
     public void testHttp() {
         System.out.println(Http.execute(Method.POST, "http://baidu.com?q=123", null, null, null, null, String.class));
@@ -79,6 +184,62 @@ public class HttpTest {
         System.out.println(JacksonUtil.to(map));
     }
 
+    /**
+     * 测试直接从字节流反序列化
+     */
+    @Test
+    public void testSerializerStream() throws IOException {
+        byte[] bytes = "{\"name\":\"测试\",\"count\":3}".getBytes(StandardCharsets.UTF_8);
+        HashMap<String, Object> map = new DefaultSerializer().from(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8,
+            new TypeReference<HashMap<String, Object>>() {}.getType());
+        Assert.assertEquals("测试", map.get("name"));
+        Assert.assertEquals(3, map.get("count"));
+        Assert.assertNull(new DefaultSerializer().from(new ByteArrayInputStream(new byte[0]), StandardCharsets.UTF_8, HashMap.class));
+    }
+
+    /**
+     * 测试序列化直接写入 Writer，Writer 抛出异常时停止序列化，不生成完整的字符串
+     */
+    @Test
+    public void testSerializerWriter() throws IOException {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("id", i);
+            item.put("name", "测试-" + i);
+            items.add(item);
+        }
+        StringWriter stringWriter = new StringWriter();
+        new DefaultSerializer().to(items.subList(0, 1), stringWriter);
+        Assert.assertEquals(JacksonUtil.to(items.subList(0, 1)), stringWriter.toString());
+
+        AtomicLong written = new AtomicLong();
+        Writer limitedWriter = new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) throws IOException {
+                if (written.addAndGet(len) > 100) {
+                    throw new IOException("limit");
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try {
+            new DefaultSerializer().to(items, limitedWriter);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("limit", e.getMessage());
+        }
+        //只序列化了一个缓冲区的内容
+        Assert.assertTrue(written.get() < 64 * 1024);
+    }
+
     @Test
     public void testGetAsync() throws InterruptedException {
         Http.getAsync("http://www.baidu.com", new RequestCallback() {
@@ -97,5 +258,1364 @@ public class HttpTest {
         countDownLatch.await();
     }
 
+    /**
+     * 测试 CompletableFuture 异步请求，在指定的线程池中完成，同一个线程池复用同一个派生执行器，线程池拒绝时以异常结束
+     */
+    @Test
+    public void testGetFuture() throws Exception {
+        MockWebServer server = new MockWebServer();
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setBody("{\"name\":\"future\"}"));
+        }
+        server.start();
+        AtomicInteger executed = new AtomicInteger();
+        java.util.concurrent.Executor pool = r -> {
+            executed.incrementAndGet();
+            new Thread(r).start();
+        };
+        try {
+            String url = server.url("/future").toString();
+            Assert.assertEquals("future", Http.getFuture(url, new TypeReference<Map<String, String>>() {}).get(5, TimeUnit.SECONDS).get("name"));
+
+            Assert.assertSame(Http.completeOn(pool), Http.completeOn(pool));
+            Assert.assertNotSame(Http.completeOn(pool), Http.completeOn(Runnable::run));
+            Assert.assertEquals("{\"name\":\"future\"}", Http.completeOn(pool).getFuture(url, String.class).get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, executed.get());
+
+            CompletableFuture<String> rejected = Http.completeOn(r -> {
+                throw new java.util.concurrent.RejectedExecutionException("rejected");
+            }).getFuture(url, String.class);
+            try {
+                rejected.get(5, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof HttpException);
+            }
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 测试请求日志按 UTF-8 字节数截断，不拆分多字节字符和代理对
+     */
+    @Test
+    public void testLogTruncate() {
+        String content = "ab测试\uD83D\uDE00c";
+        Assert.assertEquals(13, StringUtils.utf8Length(content));
+        Assert.assertEquals(content.getBytes(StandardCharsets.UTF_8).length, StringUtils.utf8Length(content));
+        Assert.assertEquals(2, StringUtils.utf8PrefixLength(content, 4));
+        Assert.assertEquals(3, StringUtils.utf8PrefixLength(content, 5));
+        Assert.assertEquals(4, StringUtils.utf8PrefixLength(content, 10));
+        Assert.assertEquals(4, StringUtils.utf8PrefixLength(content, 11));
+        Assert.assertEquals(6, StringUtils.utf8PrefixLength(content, 12));
+        Assert.assertEquals(content.length(), StringUtils.utf8PrefixLength(content, 100));
+        Assert.assertEquals(0, StringUtils.utf8PrefixLength(content, 0));
+    }
+
+    /**
+     * 测试二进制编解码器的编解码、按 Content-Type 协商和执行器指定的编解码器
+     */
+    @Test
+    public void testCodec() throws Exception {
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", "测试");
+        value.put("count", 3);
+        for (HttpCodec codec : Arrays.asList(new SmileCodec(), new CborCodec())) {
+            Map<String, Object> decoded = codec.decode(new ByteArrayInputStream(codec.encode(value)), new TypeReference<Map<String, Object>>() {}.getType());
+            Assert.assertEquals(value, decoded);
+            Assert.assertNull(codec.decode(new ByteArrayInputStream(new byte[0]), Map.class));
+        }
+        ProtobufCodec protobufCodec = new ProtobufCodec();
+        Assert.assertEquals(StringValue.of("测试"), protobufCodec.decode(new ByteArrayInputStream(protobufCodec.encode(StringValue.of("测试"))), StringValue.class));
+        try {
+            protobufCodec.encode(value);
+            Assert.fail();
+        } catch (HttpException e) {
+            System.out.println(e.getMessage());
+        }
+
+        AtomicInteger decodes = new AtomicInteger();
+        SmileCodec customCodec = new SmileCodec() {
+            @Override
+            public <V> V decode(InputStream inputStream, java.lang.reflect.Type type) throws IOException {
+                decodes.incrementAndGet();
+                return super.decode(inputStream, type);
+            }
+        };
+        Assert.assertNotSame(Http.codec(new SmileCodec()), Http.codec(customCodec));
+        Assert.assertSame(Http.codec(customCodec), Http.codec(customCodec));
+
+        SmileCodec smileCodec = new SmileCodec();
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setHeader("Content-Type", SmileCodec.MEDIA_TYPE).setBody(new Buffer().write(smileCodec.encode(value))));
+        server.enqueue(new MockResponse().setHeader("Content-Type", ProtobufCodec.MEDIA_TYPE).setBody(new Buffer().write(StringValue.of("protobuf").toByteArray())));
+        server.enqueue(new MockResponse().setHeader("Content-Type", CborCodec.MEDIA_TYPE).setBody(new Buffer().write(new CborCodec().encode(value))));
+        server.start();
+        try {
+            String url = server.url("/codec").toString();
+            Map<String, Object> result = Http.codec(customCodec).postJson(url, value, new TypeReference<Map<String, Object>>() {});
+            Assert.assertEquals(value, result);
+            //响应的 Content-Type 与执行器的编解码器一致时使用执行器的编解码器
+            Assert.assertEquals(1, decodes.get());
+            RecordedRequest request = server.takeRequest();
+            Assert.assertEquals(SmileCodec.MEDIA_TYPE, MediaType.get(request.getHeader("Content-Type")).type() + "/" + MediaType.get(request.getHeader("Content-Type")).subtype());
+            Assert.assertEquals(SmileCodec.MEDIA_TYPE, request.getHeader("Accept"));
+            Assert.assertEquals(value, smileCodec.decode(request.getBody().inputStream(), Map.class));
+
+            //响应按 Content-Type 选择已注册的编解码器
+            Assert.assertEquals(StringValue.of("protobuf"), Http.get(url, StringValue.class));
+            Assert.assertEquals(value, Http.codec(customCodec).get(url, new TypeReference<Map<String, Object>>() {}));
+            Assert.assertEquals(1, decodes.get());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 测试重试退避间隔、重试预算和按重试策略派生的执行器
+     */
+    @Test
+    public void testRetryPolicy() {
+        DefaultRetryPolicy retryPolicy = new DefaultRetryPolicy(5, 100).maxIntervalMillis(300);
+        for (int i = 0; i < 5; i++) {
+            long backoffMillis = retryPolicy.backoffMillis(i);
+            Assert.assertTrue(backoffMillis >= 0 && backoffMillis <= Math.min(300, 100L << i));
+        }
+        RetryBudget retryBudget = new RetryBudget(0.5, 0, 1);
+        Assert.assertTrue(retryBudget.tryAcquire());
+        Assert.assertFalse(retryBudget.tryAcquire());
+        retryBudget.onSuccess();
+        retryBudget.onSuccess();
+        Assert.assertTrue(retryBudget.tryAcquire());
+
+        //同一个重试策略复用同一个派生执行器，不同的重试策略不会互相覆盖，不再使用的派生执行器可以被回收
+        Assert.assertSame(Http.retryPolicy(retryPolicy), Http.retryPolicy(retryPolicy));
+        Assert.assertNotSame(Http.retryPolicy(retryPolicy), Http.retryPolicy(new DefaultRetryPolicy(5, 100)));
+        java.lang.ref.WeakReference<Object> derived = new java.lang.ref.WeakReference<>(Http.retryPolicy(new DefaultRetryPolicy(1, 100)));
+        for (int i = 0; i < 50 && derived.get() != null; i++) {
+            System.gc();
+            Uninterruptibles.sleepUninterruptibly(20, TimeUnit.MILLISECONDS);
+        }
+        Assert.assertNull(derived.get());
+    }
+
+    /**
+     * 测试异步请求的重试，重试间隔内不占用调度线程，取消时同时取消等待中的重试
+     */
+    @Test
+    public void testAsyncRetry() throws Exception {
+        RetryPolicy retryPolicy = new RetryPolicy() {
+            @Override
+            public boolean shouldRetry(Request request, Response response, IOException e, int retryCount) {
+                return response != null && response.code() == 503 && retryCount < 3;
+            }
+
+            @Override
+            public long backoffMillis(int retryCount) {
+                return 300;
+            }
+
+            @Override
+            public RetryBudget retryBudget(Request request) {
+                return null;
+            }
+        };
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("ok"));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("ok"));
+        server.start();
+        OkHttpClient client = new OkHttpClient();
+        try {
+            Request request = new Request.Builder().url(server.url("/retry")).build();
+            CompletableFuture<Integer> code = new CompletableFuture<>();
+            Callback callback = new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    code.completeExceptionally(e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    response.close();
+                    code.complete(response.code());
+                }
+            };
+            long startTime = System.nanoTime();
+            new RetryCallback(client, request, retryPolicy, callback).enqueue();
+            //第一次请求失败后，重试间隔内调度器中没有运行的请求
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+            while ((server.getRequestCount() == 0 || client.dispatcher().runningCallsCount() > 0) && System.nanoTime() < deadline) {
+                Uninterruptibles.sleepUninterruptibly(5, TimeUnit.MILLISECONDS);
+            }
+            Assert.assertEquals(1, server.getRequestCount());
+            Assert.assertEquals(0, client.dispatcher().runningCallsCount());
+            Assert.assertEquals(200, (int) code.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(3, server.getRequestCount());
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) >= 600);
+
+            CompletableFuture<Integer> canceled = new CompletableFuture<>();
+            RetryCallback retryCallback = new RetryCallback(client, request, retryPolicy, new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    canceled.completeExceptionally(e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    response.close();
+                    canceled.complete(response.code());
+                }
+            }).enqueue();
+            deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+            while (server.getRequestCount() < 4 && System.nanoTime() < deadline) {
+                Uninterruptibles.sleepUninterruptibly(5, TimeUnit.MILLISECONDS);
+            }
+            retryCallback.cancel();
+            try {
+                canceled.get(5, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof IOException);
+            }
+            Assert.assertEquals(4, server.getRequestCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 测试对冲延迟的耗时分位数
+     */
+    @Test
+    public void testHedgeLatencyPercentile() {
+        LatencyTracker latencyTracker = new LatencyTracker();
+        Assert.assertEquals(-1, latencyTracker.percentile(0.5));
+        for (int i = 1; i <= 64; i++) {
+            latencyTracker.record(i);
+        }
+        Assert.assertEquals(32, latencyTracker.percentile(0.5));
+        Assert.assertEquals(64, latencyTracker.percentile(1));
+    }
+
+    /**
+     * 测试对冲请求：慢请求被更快的对冲请求取代，不可重试的状态码直接返回，在调度器中排队的时间不触发对冲
+     */
+    @Test
+    public void testHedge() throws Exception {
+        Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                int count = counts.computeIfAbsent(request.getPath(), p -> new AtomicInteger()).incrementAndGet();
+                switch (request.getPath()) {
+                    case "/slow-first":
+                        return count == 1 ? new MockResponse().setBody("slow").setHeadersDelay(2, TimeUnit.SECONDS) : new MockResponse().setBody("fast");
+                    case "/not-found":
+                        return new MockResponse().setResponseCode(404).setBody("not found");
+                    case "/hang":
+                        return new MockResponse().setBody("hang").setHeadersDelay(3, TimeUnit.SECONDS);
+                    default:
+                        return new MockResponse().setBody("ok").setHeadersDelay(500, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+        server.start();
+        try {
+            //先完成初始化，不计入耗时
+            Executor hedgeExecutor = Http.hedge(100, 2);
+            long startTime = System.nanoTime();
+            Assert.assertEquals("fast", hedgeExecutor.get(server.url("/slow-first").toString()));
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) < 1500);
+            Assert.assertEquals(2, counts.get("/slow-first").get());
+
+            //404 不会因为对冲或失败重发
+            Assert.assertEquals("not found", Http.hedge(100, 3).get(server.url("/not-found").toString()));
+            Uninterruptibles.sleepUninterruptibly(300, TimeUnit.MILLISECONDS);
+            Assert.assertEquals(1, counts.get("/not-found").get());
+
+            //等待时间受超时时间限制
+            startTime = System.nanoTime();
+            try {
+                Http.timeoutMillis(300).hedge(100, 2).get(server.url("/hang").toString());
+                Assert.fail();
+            } catch (HttpException e) {
+                System.out.println(e.getMessage());
+            }
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) < 2000);
+
+            //调度器只允许一个请求，对冲请求排队期间不计入对冲延迟
+            OkHttpClient client = new OkHttpClient.Builder().addInterceptor(HedgedCall.START_INTERCEPTOR).build();
+            client.dispatcher().setMaxRequests(1);
+            client.newCall(new Request.Builder().url(server.url("/blocker")).build()).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    response.close();
+                }
+            });
+            CompletableFuture<String> future = new CompletableFuture<>();
+            new HedgedCall(client, new Request.Builder().url(server.url("/queued")).build(), new HedgePolicy(50, 2), new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    future.completeExceptionally(e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) throws IOException {
+                    future.complete(response.body().string());
+                }
+            }).enqueue();
+            Assert.assertEquals("ok", future.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, counts.get("/queued").get());
+
+            //对冲请求先返回时，按第一次请求的开始时间记录耗时
+            AtomicLong recorded = new AtomicLong(-1);
+            LatencyTracker latencyTracker = new LatencyTracker() {
+                @Override
+                public synchronized void record(long millis) {
+                    recorded.set(millis);
+                }
+            };
+            CompletableFuture<String> hedged = new CompletableFuture<>();
+            counts.remove("/slow-first");
+            new HedgedCall(new OkHttpClient.Builder().addInterceptor(HedgedCall.START_INTERCEPTOR).build(),
+                new Request.Builder().url(server.url("/slow-first")).build(), new HedgePolicy(200, 2) {
+                @Override
+                public LatencyTracker latencyTracker(Request request) {
+                    return latencyTracker;
+                }
+            }, new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    hedged.completeExceptionally(e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) throws IOException {
+                    hedged.complete(response.body().string());
+                }
+            }).enqueue();
+            Assert.assertEquals("fast", hedged.get(5, TimeUnit.SECONDS));
+            Assert.assertTrue(recorded.get() >= 200);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 测试熔断器状态转换
+     */
+    @Test
+    public void testCircuitBreaker() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test.com", 10, 4, 50, 100, 1000, 100, 2);
+        //熔断器打开前发出的请求
+        CircuitBreaker.Permission inFlight = circuitBreaker.tryAcquirePermission();
+        for (int i = 0; i < 4; i++) {
+            CircuitBreaker.Permission permission = circuitBreaker.tryAcquirePermission();
+            Assert.assertNotNull(permission);
+            permission.onResult(i % 2 == 0, 10);
+        }
+        Assert.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assert.assertNull(circuitBreaker.tryAcquirePermission());
+        TimeUnit.MILLISECONDS.sleep(150);
+        CircuitBreaker.Permission probe1 = circuitBreaker.tryAcquirePermission();
+        CircuitBreaker.Permission probe2 = circuitBreaker.tryAcquirePermission();
+        Assert.assertTrue(probe1.isProbe() && probe2.isProbe());
+        Assert.assertNull(circuitBreaker.tryAcquirePermission());
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        //打开前发出的请求不计为探测请求，取消的探测请求不统计并归还名额
+        inFlight.onResult(false, 10);
+        probe1.release();
+        probe2.onResult(false, 10);
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        CircuitBreaker.Permission probe3 = circuitBreaker.tryAcquirePermission();
+        Assert.assertNotNull(probe3);
+        Assert.assertNull(circuitBreaker.tryAcquirePermission());
+        probe3.onResult(false, 10);
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        //熔断器打开时异步下载只记录日志，不向调用方抛出异常
+        CircuitBreaker openBreaker = CircuitBreaker.forHost("127.0.0.2");
+        while (openBreaker.getState() != CircuitBreaker.State.OPEN) {
+            openBreaker.tryAcquirePermission().onResult(true, 10);
+        }
+        Executor executor = Http.circuitBreakerEnable(true);
+        executor.downloadAsync("http://127.0.0.2:1/file", new ByteArrayOutputStream());
+        executor.downloadAsync("http://127.0.0.2:1/file", System.getProperty("java.io.tmpdir") + "/circuit-breaker.bin");
+    }
+
+    /**
+     * 测试响应缓存
+     */
+    @Test
+    public void testResponseCache() throws Exception {
+        Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+        Map<String, String> conditions = new ConcurrentHashMap<>();
+        String lastModified = "Mon, 19 Oct 2026 10:00:00 GMT";
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                counts.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+                switch (path) {
+                    case "/etag":
+                        String ifNoneMatch = request.getHeader("If-None-Match");
+                        if (ifNoneMatch != null) {
+                            conditions.put(path, ifNoneMatch);
+                        }
+                        if ("\"v1\"".equals(ifNoneMatch)) {
+                            return new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\"");
+                        }
+                        return new MockResponse().setHeader("Cache-Control", "no-cache").setHeader("ETag", "\"v1\"")
+                            .setBody("etag");
+                    case "/last-modified":
+                        String ifModifiedSince = request.getHeader("If-Modified-Since");
+                        if (ifModifiedSince != null) {
+                            conditions.put(path, ifModifiedSince);
+                            return new MockResponse().setResponseCode(304);
+                        }
+                        return new MockResponse().setHeader("Cache-Control", "no-cache")
+                            .setHeader("Last-Modified", lastModified).setBody("last-modified");
+                    default:
+                        return new MockResponse().setHeader("Cache-Control", "max-age=60").setBody("fresh");
+                }
+            }
+        });
+        server.start();
+        try {
+            HttpCache.clear();
+            Executor executor = Http.cacheEnable(true);
+            //未过期时直接使用缓存
+            Assert.assertEquals("fresh", executor.get(server.url("/fresh").toString()));
+            Assert.assertEquals("fresh", executor.get(server.url("/fresh").toString()));
+            Assert.assertEquals(1, counts.get("/fresh").get());
+            //需要重新验证时携带 If-None-Match / If-Modified-Since，服务端返回304时使用缓存的响应体
+            Assert.assertArrayEquals("etag".getBytes(StandardCharsets.UTF_8), executor.get(server.url("/etag").toString(), byte[].class));
+            Assert.assertArrayEquals("etag".getBytes(StandardCharsets.UTF_8), executor.get(server.url("/etag").toString(), byte[].class));
+            Assert.assertEquals(2, counts.get("/etag").get());
+            Assert.assertEquals("\"v1\"", conditions.get("/etag"));
+            Assert.assertEquals("last-modified", executor.get(server.url("/last-modified").toString()));
+            Assert.assertEquals("last-modified", executor.get(server.url("/last-modified").toString()));
+            Assert.assertEquals(2, counts.get("/last-modified").get());
+            Assert.assertEquals(lastModified, conditions.get("/last-modified"));
+
+            Assert.assertEquals(1, HttpCache.getHitCount());
+            Assert.assertEquals(2, HttpCache.getConditionalHitCount());
+            Assert.assertEquals(3, HttpCache.getMissCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 测试响应缓存按共享缓存处理：不缓存 private 的响应，携带 Authorization 时只缓存 public 等响应
+     */
+    @Test
+    public void testResponseCacheShared() throws Exception {
+        Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                counts.computeIfAbsent(request.getPath(), p -> new AtomicInteger()).incrementAndGet();
+                String cacheControl = request.getPath().startsWith("/private") ? "private, max-age=60"
+                    : request.getPath().startsWith("/public") ? "public, max-age=60" : "max-age=60";
+                return new MockResponse().setHeader("Cache-Control", cacheControl).setBody(request.getPath());
+            }
+        });
+        server.start();
+        try {
+            Executor executor = Http.cacheEnable(true);
+            Headers authorization = new Headers("Authorization", "Bearer token");
+            for (int i = 0; i < 2; i++) {
+                executor.get(server.url("/shared").toString());
+                executor.get(server.url("/private").toString());
+                executor.get(server.url("/auth").toString(), authorization);
+                executor.get(server.url("/public-auth").toString(), authorization);
+            }
+            Assert.assertEquals(1, counts.get("/shared").get());
+            Assert.assertEquals(2, counts.get("/private").get());
+            Assert.assertEquals(2, counts.get("/auth").get());
+            Assert.assertEquals(1, counts.get("/public-auth").get());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 测试 maxStale 保留请求原有的 Cache-Control 指令
+     */
+    @Test
+    public void testResponseCacheMaxStale() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                count.incrementAndGet();
+                return new MockResponse().setHeader("Cache-Control", "max-age=60").setBody("ok");
+            }
+        });
+        server.start();
+        try {
+            Executor executor = Http.cacheEnable(true).maxStale(1, TimeUnit.MINUTES);
+            String url = server.url("/max-stale").toString();
+            executor.get(url);
+            executor.get(url);
+            Assert.assertEquals(1, count.get());
+            //请求指定 no-cache 时不使用缓存
+            executor.get(url, new Headers("Cache-Control", "no-cache"));
+            Assert.assertEquals(2, count.get());
+            Assert.assertTrue(server.takeRequest().getHeader("Cache-Control").contains("max-stale=60"));
+            Assert.assertEquals("no-cache, max-stale=60", server.takeRequest().getHeader("Cache-Control"));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 测试结果缓存
+     */
+    @Test
+    public void testResultCache() throws Exception {
+        ResultCache resultCache = new ResultCache(200, 0, 1024);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<CachedResult> loader = () -> {
+            TimeUnit.MILLISECONDS.sleep(50);
+            CachedResult cachedResult = new CachedResult();
+            cachedResult.setValue(loads.incrementAndGet());
+            cachedResult.setWeight(10);
+            return cachedResult;
+        };
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Params params = i % 2 == 0 ? new Params("a", "1").add("b", "2") : new Params("b", "2").add("a", "1");
+            futures.add(CompletableFuture.supplyAsync(
+                () -> resultCache.get(new ResultKey(Method.GET, "http://test.com", null, params, Integer.class, loader))));
+        }
+        for (CompletableFuture<Integer> future : futures) {
+            Assert.assertEquals(1, (int) future.get());
+        }
+        Assert.assertEquals(1, loads.get());
+        TimeUnit.MILLISECONDS.sleep(250);
+        Assert.assertEquals(2, (int) resultCache.get(new ResultKey(Method.GET, "http://test.com?b=2&a=1", null, null, Integer.class, loader)));
+
+        //请求头名称忽略大小写
+        ResultKey upperKey = new ResultKey(Method.GET, "http://test.com", new Headers("Token", "1"), null, Integer.class, loader);
+        ResultKey lowerKey = new ResultKey(Method.GET, "http://test.com", new Headers("token", "1"), null, Integer.class, loader);
+        Assert.assertEquals(upperKey, lowerKey);
+        Assert.assertEquals(upperKey.hashCode(), lowerKey.hashCode());
+        Assert.assertEquals(resultCache.get(upperKey), (Integer) resultCache.get(lowerKey));
+        Assert.assertEquals(3, loads.get());
+        ResultKey mergedKey = new ResultKey(Method.GET, "http://test.com", new Headers("Token", "1").add("token", "2"), null,
+            Integer.class, loader);
+        Assert.assertNotEquals(upperKey, mergedKey);
+    }
+
+    /**
+     * 测试结果缓存后台刷新得到非2xx响应时保留旧值
+     */
+    @Test
+    public void testResultCacheRefreshKeepsOldValue() throws Exception {
+        ResultCache resultCache = new ResultCache(1000, 100, 1024);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<CachedResult> loader = () -> {
+            CachedResult cachedResult = new CachedResult();
+            int load = loads.incrementAndGet();
+            cachedResult.setValue(load);
+            cachedResult.setWeight(10);
+            cachedResult.setCacheable(load == 1);
+            return cachedResult;
+        };
+        ResultKey key = new ResultKey(Method.GET, "http://test.com/refresh", null, null, Integer.class, loader);
+        Assert.assertEquals(1, (int) resultCache.get(key));
+        TimeUnit.MILLISECONDS.sleep(150);
+        //触发后台刷新，刷新期间返回旧值
+        Assert.assertEquals(1, (int) resultCache.get(key));
+        for (int i = 0; i < 50 && loads.get() < 2; i++) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        TimeUnit.MILLISECONDS.sleep(50);
+        Assert.assertEquals(2, loads.get());
+        Assert.assertEquals(1, (int) resultCache.get(key));
+        Assert.assertEquals(1, resultCache.size());
+    }
+
+    /**
+     * 测试合并相同的并发请求
+     */
+    @Test
+    public void testSingleFlight() throws Exception {
+        Request request = new Request.Builder().url("http://test.com/single-flight").build();
+        AtomicInteger calls = new AtomicInteger();
+        SingleFlight.NetworkCall networkCall = () -> {
+            calls.incrementAndGet();
+            Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+            return new Response.Builder().request(request).protocol(Protocol.HTTP_1_1).code(200).message("OK")
+                .body(ResponseBody.create("shared", MediaType.get("text/plain"))).build();
+        };
+        SingleFlight singleFlight = new SingleFlight();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try (Response response = singleFlight.execute(request, 1000, networkCall)) {
+                    return response.body().string();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+        for (CompletableFuture<String> future : futures) {
+            Assert.assertEquals("shared", future.get());
+        }
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(7, singleFlight.getSharedCount());
+        Assert.assertEquals(0, singleFlight.getInflightCount());
+    }
+
+    /**
+     * 测试合并请求抛出 Error 和等待超时时，等待中的请求不会一直阻塞
+     */
+    @Test
+    public void testSingleFlightFailure() throws Exception {
+        Request request = new Request.Builder().url("http://test.com/single-flight-failure").build();
+        SingleFlight singleFlight = new SingleFlight();
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Response> leader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return singleFlight.execute(request, 1000, () -> {
+                    started.countDown();
+                    Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+                    throw new OutOfMemoryError("single flight");
+                });
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        started.await();
+        try {
+            singleFlight.execute(request, 1000, () -> null);
+            Assert.fail();
+        } catch (OutOfMemoryError e) {
+            Assert.assertEquals("single flight", e.getMessage());
+        }
+        try {
+            leader.get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof OutOfMemoryError);
+        }
+
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CompletableFuture.runAsync(() -> {
+            try {
+                singleFlight.execute(request, 1000, () -> {
+                    slowStarted.countDown();
+                    Uninterruptibles.sleepUninterruptibly(500, TimeUnit.MILLISECONDS);
+                    throw new IOException("slow");
+                });
+            } catch (IOException ignored) {
+            }
+        });
+        slowStarted.await();
+        long startTime = System.nanoTime();
+        try {
+            singleFlight.execute(request, 100, () -> null);
+            Assert.fail();
+        } catch (SocketTimeoutException e) {
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) < 400);
+        }
+    }
+
+    /**
+     * 测试批量请求
+     */
+    @Test
+    public void testExecuteAll() throws IOException {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String index = request.getRequestUrl().queryParameter("i");
+                return new MockResponse().setBody(index)
+                    .setHeadersDelay(Integer.parseInt(index) % 3 * 20, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+        try {
+            List<RequestSpec> requestSpecs = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                requestSpecs.add(RequestSpec.get(server.url("/batch").toString(), new Params("i", i)));
+            }
+            List<BatchResult<String>> results = Http.timeout(3).executeAll(requestSpecs, 4);
+            Assert.assertEquals(10, results.size());
+            for (int i = 0; i < results.size(); i++) {
+                Assert.assertEquals(i, results.get(i).getIndex());
+                Assert.assertTrue(results.get(i).isSuccess());
+                Assert.assertEquals(String.valueOf(i), results.get(i).getValue());
+            }
+
+            BatchCall<String> batchCall = Http.timeout(3).iterateAll(requestSpecs, 4, BatchMode.FAIL_FAST);
+            for (int i = 0; i < 10; i++) {
+                Assert.assertTrue(batchCall.hasNext());
+                Assert.assertEquals(String.valueOf(i), batchCall.next().getValue());
+            }
+            Assert.assertFalse(batchCall.hasNext());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 测试 FAIL_FAST 模式下后面的请求先失败时，迭代当前请求抛出失败请求的异常，而不是取消请求的异常
+     */
+    @Test
+    public void testExecuteAllFailFast() throws IOException {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                switch (request.getRequestUrl().queryParameter("i")) {
+                    case "0":
+                        return new MockResponse().setBody("0").setHeadersDelay(1, TimeUnit.SECONDS);
+                    case "2":
+                        return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+                    default:
+                        return new MockResponse().setBody("ok");
+                }
+            }
+        });
+        server.start();
+        try {
+            List<RequestSpec> requestSpecs = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                requestSpecs.add(RequestSpec.get(server.url("/batch").toString(), new Params("i", i)));
+            }
+            BatchCall<String> batchCall = Http.retries(0).timeout(3).iterateAll(requestSpecs, 4, BatchMode.FAIL_FAST);
+            try {
+                batchCall.next();
+                Assert.fail();
+            } catch (HttpException e) {
+                Assert.assertEquals("http call execute error", e.getMessage());
+            }
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 测试批量请求中大量请求同步失败时不递归发起后续请求，FAIL_FAST 模式抛出失败请求的异常
+     */
+    @Test(timeout = 60000)
+    public void testExecuteAllFailedImmediately() {
+        List<RequestSpec> requestSpecs = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            requestSpecs.add(RequestSpec.get("invalid-url-" + i));
+        }
+        List<BatchResult<String>> results = Http.executeAll(requestSpecs, 1);
+        Assert.assertEquals(20000, results.size());
+        for (BatchResult<String> result : results) {
+            Assert.assertFalse(result.isSuccess());
+        }
+
+        BatchCall<String> batchCall = Http.iterateAll(requestSpecs, 1, BatchMode.FAIL_FAST);
+        try {
+            batchCall.next();
+            Assert.fail();
+        } catch (NullPointerException e) {
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e instanceof HttpException || e instanceof IllegalArgumentException);
+        }
+    }
+
+    /**
+     * 测试自适应并发限制
+     */
+    @Test
+    public void testAdaptiveLimiter() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test.com", 2, 1, 10);
+        Assert.assertTrue(limiter.acquire(0));
+        Assert.assertTrue(limiter.acquire(0));
+        Assert.assertFalse(limiter.acquire(10));
+        CountDownLatch acquired = new CountDownLatch(1);
+        limiter.acquireAsync(acquired::countDown);
+        Assert.assertEquals(1, limiter.getPending());
+        //耗时平稳时增加并发限制，等待的异步请求获取名额
+        limiter.onSample(TimeUnit.MILLISECONDS.toNanos(10), false);
+        Assert.assertEquals(3, limiter.getLimit());
+        Assert.assertEquals(0, acquired.getCount());
+        //被限流时减小并发限制
+        limiter.onSample(TimeUnit.MILLISECONDS.toNanos(10), true);
+        Assert.assertEquals(2, limiter.getLimit());
+    }
+
+    /**
+     * 测试自适应并发限制中同步和异步请求按排队顺序获取名额
+     */
+    @Test
+    public void testAdaptiveLimiterFifo() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test.com", 1, 1, 10);
+        Assert.assertTrue(limiter.acquire(0));
+        CountDownLatch asyncAcquired = new CountDownLatch(1);
+        limiter.acquireAsync(asyncAcquired::countDown);
+        CompletableFuture<Boolean> syncAcquired = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire(5000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (limiter.getPending() < 2) {
+            Thread.sleep(1);
+        }
+        //先排队的异步请求先获取名额，同步请求继续等待
+        limiter.release();
+        Assert.assertEquals(0, asyncAcquired.getCount());
+        Assert.assertEquals(1, limiter.getPending());
+        limiter.release();
+        Assert.assertTrue(syncAcquired.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, limiter.getPending());
+        Assert.assertEquals(1, limiter.getInflight());
+    }
+
+    /**
+     * 测试异步请求的单个域名并发数：未开启自适应并发限制时按 maxRequestsPerHost 限制，开启后由自适应并发限制控制
+     */
+    @Test
+    public void testAsyncMaxRequestsPerHost() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+                active.decrementAndGet();
+                return new MockResponse().setBody("ok");
+            }
+        });
+        server.start();
+        try {
+            String url = server.url("/").toString();
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(Http.getFuture(url, String.class));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(5, maxActive.get());
+
+            maxActive.set(0);
+            futures.clear();
+            Executor executor = Http.limitEnable(true);
+            for (int i = 0; i < 10; i++) {
+                futures.add(executor.getFuture(url, String.class));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+            Assert.assertTrue(maxActive.get() > 5);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 测试虚拟线程，JDK 21 以下回退到 OkHttp 的调度线程
+     */
+    @Test
+    public void testVirtualThreads() throws Exception {
+        String version = System.getProperty("java.specification.version");
+        boolean jdk21 = !version.startsWith("1.") && Integer.parseInt(version) >= 21;
+        Assert.assertEquals(jdk21, VirtualThreads.isSupported());
+        if (!VirtualThreads.isSupported()) {
+            try {
+                VirtualThreads.newExecutor("test");
+                Assert.fail();
+            } catch (UnsupportedOperationException ignored) {
+            }
+        }
+        CountDownLatch registered = new CountDownLatch(1);
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                registered.await(3, TimeUnit.SECONDS);
+                return new MockResponse().setBody("virtual");
+            }
+        });
+        server.start();
+        try {
+            CompletableFuture<String> future = Http.timeout(3).virtual().getFuture(server.url("/").toString(), String.class);
+            //注册回调后才返回响应，只等待回调的结果，回调在完成 Future 的线程中执行
+            CompletableFuture<Thread> completedOn = future.thenApply(value -> Thread.currentThread());
+            registered.countDown();
+            Thread thread = completedOn.get(3, TimeUnit.SECONDS);
+            Assert.assertEquals("virtual", future.join());
+            Assert.assertEquals(thread.toString(), VirtualThreads.isSupported(), isVirtual(thread));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        try {
+            return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 测试 Reactive Streams 分块发布响应体
+     */
+    @Test
+    public void testBodyPublisher() throws Exception {
+        byte[] data = new byte[256 * 1024];
+        new Random().nextBytes(data);
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                switch (request.getPath()) {
+                    case "/error":
+                        return new MockResponse().setResponseCode(500).setBody("boom");
+                    default:
+                        return new MockResponse().setBody(new Buffer().write(data))
+                            .throttleBody(16 * 1024, 5, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+        server.start();
+        try {
+            //每次只请求一个元素，未请求时不发布
+            BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+            Subscription subscription = subscribe(Http.timeout(3).getBodyPublisher(server.url("/data").toString()), events);
+            ByteArrayOutputStream received = new ByteArrayOutputStream();
+            int chunks = 0;
+            while (true) {
+                subscription.request(1);
+                Object event = events.poll(5, TimeUnit.SECONDS);
+                if ("complete".equals(event)) {
+                    break;
+                }
+                Assert.assertTrue(String.valueOf(event), event instanceof ByteBuffer);
+                ByteBuffer chunk = (ByteBuffer) event;
+                Assert.assertTrue(chunk.remaining() > 0 && chunk.remaining() <= BodyPublisher.CHUNK_SIZE);
+                received.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+                if (++chunks <= 3) {
+                    Assert.assertNull(events.poll(50, TimeUnit.MILLISECONDS));
+                }
+            }
+            Assert.assertArrayEquals(data, received.toByteArray());
+            Assert.assertNull(events.poll(50, TimeUnit.MILLISECONDS));
+
+            //非2xx响应以 HttpException 结束
+            events.clear();
+            subscribe(Http.timeout(3).getBodyPublisher(server.url("/error").toString()), events).request(1);
+            Object error = events.poll(5, TimeUnit.SECONDS);
+            Assert.assertTrue(String.valueOf(error), error instanceof HttpException);
+            Assert.assertTrue(((HttpException) error).getMessage().startsWith("http call failed"));
+            Assert.assertNull(events.poll(50, TimeUnit.MILLISECONDS));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 测试取消 Reactive Streams 订阅时取消请求并释放连接
+     */
+    @Test
+    public void testBodyPublisherCancel() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setBody(new Buffer().write(new byte[8 * 1024 * 1024]))
+            .throttleBody(16 * 1024, 100, TimeUnit.MILLISECONDS));
+        server.start();
+        OkHttpClient client = new OkHttpClient();
+        AtomicReference<Call> call = new AtomicReference<>();
+        try {
+            BodyPublisher publisher = new BodyPublisher(callback -> {
+                call.set(client.newCall(new Request.Builder().url(server.url("/slow")).build()));
+                call.get().enqueue(callback);
+                return call.get()::cancel;
+            }, ForkJoinPool.commonPool());
+            BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+            Subscription subscription = subscribe(publisher, events);
+            subscription.request(1);
+            Assert.assertTrue(events.poll(5, TimeUnit.SECONDS) instanceof ByteBuffer);
+            subscription.cancel();
+            Assert.assertTrue(call.get().isCanceled());
+            //取消后不再发布元素，也不发送结束信号
+            Assert.assertNull(events.poll(200, TimeUnit.MILLISECONDS));
+            //未读完的连接被关闭，不会放回连接池
+            for (int i = 0; i < 50 && client.connectionPool().connectionCount() > 0; i++) {
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+            Assert.assertEquals(0, client.connectionPool().connectionCount());
+        } finally {
+            client.dispatcher().executorService().shutdown();
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 订阅并将 onNext 的元素、onError 的异常和 onComplete 的 "complete" 依次放入队列
+     */
+    private static Subscription subscribe(Publisher<ByteBuffer> publisher, BlockingQueue<Object> events) {
+        AtomicReference<Subscription> subscription = new AtomicReference<>();
+        publisher.subscribe(new Subscriber<ByteBuffer>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription.set(s);
+            }
+
+            @Override
+            public void onNext(ByteBuffer byteBuffer) {
+                events.add(byteBuffer);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                events.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                events.add("complete");
+            }
+        });
+        return subscription.get();
+    }
+
+    /**
+     * 测试分段下载
+     */
+    @Test
+    public void testDownloadRanged() throws IOException {
+        byte[] data = new byte[4 * 1024 * 1024 + 123];
+        new Random().nextBytes(data);
+        long segmentSize = (data.length + 3) / 4;
+        AtomicReference<byte[]> content = new AtomicReference<>(data);
+        AtomicReference<String> etag = new AtomicReference<>("\"v1\"");
+        AtomicBoolean interrupted = new AtomicBoolean(true);
+        AtomicBoolean changeAfterProbe = new AtomicBoolean(false);
+        AtomicLong rangedBytes = new AtomicLong();
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String range = request.getHeader("Range");
+                String ifRange = request.getHeader("If-Range");
+                if (range == null || ifRange != null && !ifRange.equals(etag.get())) {
+                    return new MockResponse().setHeader("ETag", etag.get()).setBody(new Buffer().write(content.get()));
+                }
+                String[] bounds = range.substring("bytes=".length()).split("-");
+                int start = Integer.parseInt(bounds[0]);
+                int end = Integer.parseInt(bounds[1]);
+                MockResponse response = new MockResponse().setResponseCode(206).setHeader("ETag", etag.get())
+                    .setHeader("Content-Range", "bytes " + start + "-" + end + "/" + content.get().length)
+                    .setBody(new Buffer().write(content.get(), start, end - start + 1));
+                if (range.equals("bytes=0-0")) {
+                    if (changeAfterProbe.get()) {
+                        etag.set("\"v2\"");
+                    }
+                    return response;
+                }
+                rangedBytes.addAndGet(end - start + 1);
+                if (interrupted.get() && start >= 2 * segmentSize && start < 3 * segmentSize) {
+                    //第3段每次只返回一部分后断开连接
+                    response.setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+                }
+                return response;
+            }
+        });
+        server.start();
+        File directory = Files.createTempDirectory("download").toFile();
+        File file = new File(directory, "data.bin");
+        File part = new File(file.getPath() + ".part");
+        File progress = new File(file.getPath() + ".download");
+        try {
+            String url = server.url("/data.bin").toString();
+            //第3段重试后仍然中断，保留已下载的部分和进度文件
+            try {
+                Http.downloadRanged(url, file.getPath(), 4);
+                Assert.fail();
+            } catch (HttpException e) {
+                System.out.println(e.getMessage());
+            }
+            Assert.assertFalse(file.exists());
+            Assert.assertTrue(part.exists());
+            Assert.assertTrue(progress.exists());
+
+            //续传时只请求未完成的部分
+            interrupted.set(false);
+            rangedBytes.set(0);
+            Http.downloadRanged(url, file.getPath(), 4);
+            Assert.assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+            Assert.assertTrue(rangedBytes.get() > 0 && rangedBytes.get() < segmentSize);
+            Assert.assertFalse(part.exists());
+            Assert.assertFalse(progress.exists());
+
+            //下载过程中资源发生变化时，If-Range 不匹配，服务端返回完整响应，丢弃已下载的部分
+            byte[] changed = new byte[data.length];
+            new Random().nextBytes(changed);
+            content.set(changed);
+            changeAfterProbe.set(true);
+            File changedFile = new File(directory, "changed.bin");
+            try {
+                Http.downloadRanged(url, changedFile.getPath(), 4);
+                Assert.fail();
+            } catch (HttpException e) {
+                System.out.println(e.getMessage());
+            }
+            Assert.assertFalse(changedFile.exists());
+            Assert.assertFalse(new File(changedFile.getPath() + ".part").exists());
+            Assert.assertFalse(new File(changedFile.getPath() + ".download").exists());
+
+            //重新下载时使用新的资源
+            changeAfterProbe.set(false);
+            Http.downloadRanged(url, changedFile.getPath(), 4);
+            Assert.assertArrayEquals(changed, Files.readAllBytes(changedFile.toPath()));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 测试下载写入 FileChannel
+     */
+    @Test
+    public void testDownloadSink() throws IOException {
+        byte[] data = new byte[1024 * 1024 + 17];
+        new Random().nextBytes(data);
+        File file = Files.createTempFile("download", ".bin").toFile();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            //按偏移量写入，不改变 FileChannel 的位置
+            DownloadSink sink = new DownloadSink(channel, 10);
+            Buffer buffer = new Buffer().write(data);
+            sink.write(buffer, buffer.size());
+            sink.close();
+            Assert.assertEquals(data.length, sink.getBytesWritten());
+            Assert.assertEquals(0, channel.position());
+        }
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Assert.assertEquals(data.length + 10, bytes.length);
+        Assert.assertArrayEquals(data, Arrays.copyOfRange(bytes, 10, bytes.length));
+    }
+
+    /**
+     * 测试流式请求体
+     */
+    @Test
+    public void testStreamRequestBody() throws IOException {
+        byte[] data = new byte[3 * 1024 * 1024];
+        new Random().nextBytes(data);
+        MediaType mediaType = MediaType.parse("application/octet-stream");
+
+        StreamRequestBody oneShot = new StreamRequestBody(new ByteArrayInputStream(data), mediaType, -1, false);
+        Assert.assertTrue(oneShot.isOneShot());
+        Assert.assertEquals(-1, oneShot.contentLength());
+        Buffer buffer = new Buffer();
+        oneShot.writeTo(buffer);
+        Assert.assertArrayEquals(data, buffer.readByteArray());
+        try {
+            oneShot.writeTo(buffer);
+            Assert.fail();
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+
+        //可重放时超出内存阈值的部分写入临时文件，重放的数据与第一次发送的一致
+        try (StreamRequestBody replayable = new StreamRequestBody(new ByteArrayInputStream(data), mediaType, data.length, true)) {
+            Assert.assertFalse(replayable.isOneShot());
+            for (int i = 0; i < 2; i++) {
+                replayable.writeTo(buffer);
+                Assert.assertArrayEquals(data, buffer.readByteArray());
+            }
+        }
+    }
+
+    /**
+     * 测试断点续传上传，使用本地的 tus 服务端，单块上传中断后从服务端确认的偏移量继续，上传失败后再次上传时只上传剩余部分
+     */
+    @Test
+    public void testUploadResumable() throws Exception {
+        byte[] data = new byte[1024 * 1024 + 7];
+        new Random().nextBytes(data);
+        File file = Files.createTempFile("upload", ".bin").toFile();
+        Files.write(file.toPath(), data);
+
+        Map<String, Buffer> uploads = new ConcurrentHashMap<>();
+        AtomicInteger partialFailures = new AtomicInteger(2);
+        AtomicBoolean unavailable = new AtomicBoolean(true);
+        AtomicLong patchedBytes = new AtomicLong();
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                switch (request.getMethod()) {
+                    case "OPTIONS":
+                        return new MockResponse().setResponseCode(204).setHeader("Tus-Extension", "creation,concatenation");
+                    case "POST":
+                        String concat = request.getHeader("Upload-Concat");
+                        String id = "/files/" + uploads.size();
+                        Buffer buffer = new Buffer();
+                        if (concat != null && concat.startsWith("final;")) {
+                            for (String url : concat.substring(6).split(" ")) {
+                                uploads.get(HttpUrl.get(url).encodedPath()).copyTo(buffer, 0, uploads.get(HttpUrl.get(url).encodedPath()).size());
+                            }
+                        }
+                        uploads.put(id, buffer);
+                        return new MockResponse().setResponseCode(201).setHeader("Location", id);
+                    case "HEAD":
+                        return new MockResponse().setHeader("Upload-Offset", uploads.get(path).size());
+                    case "PATCH":
+                        Buffer upload = uploads.get(path);
+                        if (Long.parseLong(request.getHeader("Upload-Offset")) != upload.size()) {
+                            return new MockResponse().setResponseCode(409);
+                        }
+                        long size = request.getBodySize();
+                        if (partialFailures.getAndDecrement() > 0) {
+                            //只接收一半后失败
+                            size = size / 2;
+                        } else if (unavailable.get()) {
+                            size = 0;
+                        } else {
+                            upload.write(request.getBody(), size);
+                            patchedBytes.addAndGet(size);
+                            return new MockResponse().setResponseCode(204).setHeader("Upload-Offset", upload.size());
+                        }
+                        upload.write(request.getBody(), size);
+                        patchedBytes.addAndGet(size);
+                        return new MockResponse().setResponseCode(500);
+                    default:
+                        return new MockResponse().setResponseCode(405);
+                }
+            }
+        });
+        server.start();
+        try {
+            String url = server.url("/files").toString();
+            FileParam fileParam = new FileParam("file", file);
+            try {
+                Http.uploadResumable(url, fileParam, 64 * 1024, 4);
+                Assert.fail();
+            } catch (HttpException e) {
+                System.out.println(e.getMessage());
+            }
+            long uploaded = patchedBytes.get();
+            unavailable.set(false);
+            String location = Http.uploadResumable(url, fileParam, 64 * 1024, 4);
+            Assert.assertArrayEquals(data, uploads.get(HttpUrl.get(location).encodedPath()).readByteArray());
+            //续传时只上传服务端尚未确认的部分
+            Assert.assertEquals(data.length, patchedBytes.get());
+            Assert.assertTrue(uploaded > 0);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 测试请求体压缩
+     */
+    @Test
+    public void testRequestCompression() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 10000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"name").append(i).append("\"}");
+        }
+        String content = json.append("]").toString();
+        RequestBody body = RequestBody.create(content, MediaType.parse("application/json; charset=utf-8"));
+
+        CompressedRequestBody gzipBody = new CompressedRequestBody(body, ContentEncoding.GZIP);
+        Assert.assertEquals(-1, gzipBody.contentLength());
+        Buffer gzip = new Buffer();
+        gzipBody.writeTo(gzip);
+        Assert.assertTrue(gzip.size() < body.contentLength() / 4);
+        Assert.assertEquals(content, Okio.buffer(new GzipSource(gzip)).readUtf8());
+
+        Buffer zstd = new Buffer();
+        new CompressedRequestBody(body, ContentEncoding.ZSTD).writeTo(zstd);
+        Assert.assertTrue(zstd.size() < body.contentLength() / 4);
+        try (ZstdInputStream inputStream = new ZstdInputStream(zstd.inputStream())) {
+            Assert.assertEquals(content, Okio.buffer(Okio.source(inputStream)).readUtf8());
+        }
+
+        Assert.assertEquals(ContentEncoding.ZSTD, ContentEncoding.of("zstd"));
+        Assert.assertNull(ContentEncoding.of(""));
+        try {
+            ContentEncoding.of("br");
+            Assert.fail();
+        } catch (HttpException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * 测试耗时统计
+     */
+    @Test
+    public void testCallMetrics() {
+        CallMetrics callMetrics = new CallMetrics();
+        for (int i = 1; i <= 100; i++) {
+            callMetrics.record(MetricPhase.TOTAL, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        callMetrics.record(MetricPhase.DNS, -1);
+        Assert.assertEquals(100, callMetrics.snapshot(MetricPhase.TOTAL).getTotalCount());
+        Assert.assertEquals(0, callMetrics.snapshot(MetricPhase.DNS).getTotalCount());
+        Assert.assertEquals(99, TimeUnit.MICROSECONDS.toMillis(callMetrics.snapshot(MetricPhase.TOTAL).getValueAtPercentile(99)));
+        Assert.assertEquals(100, callMetrics.getCount(MetricPhase.TOTAL));
+
+        //区间统计获取后重新开始统计，累计统计不受影响
+        Histogram interval = callMetrics.intervalSnapshot(MetricPhase.TOTAL, null);
+        Assert.assertEquals(100, interval.getTotalCount());
+        callMetrics.record(MetricPhase.TOTAL, TimeUnit.MILLISECONDS.toNanos(1));
+        interval = callMetrics.intervalSnapshot(MetricPhase.TOTAL, interval);
+        Assert.assertEquals(1, interval.getTotalCount());
+        Assert.assertEquals(101, callMetrics.getCount(MetricPhase.TOTAL));
+    }
+
+    /**
+     * 测试命中缓存（没有收到响应头）的请求按 CACHE 分类统计
+     */
+    @Test
+    public void testCallMetricsCacheHit() throws IOException {
+        OkHttpClient client = new OkHttpClient.Builder()
+            .addInterceptor(chain -> new Response.Builder().request(chain.request()).protocol(Protocol.HTTP_1_1)
+                .code(200).message("OK").body(ResponseBody.create("cached", null)).build())
+            .eventListenerFactory(call -> new MetricsEventListener(new PoolMetrics(new ConnectionPool(), new Dispatcher())))
+            .build();
+        try (Response response = client.newCall(new Request.Builder().url("http://metrics-cache.test/").build()).execute()) {
+            Assert.assertEquals("cached", response.body().string());
+        }
+        Assert.assertTrue(HttpMetrics.getMetrics().containsKey(new MetricKey("metrics-cache.test", Method.GET, "CACHE")));
+        Assert.assertFalse(HttpMetrics.getMetrics().containsKey(new MetricKey("metrics-cache.test", Method.GET, "0xx")));
+    }
+
+    @Test
+    public void testPoolMetrics() {
+        PoolMetrics poolMetrics = new PoolMetrics(new ConnectionPool(), new Dispatcher());
+        PoolEventListener eventListener = poolMetrics.getEventListener();
+        for (int i = 0; i < 4; i++) {
+            eventListener.connectionAcquired(null, null);
+        }
+        eventListener.connectEnd(null, null, null, null);
+        Assert.assertEquals(4, poolMetrics.getAcquiredCount());
+        Assert.assertEquals(1, poolMetrics.getConnectedCount());
+        Assert.assertEquals(0.75, poolMetrics.getReuseRatio(), 1e-9);
+        Assert.assertEquals(1, poolMetrics.getClosedCount());
+        Assert.assertEquals(0, poolMetrics.getIdleConnections());
+        Assert.assertEquals(0, poolMetrics.getQueuedCalls());
+    }
 
 }